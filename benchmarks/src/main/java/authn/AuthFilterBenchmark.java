@@ -0,0 +1,138 @@
+package authn;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.SecurityContext;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RESTRequestFilter y sus piezas en el camino habitual: credenciales Basic
+ * ya verificadas (acierto en CredentialsCache) y tokens Bearer.
+ *
+ * El filtro se monta a mano: la petición y ResourceInfo son proxies y los
+ * campos @Inject se rellenan por reflexión. La verificación PBKDF2 de un
+ * fallo de caché no se mide aquí, es deliberadamente lenta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthFilterBenchmark {
+    private static final String BASIC = "Basic "
+            + Base64.getEncoder().encodeToString("sob:sob".getBytes(StandardCharsets.UTF_8));
+
+    private RESTRequestFilter filter;
+    private TokenService tokens;
+    private String token;
+    private ContainerRequestContext basicRequest;
+    private ContainerRequestContext bearerRequest;
+
+    @Setup
+    public void setup() throws Exception {
+        CredentialsCache cache = new CredentialsCache();
+        cache.put(CredentialsCache.keyFor(BASIC), "sob");
+        tokens = new TokenService();
+        tokens.init();
+        token = tokens.issue("sob");
+
+        filter = new RESTRequestFilter();
+        inject(filter, "cache", cache);
+        inject(filter, "tokens", tokens);
+        inject(filter, "resourceInfo", securedResource());
+        basicRequest = request(BASIC);
+        bearerRequest = request("Bearer " + token);
+    }
+
+    @Benchmark
+    public BasicAuthorization parseBasicHeader() {
+        return BasicAuthorization.parse(BASIC);
+    }
+
+    @Benchmark
+    public String credentialsCacheKey() {
+        return CredentialsCache.keyFor(BASIC);
+    }
+
+    @Benchmark
+    public String verifyBearerToken() {
+        return tokens.verify(token);
+    }
+
+    @Benchmark
+    public ContainerRequestContext filterBasicCached() throws IOException {
+        filter.filter(basicRequest);
+        return basicRequest;
+    }
+
+    @Benchmark
+    public ContainerRequestContext filterBearer() throws IOException {
+        filter.filter(bearerRequest);
+        return bearerRequest;
+    }
+
+    private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static ResourceInfo securedResource() throws NoSuchMethodException {
+        Method method = SecuredResource.class.getMethod("get");
+        return (ResourceInfo) Proxy.newProxyInstance(ResourceInfo.class.getClassLoader(),
+                new Class<?>[]{ResourceInfo.class},
+                (proxy, m, args) -> "getResourceMethod".equals(m.getName()) ? method : SecuredResource.class);
+    }
+
+    private static ContainerRequestContext request(String authorization) {
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.add(HttpHeaders.AUTHORIZATION, authorization);
+        SecurityContext insecure = (SecurityContext) Proxy.newProxyInstance(SecurityContext.class.getClassLoader(),
+                new Class<?>[]{SecurityContext.class},
+                (proxy, m, args) -> m.getReturnType() == boolean.class ? Boolean.FALSE : null);
+        SecurityContext[] current = {insecure};
+        return (ContainerRequestContext) Proxy.newProxyInstance(ContainerRequestContext.class.getClassLoader(),
+                new Class<?>[]{ContainerRequestContext.class},
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getHeaders":
+                            return headers;
+                        case "getSecurityContext":
+                            return current[0];
+                        case "setSecurityContext":
+                            current[0] = (SecurityContext) args[0];
+                            return null;
+                        case "abortWith":
+                            throw new IllegalStateException("Request rejected: " + args[0]);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    public static class SecuredResource {
+        @Secured
+        public void get() {
+        }
+    }
+}
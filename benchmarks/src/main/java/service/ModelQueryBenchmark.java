@@ -0,0 +1,144 @@
+package service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.ws.rs.core.EntityTag;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import model.entities.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Las consultas de GET /models (ModelFacadeREST.findAllQuery y las
+ * proyecciones de ETag y view=summary) contra Derby embebido en memoria.
+ *
+ * Usa la unidad Homework1PU de persistence.xml cambiada a RESOURCE_LOCAL;
+ * cada operación abre su EntityManager como lo haría una petición, así que
+ * la caché compartida de EclipseLink está caliente igual que en el servidor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelQueryBenchmark {
+    private static final List<String> ONE_CAPABILITY = Collections.singletonList("code");
+    private static final List<String> TWO_CAPABILITIES = Arrays.asList("code", "vision");
+
+    @Param({"1000"})
+    public int models;
+
+    private EntityManagerFactory emf;
+
+    @Setup
+    public void setup() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jakarta.persistence.transactionType", "RESOURCE_LOCAL");
+        properties.put("jakarta.persistence.jtaDataSource", "");
+        properties.put("jakarta.persistence.jdbc.driver", "org.apache.derby.jdbc.EmbeddedDriver");
+        properties.put("jakarta.persistence.jdbc.url", "jdbc:derby:memory:homework1bench;create=true");
+        properties.put("jakarta.persistence.validation.mode", "NONE");
+        // en la aplicación el esquema lo crea DataInitializer
+        properties.put("jakarta.persistence.schema-generation.database.action", "drop-and-create");
+        properties.put("eclipselink.logging.level", "SEVERE");
+        emf = Persistence.createEntityManagerFactory("Homework1PU", properties);
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (int i = 0; i < models; i++) {
+                Model model = SampleModels.model(i);
+                model.setId(null);
+                model.setVersion(null);
+                em.persist(model);
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Model> findAll() {
+        return findAll(null, null);
+    }
+
+    @Benchmark
+    public List<Model> findAllFullGraph() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return ModelFacadeREST.findAllQuery(em, null, null)
+                    .setHint("jakarta.persistence.loadgraph", em.getEntityGraph("Model.full"))
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<Model> findByProvider() {
+        return findAll(null, "anthropic");
+    }
+
+    @Benchmark
+    public List<Model> findByOneCapability() {
+        return findAll(ONE_CAPABILITY, null);
+    }
+
+    @Benchmark
+    public List<Model> findByTwoCapabilitiesAndProvider() {
+        return findAll(TWO_CAPABILITIES, "openai");
+    }
+
+    @Benchmark
+    public EntityTag listETag() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return AbstractFacade.listTag(ModelFacadeREST.versionsQuery(em, null, null).getResultList());
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<ModelSummary> summaryView() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return ModelFacadeREST.filteredQuery(em, ModelSummary.SELECT, ModelSummary.class, null, null)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    private List<Model> findAll(List<String> capabilities, String provider) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return ModelFacadeREST.findAllQuery(em, capabilities, provider).getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
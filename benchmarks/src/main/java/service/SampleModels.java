@@ -0,0 +1,64 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import model.entities.Customer;
+import model.entities.Model;
+
+/**
+ * Datos de ejemplo con el tamaño de los modelos reales del catálogo
+ */
+final class SampleModels {
+    static final String[] PROVIDERS = {"OpenAI", "Anthropic", "Google", "Meta", "Mistral"};
+    static final String[] CAPABILITIES = {"chat", "code", "vision", "reasoning", "tools", "audio"};
+
+    private SampleModels() {
+    }
+
+    static Model model(int i) {
+        Model model = new Model();
+        model.setId((long) i + 1);
+        model.setVersion(1L);
+        model.setName("Model " + i);
+        model.setProvider(PROVIDERS[i % PROVIDERS.length]);
+        model.setSummary("General purpose language model tuned for assistants, with long context "
+                + "and tool use, suitable for chat and code generation workloads.");
+        model.setDescription("A large language model trained on a mixture of public web data, "
+                + "licensed data and synthetic data. It supports multi-turn dialogue, structured "
+                + "output, function calling and retrieval augmented generation. Variant " + i + ".");
+        model.setCapabilities(new ArrayList<>(Arrays.asList(
+                CAPABILITIES[i % CAPABILITIES.length], CAPABILITIES[(i + 1) % CAPABILITIES.length],
+                CAPABILITIES[(i + 3) % CAPABILITIES.length])));
+        model.setLicense(i % 3 == 0 ? "Apache-2.0" : "Proprietary");
+        model.setMaxContextTokens(8192 << (i % 5));
+        model.setInputTypes(new ArrayList<>(Arrays.asList("text", "image")));
+        model.setOutputTypes(new ArrayList<>(Arrays.asList("text")));
+        model.setPrivate(i % 7 == 0);
+        model.setLogoUrl("https://example.org/logos/" + i + ".png");
+        model.setLastVersion("v" + (i % 4 + 1) + ".0");
+        model.setTrainingDate(new Date(1672531200000L));
+        model.setLastUpdateDate(new Date(1704067200000L));
+        model.setVersions(new ArrayList<>(Arrays.asList("v1.0", "v2.0", "v" + (i % 4 + 1) + ".0")));
+        return model;
+    }
+
+    static List<Model> models(int count) {
+        List<Model> models = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            models.add(model(i));
+        }
+        return models;
+    }
+
+    static Customer customer(Model lastViewed) {
+        Customer customer = new Customer("sob");
+        customer.setId(1L);
+        customer.setVersion(1L);
+        customer.setDisplayName("Usuario de prueba");
+        customer.setEmail("sob@example.org");
+        customer.setLastViewedModel(lastViewed);
+        return customer;
+    }
+}
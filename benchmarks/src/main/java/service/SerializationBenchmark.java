@@ -0,0 +1,167 @@
+package service;
+
+import cbor.CborGenerator;
+import cbor.CborParser;
+import cbor.EntityCbor;
+import jakarta.json.Json;
+import jakarta.json.JsonWriter;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Marshaller;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.entities.Customer;
+import model.entities.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialización de las respuestas: JSON-B (lo que usa Jersey por defecto)
+ * frente a EntityJson sobre JSON-P, el objeto HATEOAS de GET /customer/{id},
+ * XML con JAXB y CBOR con EntityCbor. Todo se escribe en un buffer
+ * reutilizado, como haría el contenedor sobre el stream de la respuesta.
+ *
+ * Los *Parse miden el otro lado: leer la lista de 100 modelos, como hacen
+ * los servicios que descargan el catálogo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    private Jsonb jsonb;
+    private JsonGeneratorFactory generators;
+    private Marshaller marshaller;
+    private Model model;
+    private List<Model> models;
+    private Customer customer;
+    private byte[] modelListJson;
+    private byte[] modelListCbor;
+
+    @Setup
+    public void setup() throws Exception {
+        jsonb = JsonbBuilder.create();
+        generators = Json.createGeneratorFactory(Collections.<String, Object>emptyMap());
+        marshaller = JAXBContext.newInstance(Model.class).createMarshaller();
+        model = SampleModels.model(1);
+        models = SampleModels.models(100);
+        customer = SampleModels.customer(model);
+        modelListJsonb();
+        modelListJson = out.toByteArray();
+        modelListCbor();
+        modelListCbor = out.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        jsonb.close();
+    }
+
+    @Benchmark
+    public int modelJsonb() {
+        out.reset();
+        jsonb.toJson(model, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int modelJsonP() {
+        out.reset();
+        try (JsonGenerator g = generators.createGenerator(out)) {
+            EntityJson.write(g, model);
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int modelListJsonb() {
+        out.reset();
+        jsonb.toJson(models, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int modelListJsonP() {
+        out.reset();
+        try (JsonGenerator g = generators.createGenerator(out)) {
+            g.writeStartArray();
+            for (Model m : models) {
+                EntityJson.write(g, m);
+            }
+            g.writeEnd();
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int modelListCbor() throws IOException {
+        out.reset();
+        CborGenerator g = new CborGenerator(out);
+        g.writeStartArray(models.size());
+        for (Model m : models) {
+            EntityCbor.write(g, m);
+        }
+        g.flush();
+        return out.size();
+    }
+
+    @Benchmark
+    public List<Model> modelListJsonbParse() {
+        return jsonb.fromJson(new ByteArrayInputStream(modelListJson),
+                new ArrayList<Model>() {}.getClass().getGenericSuperclass());
+    }
+
+    @Benchmark
+    public List<Model> modelListCborParse() throws IOException {
+        CborParser p = new CborParser(new ByteArrayInputStream(modelListCbor));
+        long size = p.readStartArray();
+        List<Model> parsed = new ArrayList<>((int) size);
+        for (long i = 0; i < size; i++) {
+            parsed.add(EntityCbor.readModel(p));
+        }
+        return parsed;
+    }
+
+    @Benchmark
+    public int modelJaxbXml() throws Exception {
+        out.reset();
+        marshaller.marshal(model, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public int customerHateoas() {
+        out.reset();
+        try (JsonWriter writer = Json.createWriter(out)) {
+            writer.writeObject(CustomerFacadeREST.toJson(customer, customer.getLastViewedModelId()));
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int customerJsonb() {
+        out.reset();
+        jsonb.toJson(customer, out);
+        return out.size();
+    }
+}
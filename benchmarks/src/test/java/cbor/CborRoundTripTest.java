@@ -0,0 +1,286 @@
+package cbor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import model.entities.Comment;
+import model.entities.Customer;
+import model.entities.Model;
+import model.entities.Topic;
+import org.junit.Test;
+
+/**
+ * Ida y vuelta de CborProvider/EntityCbor a CborParser.
+ *
+ * Lo delicado es la tabla stringref: escritor y lector tienen que meter en
+ * ella exactamente las mismas cadenas (ver CborGenerator.minReferenced), o
+ * todas las referencias siguientes se leen como otra cadena. Por eso las
+ * listas llevan cadenas de 3, 4, 5 y 7 bytes mientras la tabla pasa por 24
+ * y 256 entradas, y se comprueba cada campo después del cruce.
+ */
+public class CborRoundTripTest {
+    private static final int TAG_STRINGREF_HEAD = 0xd8;
+    private static final int TEXT_HEAD = 0x60;
+    private static final int INDEFINITE_MAP = 0xbf;
+
+    @Test
+    public void minReferencedThresholds() {
+        assertEquals(3, CborGenerator.minReferenced(23));
+        assertEquals(4, CborGenerator.minReferenced(24));
+        assertEquals(4, CborGenerator.minReferenced(255));
+        assertEquals(5, CborGenerator.minReferenced(256));
+        assertEquals(5, CborGenerator.minReferenced(65535));
+        assertEquals(7, CborGenerator.minReferenced(65536));
+    }
+
+    /**
+     * Una cadena de cada longitud justo antes y justo después de cada umbral:
+     * la segunda aparición es una referencia solo si la primera entró en la
+     * tabla, y lo que viene detrás se sigue leyendo bien
+     */
+    @Test
+    public void stringsAroundEachThreshold() throws IOException {
+        for (int tableSize : new int[] {23, 24, 255, 256}) {
+            for (int length : new int[] {3, 4, 5, 7}) {
+                String probe = probe(length);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                CborGenerator g = new CborGenerator(out);
+                List<String> written = new ArrayList<>();
+                g.writeStartArray(tableSize + 4);
+                for (int i = 0; i < tableSize; i++) {
+                    written.add(filler(i));
+                    g.writeString(filler(i));
+                }
+                written.add(probe);
+                g.writeString(probe);
+                g.flush();
+                int second = out.size();
+                written.add(probe);
+                g.writeString(probe);
+                // una referencia de detrás de la sonda y una cadena nueva
+                written.add(filler(tableSize - 1));
+                g.writeString(filler(tableSize - 1));
+                written.add("after-" + tableSize);
+                g.writeString("after-" + tableSize);
+                g.flush();
+
+                byte[] cbor = out.toByteArray();
+                boolean referenced = length >= CborGenerator.minReferenced(tableSize);
+                String what = length + " bytes with " + tableSize + " entries";
+                assertEquals(what, referenced ? TAG_STRINGREF_HEAD : TEXT_HEAD | length, cbor[second] & 0xff);
+
+                CborParser p = new CborParser(new ByteArrayInputStream(cbor));
+                assertEquals(what, written.size(), p.readStartArray());
+                for (String expected : written) {
+                    assertEquals(what, expected, p.readString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void modelListAcrossThresholds() throws IOException {
+        List<Model> models = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            models.add(model(i));
+        }
+        byte[] cbor = write(models);
+        // detrás del tag 256 (3 bytes), un array de 300 con la longitud en 2 bytes
+        assertEquals(CborGenerator.MAJOR_ARRAY << 5 | 25, cbor[3] & 0xff);
+
+        CborParser p = new CborParser(new ByteArrayInputStream(cbor));
+        assertEquals(models.size(), p.readStartArray());
+        for (Model expected : models) {
+            assertModel(expected, EntityCbor.readModel(p));
+        }
+    }
+
+    @Test
+    public void modelWithNullFields() throws IOException {
+        Model sparse = new Model();
+        sparse.setName("abc");
+        sparse.setProvider("abcd");
+        List<Model> models = Arrays.asList(model(1), sparse, model(2));
+        byte[] cbor = write(models);
+
+        CborParser p = new CborParser(new ByteArrayInputStream(cbor));
+        assertEquals(3, p.readStartArray());
+        assertModel(models.get(0), EntityCbor.readModel(p));
+        Model read = EntityCbor.readModel(p);
+        assertModel(sparse, read);
+        assertNull(read.getId());
+        assertEquals(new ArrayList<String>(), read.getCapabilities());
+        assertNull(read.getTrainingDate());
+        assertModel(models.get(2), EntityCbor.readModel(p));
+    }
+
+    @Test
+    public void customerList() throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Customer customer = new Customer(probe(3 + i % 5) + i);
+            customer.setId((long) i);
+            customer.setVersion((long) i % 3);
+            // sin email ni último modelo visto en uno de cada tres
+            if (i % 3 != 0) {
+                customer.setDisplayName("User " + i);
+                customer.setEmail("u" + i + "@example.org");
+                Model viewed = new Model();
+                viewed.setId((long) i * 7);
+                customer.setLastViewedModel(viewed);
+            }
+            customers.add(customer);
+        }
+        CborParser p = new CborParser(new ByteArrayInputStream(write(customers)));
+        assertEquals(customers.size(), p.readStartArray());
+        for (Customer expected : customers) {
+            Customer read = EntityCbor.readCustomer(p);
+            assertEquals(expected.getId(), read.getId());
+            assertEquals(expected.getVersion(), read.getVersion());
+            assertEquals(expected.getUsername(), read.getUsername());
+            assertEquals(expected.getDisplayName(), read.getDisplayName());
+            assertEquals(expected.getEmail(), read.getEmail());
+            assertEquals(expected.getLastViewedModelId(), read.getLastViewedModelId());
+        }
+    }
+
+    @Test
+    public void commentList() throws IOException {
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Comment comment = new Comment();
+            comment.setId((long) i);
+            comment.setMessage(i % 4 == 0 ? null : probe(3 + i % 5) + i);
+            if (i % 5 != 0) {
+                Topic topic = new Topic();
+                topic.setId((long) i % 11);
+                topic.setName("Topic " + i % 11);
+                comment.setTopic(topic);
+            }
+            comments.add(comment);
+        }
+        CborParser p = new CborParser(new ByteArrayInputStream(write(comments)));
+        assertEquals(comments.size(), p.readStartArray());
+        for (Comment expected : comments) {
+            Comment read = EntityCbor.readComment(p);
+            assertEquals(expected.getId(), read.getId());
+            assertEquals(expected.getMessage(), read.getMessage());
+            if (expected.getTopic() == null) {
+                assertNull(read.getTopic());
+            } else {
+                assertEquals(expected.getTopic().getId(), read.getTopic().getId());
+                assertEquals(expected.getTopic().getName(), read.getTopic().getName());
+            }
+        }
+    }
+
+    /**
+     * Los objetos son mapas de longitud indefinida, y un campo desconocido
+     * que es a su vez un mapa indefinido se salta sin desordenar la tabla:
+     * la cadena que contiene se puede referenciar después
+     */
+    @Test
+    public void indefiniteMapsAndSkippedFields() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CborGenerator g = new CborGenerator(out);
+        g.writeStartObject();
+        g.write("id", 5L);
+        g.writeStartObject("unknown");
+        g.write("nested", "skipped string");
+        g.writeStartObject("deeper");
+        g.write("when", new Date(1500L));
+        g.writeEnd();
+        g.writeEnd();
+        g.write("message", "skipped string");
+        g.writeStartObject("topic");
+        g.write("id", 9L);
+        g.write("name", "nested");
+        g.writeEnd();
+        g.writeEnd();
+        g.flush();
+        byte[] cbor = out.toByteArray();
+        assertEquals(INDEFINITE_MAP, cbor[3] & 0xff);
+
+        Comment read = EntityCbor.readComment(new CborParser(new ByteArrayInputStream(cbor)));
+        assertEquals(Long.valueOf(5L), read.getId());
+        assertEquals("skipped string", read.getMessage());
+        assertEquals(Long.valueOf(9L), read.getTopic().getId());
+        assertEquals("nested", read.getTopic().getName());
+    }
+
+    private static byte[] write(List<?> items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CborProvider().writeTo(items, List.class, null, new Annotation[0], null, null, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Modelo con cadenas de 3 a 7 bytes distintas en cada uno, para que la
+     * tabla crezca con cada modelo y pase por todos los umbrales
+     */
+    private static Model model(int i) {
+        Model model = new Model();
+        model.setId((long) i);
+        model.setVersion((long) i % 4);
+        model.setName(probe(3 + i % 5).substring(0, 2) + i);
+        model.setProvider(i % 2 == 0 ? "abc" : "abcd");
+        model.setSummary(i % 6 == 0 ? null : "s" + i);
+        model.setDescription(i % 3 == 0 ? null : probe(7) + i);
+        model.setCapabilities(i % 4 == 0 ? null : new ArrayList<>(Arrays.asList("chat", "cap" + i % 9, "abcde")));
+        model.setLicense(i % 5 == 0 ? null : "MIT");
+        model.setMaxContextTokens(i % 2 == 0 ? null : 1 << (i % 20));
+        model.setInputTypes(new ArrayList<>(Arrays.asList("text")));
+        model.setOutputTypes(i % 7 == 0 ? null : new ArrayList<String>());
+        model.setPrivate(i % 3 == 1);
+        model.setLogoUrl(i % 2 == 0 ? null : "https://example.org/" + i + ".png");
+        model.setLastVersion("v" + i % 10);
+        model.setTrainingDate(i % 2 == 0 ? new Date(1672531200000L) : new Date(1672531200123L + i));
+        model.setLastUpdateDate(i % 5 == 0 ? null : new Date(-86400000L * i));
+        model.setVersions(new ArrayList<>(Arrays.asList("v1", "v" + i % 10)));
+        return model;
+    }
+
+    private static void assertModel(Model expected, Model read) {
+        assertEquals(expected.getId(), read.getId());
+        assertEquals(expected.getVersion(), read.getVersion());
+        assertEquals(expected.getName(), read.getName());
+        assertEquals(expected.getProvider(), read.getProvider());
+        assertEquals(expected.getSummary(), read.getSummary());
+        assertEquals(expected.getDescription(), read.getDescription());
+        assertEquals(orEmpty(expected.getCapabilities()), read.getCapabilities());
+        assertEquals(expected.getLicense(), read.getLicense());
+        assertEquals(expected.getMaxContextTokens(), read.getMaxContextTokens());
+        assertEquals(orEmpty(expected.getInputTypes()), read.getInputTypes());
+        assertEquals(orEmpty(expected.getOutputTypes()), read.getOutputTypes());
+        assertEquals(expected.isPrivate(), read.isPrivate());
+        assertEquals(expected.getLogoUrl(), read.getLogoUrl());
+        assertEquals(expected.getLastVersion(), read.getLastVersion());
+        assertEquals(expected.getTrainingDate(), read.getTrainingDate());
+        assertEquals(expected.getLastUpdateDate(), read.getLastUpdateDate());
+        assertEquals(orEmpty(expected.getVersions()), read.getVersions());
+    }
+
+    /**
+     * Una lista null no se escribe y al leer queda la de new Model(), vacía,
+     * igual que con JSON-B
+     */
+    private static List<String> orEmpty(List<String> values) {
+        return values != null ? values : new ArrayList<String>();
+    }
+
+    private static String probe(int length) {
+        return "pqrstuv".substring(0, length);
+    }
+
+    private static String filler(int i) {
+        return String.format("fill-%04d", i);
+    }
+}
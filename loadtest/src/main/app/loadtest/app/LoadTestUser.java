@@ -0,0 +1,48 @@
+package loadtest.app;
+
+import authn.Credentials;
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Usuario con el que se autentica la prueba de carga.
+ *
+ * Solo se despliega con la aplicación embebida de loadtest: no hay
+ * endpoint para dar de alta credenciales, así que se crea al arrancar con
+ * las propiedades homework1.loadtest.user y homework1.loadtest.password
+ * que fija loadtest.LoadTest.
+ */
+@Singleton
+@Startup
+@DependsOn("DataInitializer")
+public class LoadTestUser {
+    public static final String USER_PROPERTY = "homework1.loadtest.user";
+    public static final String PASSWORD_PROPERTY = "homework1.loadtest.password";
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @PostConstruct
+    public void init() {
+        String username = System.getProperty(USER_PROPERTY);
+        String password = System.getProperty(PASSWORD_PROPERTY);
+        if (username == null || password == null) {
+            return;
+        }
+        boolean exists = !em.createNamedQuery("Credentials.findUser", Credentials.class)
+                .setParameter("username", username)
+                .getResultList()
+                .isEmpty();
+        if (!exists) {
+            Credentials credentials = new Credentials();
+            credentials.setUsername(username);
+            credentials.setPassword(password);
+            em.persist(credentials);
+            System.out.println("  LoadTestUser: usuario " + username + " creado");
+        }
+    }
+}
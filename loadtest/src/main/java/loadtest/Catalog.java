@@ -0,0 +1,169 @@
+package loadtest;
+
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonReader;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos sintéticos de la prueba.
+ *
+ * Se generan como el NDJSON de GET /export y se cargan con POST /import,
+ * así que pasan por el mismo código (eventos, índice, contadores) que una
+ * carga real. Como el import asigna ids nuevos, los ids de modelos y topics
+ * se leen después con GET /export.
+ */
+final class Catalog {
+    static final String[] PROVIDERS = {"OpenAI", "Anthropic", "Google", "Meta", "Mistral"};
+    static final String[] CAPABILITIES = {"chat", "code", "vision", "reasoning", "tools", "audio"};
+    private static final String NDJSON = "application/x-ndjson";
+    // uno de cada PRIVATE_EVERY modelos es privado
+    private static final int PRIVATE_EVERY = 5;
+    private static final JsonGeneratorFactory GENERATORS = Json.createGeneratorFactory(Collections.emptyMap());
+
+    final List<Long> privateModels = new ArrayList<>();
+    final List<Long> publicModels = new ArrayList<>();
+    final List<Long> topics = new ArrayList<>();
+    String importSummary;
+    long seedMillis;
+
+    private Catalog() {
+    }
+
+    static Catalog seed(String api, String authorization, Options options) throws IOException {
+        Catalog catalog = new Catalog();
+        long started = System.currentTimeMillis();
+        catalog.importSummary = upload(api, authorization, options);
+        catalog.discover(api, authorization);
+        catalog.seedMillis = System.currentTimeMillis() - started;
+        if (catalog.privateModels.isEmpty() || catalog.topics.isEmpty()) {
+            throw new IOException("Seeding did not create private models and topics: " + catalog.importSummary);
+        }
+        return catalog;
+    }
+
+    private static String upload(String api, String authorization, Options options) throws IOException {
+        HttpURLConnection connection = Http.open("POST", api + "/import", authorization, NDJSON);
+        connection.setChunkedStreamingMode(64 * 1024);
+        Random random = new Random(options.seed);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024)) {
+            for (int i = 1; i <= options.models; i++) {
+                int id = i;
+                line(writer, "models", g -> model(g, id, random));
+            }
+            for (int i = 1; i <= options.customers; i++) {
+                int id = i;
+                line(writer, "customers", g -> g.write("id", id)
+                        .write("username", "user" + id)
+                        .write("displayName", "User " + id)
+                        .write("email", "user" + id + "@example.org")
+                        .write("lastViewedModelId", 1 + random.nextInt(options.models)));
+            }
+            for (int i = 1; i <= options.topics; i++) {
+                int id = i;
+                line(writer, "topics", g -> g.write("id", id).write("name", "Topic " + id));
+            }
+            for (int i = 1; i <= options.comments; i++) {
+                int id = i;
+                line(writer, "comments", g -> g.write("id", id)
+                        .write("message", "Seeded comment " + id)
+                        .writeStartObject("topic").write("id", 1 + random.nextInt(options.topics)).writeEnd());
+            }
+        }
+        int status = connection.getResponseCode();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        Http.drain(connection, status, response);
+        String summary = new String(response.toByteArray(), StandardCharsets.UTF_8);
+        if (status != 200) {
+            throw new IOException("POST /import -> " + status + " " + summary);
+        }
+        return summary;
+    }
+
+    private static void model(JsonGenerator g, int i, Random random) {
+        g.write("id", i)
+                .write("name", "Model " + i)
+                .write("provider", PROVIDERS[random.nextInt(PROVIDERS.length)])
+                .write("summary", "General purpose language model tuned for assistants, with long context "
+                        + "and tool use, suitable for chat and code generation workloads.")
+                .write("description", "A large language model trained on a mixture of public web data, "
+                        + "licensed data and synthetic data. It supports multi-turn dialogue, structured "
+                        + "output, function calling and retrieval augmented generation. Variant " + i + ".")
+                .write("license", i % 3 == 0 ? "Apache-2.0" : "Proprietary")
+                .write("maxContextTokens", 8192 << random.nextInt(5))
+                .write("isPrivate", i % PRIVATE_EVERY == 0)
+                .write("logoUrl", "https://example.org/logos/" + i + ".png")
+                .write("lastVersion", "v" + (1 + random.nextInt(4)) + ".0");
+        g.writeStartArray("capabilities");
+        int first = random.nextInt(CAPABILITIES.length);
+        for (int c = 0; c < 3; c++) {
+            g.write(CAPABILITIES[(first + c * 2) % CAPABILITIES.length]);
+        }
+        g.writeEnd();
+        g.writeStartArray("inputTypes").write("text").write("image").writeEnd();
+        g.writeStartArray("outputTypes").write("text").writeEnd();
+        g.writeStartArray("versions").write("v1.0").write("v2.0").writeEnd();
+    }
+
+    private interface Fields {
+        void write(JsonGenerator data);
+    }
+
+    private static void line(Writer writer, String type, Fields fields) throws IOException {
+        JsonGenerator g = GENERATORS.createGenerator(new NonClosingWriter(writer));
+        g.writeStartObject().write("type", type).writeStartObject("data");
+        fields.write(g);
+        g.writeEnd().writeEnd().close();
+        writer.write('\n');
+    }
+
+    private void discover(String api, String authorization) throws IOException {
+        String export = Http.get(api + "/export?entities=models,topics", authorization, NDJSON);
+        for (String line : export.split("\n")) {
+            JsonObject object;
+            try (JsonReader reader = Json.createReader(new StringReader(line))) {
+                object = reader.readObject();
+            }
+            JsonObject data = object.getJsonObject("data");
+            if (data == null) {
+                continue;
+            }
+            long id = data.getJsonNumber("id").longValue();
+            if ("topics".equals(object.getString("type"))) {
+                topics.add(id);
+            } else if (data.getBoolean("isPrivate", false)) {
+                privateModels.add(id);
+            } else {
+                publicModels.add(id);
+            }
+        }
+    }
+
+    /**
+     * El generador de cada línea cierra su writer al terminar; el de la petición debe seguir abierto
+     */
+    private static final class NonClosingWriter extends FilterWriter {
+        NonClosingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
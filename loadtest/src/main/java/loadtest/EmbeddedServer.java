@@ -0,0 +1,83 @@
+package loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.FileHandler;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import org.glassfish.embeddable.Deployer;
+import org.glassfish.embeddable.GlassFish;
+import org.glassfish.embeddable.GlassFishException;
+import org.glassfish.embeddable.GlassFishProperties;
+import org.glassfish.embeddable.GlassFishRuntime;
+import org.glassfish.embeddable.archive.ScatteredArchive;
+
+/**
+ * Servidor embebido con la aplicación desplegada.
+ *
+ * La aplicación se despliega como WAR "disperso": las clases compiladas
+ * en target/app-classes (../src/java y src/main/app), el web.xml de
+ * ../web y un glassfish-resources.xml propio que apunta a Derby en memoria.
+ */
+final class EmbeddedServer implements AutoCloseable {
+    static final String CONTEXT_ROOT = "homework1";
+    static final String API_PATH = "/rest/api/v1";
+
+    private final GlassFish glassfish;
+    private final int port;
+    private String application;
+
+    private EmbeddedServer(GlassFish glassfish, int port) {
+        this.glassfish = glassfish;
+        this.port = port;
+    }
+
+    /**
+     * @param log fichero al que va el log del servidor; los System.out de la aplicación siguen en consola
+     */
+    static EmbeddedServer start(int port, File log) throws GlassFishException, IOException {
+        LogManager.getLogManager().reset();
+        FileHandler handler = new FileHandler(log.getPath());
+        handler.setFormatter(new SimpleFormatter());
+        Logger.getLogger("").addHandler(handler);
+        GlassFishProperties properties = new GlassFishProperties();
+        properties.setPort("http-listener", port);
+        GlassFish glassfish = GlassFishRuntime.bootstrap().newGlassFish(properties);
+        glassfish.start();
+        return new EmbeddedServer(glassfish, port);
+    }
+
+    /**
+     * @param moduleDir directorio del módulo loadtest
+     * @return URL base de la API REST
+     */
+    String deploy(File moduleDir) throws GlassFishException, IOException {
+        File appClasses = new File(moduleDir, "target/app-classes");
+        File webXml = new File(moduleDir, "../web/WEB-INF/web.xml");
+        File resources = new File(moduleDir, "src/main/webapp/WEB-INF/glassfish-resources.xml");
+        for (File required : new File[] {appClasses, webXml, resources}) {
+            if (!required.exists()) {
+                throw new IOException("Not found: " + required.getCanonicalPath() + " (run mvn package)");
+            }
+        }
+        ScatteredArchive war = new ScatteredArchive(CONTEXT_ROOT, ScatteredArchive.Type.WAR);
+        war.addClassPath(appClasses);
+        war.addMetadata(webXml);
+        war.addMetadata(resources);
+        Deployer deployer = glassfish.getDeployer();
+        application = deployer.deploy(war.toURI(), "--contextroot=" + CONTEXT_ROOT);
+        if (application == null) {
+            throw new IllegalStateException("Deployment failed, see the server log above");
+        }
+        return "http://localhost:" + port + "/" + CONTEXT_ROOT + API_PATH;
+    }
+
+    @Override
+    public void close() throws GlassFishException {
+        if (application != null) {
+            glassfish.getDeployer().undeploy(application);
+        }
+        glassfish.dispose();
+    }
+}
@@ -0,0 +1,95 @@
+package loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cliente HTTP mínimo sobre HttpURLConnection.
+ *
+ * El cuerpo de la respuesta se lee siempre entero para que la conexión
+ * vuelva al pool de keep-alive del JDK (http.maxConnections).
+ */
+final class Http {
+    static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    static final int READ_TIMEOUT_MILLIS = 60000;
+
+    private Http() {
+    }
+
+    static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Petición con cuerpo opcional; devuelve el código de estado y descarta la respuesta
+     */
+    static int send(String method, String url, String authorization, String contentType, byte[] body)
+            throws IOException {
+        HttpURLConnection connection = open(method, url, authorization, contentType);
+        if (body != null) {
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+        int status = connection.getResponseCode();
+        drain(connection, status, null);
+        return status;
+    }
+
+    /**
+     * Petición sin cuerpo cuya respuesta se devuelve como texto; falla si no es 2xx
+     */
+    static String get(String url, String authorization, String accept) throws IOException {
+        HttpURLConnection connection = open("GET", url, authorization, null);
+        connection.setRequestProperty("Accept", accept);
+        int status = connection.getResponseCode();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        drain(connection, status, response);
+        String text = new String(response.toByteArray(), StandardCharsets.UTF_8);
+        if (status / 100 != 2) {
+            throw new IOException("GET " + url + " -> " + status + " " + text);
+        }
+        return text;
+    }
+
+    static HttpURLConnection open(String method, String url, String authorization, String contentType)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        connection.setRequestProperty("Accept", "application/json");
+        if (authorization != null) {
+            connection.setRequestProperty("Authorization", authorization);
+        }
+        if (contentType != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+        }
+        return connection;
+    }
+
+    static void drain(HttpURLConnection connection, int status, OutputStream target) throws IOException {
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in == null) {
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream body = in) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (target != null) {
+                    target.write(buffer, 0, read);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package loadtest;
+
+import jakarta.json.JsonObject;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+
+/**
+ * Prueba de carga extremo a extremo.
+ *
+ * 1. Arranca el servidor embebido y despliega la aplicación con Derby en memoria.
+ * 2. Espera a GET /health/ready y siembra el catálogo con POST /import.
+ * 3. Lanza los escenarios de Scenario a ritmo fijo (OpenLoopRunner).
+ * 4. Escribe results/&lt;nombre&gt;.json y results/&lt;nombre&gt;.html.
+ *
+ * Se ejecuta con java -jar target/loadtest.jar --help desde cualquier directorio.
+ */
+public final class LoadTest {
+    static final String USER = "loadtest";
+    static final String PASSWORD = "loadtest";
+    // las mismas que lee loadtest.app.LoadTestUser dentro de la aplicación
+    private static final String USER_PROPERTY = "homework1.loadtest.user";
+    private static final String PASSWORD_PROPERTY = "homework1.loadtest.password";
+    // el catálogo lo siembra Catalog; los datos de prueba de DataInitializer sobran
+    private static final String SEED_PROPERTY = "homework1.seed";
+    private static final long READY_TIMEOUT_MILLIS = 120000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        System.setProperty(USER_PROPERTY, USER);
+        System.setProperty(PASSWORD_PROPERTY, PASSWORD);
+        if (System.getProperty(SEED_PROPERTY) == null) {
+            System.setProperty(SEED_PROPERTY, "false");
+        }
+        // pool de keep-alive de HttpURLConnection: una conexión por petición en vuelo
+        System.setProperty("http.maxConnections", Integer.toString(options.connections));
+
+        JsonObject report;
+        File moduleDir = moduleDir();
+        File serverLog = new File(moduleDir, "target/server.log");
+        System.setProperty("derby.stream.error.file", new File(moduleDir, "target/derby.log").getPath());
+        System.out.println("Arrancando el servidor embebido (log en " + serverLog.getPath() + ")...");
+        try (EmbeddedServer server = EmbeddedServer.start(options.port, serverLog)) {
+            String api = server.deploy(moduleDir);
+            awaitReady(api);
+            String authorization = Http.basic(USER, PASSWORD);
+            System.out.println("Sembrando " + options.models + " modelos, " + options.customers + " clientes, "
+                    + options.topics + " topics y " + options.comments + " comentarios...");
+            Catalog catalog = Catalog.seed(api, authorization, options);
+            System.out.println("  " + catalog.importSummary);
+
+            System.out.println("Carga: " + options.rate + " peticiones/s, " + options.warmupSeconds
+                    + " s de calentamiento y " + options.durationSeconds + " s de medida, mezcla " + options.mix);
+            OpenLoopRunner.Result result = new OpenLoopRunner(options, new Scenario.Target(api, authorization, catalog))
+                    .run();
+            report = Report.toJson(options, catalog, result);
+        }
+
+        File out = options.out != null ? options.out : new File(moduleDir, "results");
+        if (!out.isDirectory() && !out.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + out);
+        }
+        File json = new File(out, options.name + ".json");
+        File html = new File(out, options.name + ".html");
+        Report.writeJson(report, json);
+        Report.writeHtml(report, options.baseline != null ? Report.readJson(options.baseline) : null, html);
+        System.out.println("totals: " + report.getJsonObject("totals"));
+        System.out.println("Informes: " + json.getPath() + ", " + html.getPath());
+        // el servidor embebido deja hilos no daemon
+        System.exit(0);
+    }
+
+    /**
+     * Espera a que GET /health/ready responda 200: el despliegue termina antes
+     * de que acaben las tareas de arranque en segundo plano
+     */
+    private static void awaitReady(String api) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+        while (Http.send("GET", api + "/health/ready", null, null, null) != 200) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Application not ready after " + READY_TIMEOUT_MILLIS + " ms");
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    /**
+     * Directorio del módulo, a partir de target/loadtest.jar o target/classes
+     */
+    private static File moduleDir() throws URISyntaxException {
+        File location = new File(LoadTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        return location.getParentFile().getParentFile();
+    }
+}
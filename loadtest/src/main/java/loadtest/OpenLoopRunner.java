@@ -0,0 +1,142 @@
+package loadtest;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga en bucle abierto.
+ *
+ * Las peticiones se programan a ritmo fijo (una cada 1/rate segundos)
+ * aunque el servidor se retrase, y la latencia se mide desde el instante en
+ * que tocaba enviarlas, no desde que salieron. Así un atasco del servidor
+ * aparece en los percentiles altos en lugar de bajar el ritmo de la prueba
+ * (coordinated omission). Como mucho hay --connections peticiones en vuelo;
+ * las demás esperan en cola y ese tiempo cuenta como latencia. Si al final
+ * la cola no se vacía a tiempo, las que no llegaron a salir se anotan como
+ * error con la latencia desde su instante programado, en lugar de perderse.
+ */
+final class OpenLoopRunner {
+    private final Options options;
+    private final Scenario.Target target;
+    private final Scenario[] weighted;
+
+    OpenLoopRunner(Options options, Scenario.Target target) {
+        this.options = options;
+        this.target = target;
+        int total = 0;
+        for (int weight : options.mix.values()) {
+            total += weight;
+        }
+        weighted = new Scenario[total];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : options.mix.entrySet()) {
+            for (int w = 0; w < entry.getValue(); w++) {
+                weighted[i++] = Scenario.byLabel(entry.getKey());
+            }
+        }
+    }
+
+    Result run() throws InterruptedException {
+        Map<Scenario, Stats> warmup = stats();
+        Map<Scenario, Stats> measured = stats();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(options.connections, options.connections,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        Random random = new Random(options.seed);
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long warmupRequests = (long) options.warmupSeconds * options.rate;
+        long totalRequests = warmupRequests + (long) options.durationSeconds * options.rate;
+        int maxBacklog = 0;
+
+        long start = System.nanoTime();
+        long measureStart = start + warmupRequests * periodNanos;
+        for (long i = 0; i < totalRequests; i++) {
+            long intended = start + i * periodNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Scenario.Request request = weighted[random.nextInt(weighted.length)].next(random, target);
+            Stats stats = (i < warmupRequests ? warmup : measured).get(request.scenario);
+            executor.execute(new Send(request, intended, stats));
+            maxBacklog = Math.max(maxBacklog, executor.getQueue().size());
+        }
+        long measureEnd = System.nanoTime();
+        executor.shutdown();
+        if (!executor.awaitTermination(Http.READ_TIMEOUT_MILLIS * 2, TimeUnit.MILLISECONDS)) {
+            for (Runnable queued : executor.shutdownNow()) {
+                ((Send) queued).abandon();
+            }
+            // las que están en vuelo acaban, como mucho, con el timeout de lectura
+            executor.awaitTermination(Http.CONNECT_TIMEOUT_MILLIS + Http.READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        // si el servidor no da abasto las últimas respuestas llegan después de la ventana
+        // programada, y el throughput se calcula hasta la última
+        for (Stats stats : measured.values()) {
+            measureEnd = Math.max(measureEnd, stats.lastCompleted());
+        }
+        return new Result(measured, (measureEnd - measureStart) / 1e9, maxBacklog);
+    }
+
+    /**
+     * Una petición programada, que se anota en sus estadísticas al acabar
+     */
+    private static final class Send implements Runnable {
+        private final Scenario.Request request;
+        private final long intended;
+        private final Stats stats;
+
+        Send(Scenario.Request request, long intended, Stats stats) {
+            this.request = request;
+            this.intended = intended;
+            this.stats = stats;
+        }
+
+        @Override
+        public void run() {
+            int status;
+            try {
+                status = Http.send(request.method, request.url, request.authorization, request.contentType,
+                        request.body);
+            } catch (IOException e) {
+                status = Stats.IO_ERROR;
+            }
+            stats.record(System.nanoTime() - intended, status);
+        }
+
+        /**
+         * Se quedó en la cola al cortar la prueba: cuenta como error
+         */
+        void abandon() {
+            stats.record(System.nanoTime() - intended, Stats.IO_ERROR);
+        }
+    }
+
+    private static Map<Scenario, Stats> stats() {
+        Map<Scenario, Stats> stats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new Stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Estadísticas del periodo de medida
+     */
+    static final class Result {
+        final Map<Scenario, Stats> stats;
+        final double seconds;
+        final int maxBacklog;
+
+        Result(Map<Scenario, Stats> stats, double seconds, int maxBacklog) {
+            this.stats = stats;
+            this.seconds = seconds;
+            this.maxBacklog = maxBacklog;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package loadtest;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opciones de línea de comandos, todas con la forma --nombre valor
+ */
+final class Options {
+    static final String USAGE = String.join("\n",
+            "java -jar target/loadtest.jar [opciones]",
+            "  --models n        modelos sembrados (1000)",
+            "  --customers n     clientes sembrados (100)",
+            "  --topics n        topics sembrados (50)",
+            "  --comments n      comentarios sembrados (5000)",
+            "  --rate r          peticiones por segundo, a ritmo fijo (50)",
+            "  --warmup s        segundos de calentamiento, no cuentan (10)",
+            "  --duration s      segundos de medida (30)",
+            "  --connections n   peticiones en vuelo como máximo (64)",
+            "  --mix a=w,b=w     peso de cada escenario (" + Scenario.DEFAULT_MIX + ")",
+            "  --port n          puerto HTTP del servidor embebido (18080)",
+            "  --out dir         directorio de los informes (loadtest/results)",
+            "  --name nombre     nombre del informe (fecha y hora)",
+            "  --baseline f.json informe anterior con el que comparar en el HTML",
+            "  --seed n          semilla de los datos y de la secuencia de peticiones (42)");
+
+    int models = 1000;
+    int customers = 100;
+    int topics = 50;
+    int comments = 5000;
+    int rate = 50;
+    int warmupSeconds = 10;
+    int durationSeconds = 30;
+    int connections = 64;
+    Map<String, Integer> mix = parseMix(Scenario.DEFAULT_MIX);
+    int port = 18080;
+    // null: results dentro del módulo
+    File out;
+    String name = new SimpleDateFormat("yyyy-MM-dd'T'HHmmss").format(new Date());
+    File baseline;
+    long seed = 42;
+
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if ("--help".equals(option) || "-h".equals(option)) {
+                throw new IllegalArgumentException(USAGE);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option + "\n" + USAGE);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--models": options.models = positive(option, value); break;
+                case "--customers": options.customers = positive(option, value); break;
+                case "--topics": options.topics = positive(option, value); break;
+                case "--comments": options.comments = positive(option, value); break;
+                case "--rate": options.rate = positive(option, value); break;
+                case "--warmup": options.warmupSeconds = Integer.parseInt(value); break;
+                case "--duration": options.durationSeconds = positive(option, value); break;
+                case "--connections": options.connections = positive(option, value); break;
+                case "--mix": options.mix = parseMix(value); break;
+                case "--port": options.port = positive(option, value); break;
+                case "--out": options.out = new File(value); break;
+                case "--name": options.name = value; break;
+                case "--baseline": options.baseline = new File(value); break;
+                case "--seed": options.seed = Long.parseLong(value); break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + option + "\n" + USAGE);
+            }
+        }
+        return options;
+    }
+
+    private static int positive(String option, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(option + " must be positive");
+        }
+        return parsed;
+    }
+
+    static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.split("=");
+            if (weight.length != 2 || !Scenario.NAMES.contains(weight[0].trim())) {
+                throw new IllegalArgumentException("Invalid mix entry '" + part + "', scenarios: " + Scenario.NAMES);
+            }
+            int w = Integer.parseInt(weight[1].trim());
+            if (w > 0) {
+                mix.put(weight[0].trim(), w);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one scenario");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,227 @@
+package loadtest;
+
+import jakarta.json.Json;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonValue;
+import jakarta.json.JsonWriter;
+import jakarta.json.stream.JsonGenerator;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Informe de una ejecución en JSON (para comparar entre builds) y en HTML.
+ *
+ * Los tiempos van en milisegundos y son latencias desde el instante
+ * programado de cada petición (ver OpenLoopRunner).
+ */
+final class Report {
+    static final String[] METRICS = {"p50Ms", "p99Ms", "p999Ms", "maxMs", "throughput", "errors"};
+    private static final String[] HEADERS = {"p50 (ms)", "p99 (ms)", "p99.9 (ms)", "máx (ms)", "peticiones/s", "errores"};
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99, 100};
+
+    private Report() {
+    }
+
+    static JsonObject toJson(Options options, Catalog catalog, OpenLoopRunner.Result result) {
+        JsonObjectBuilder mix = Json.createObjectBuilder();
+        for (Map.Entry<String, Integer> entry : options.mix.entrySet()) {
+            mix.add(entry.getKey(), entry.getValue());
+        }
+        JsonObjectBuilder config = Json.createObjectBuilder()
+                .add("rate", options.rate)
+                .add("warmupSeconds", options.warmupSeconds)
+                .add("durationSeconds", options.durationSeconds)
+                .add("connections", options.connections)
+                .add("models", options.models)
+                .add("customers", options.customers)
+                .add("topics", options.topics)
+                .add("comments", options.comments)
+                .add("seed", options.seed)
+                .add("mix", mix);
+
+        Histogram all = new Histogram(3);
+        long errors = 0;
+        JsonObjectBuilder scenarios = Json.createObjectBuilder();
+        for (Map.Entry<Scenario, Stats> entry : result.stats.entrySet()) {
+            Stats stats = entry.getValue();
+            if (stats.histogram().getTotalCount() == 0) {
+                continue;
+            }
+            all.add(stats.histogram());
+            errors += stats.errors();
+            JsonObjectBuilder statuses = Json.createObjectBuilder();
+            for (Map.Entry<Integer, Long> status : stats.statuses().entrySet()) {
+                statuses.add(status.getKey() == Stats.IO_ERROR ? "io-error" : status.getKey().toString(),
+                        status.getValue());
+            }
+            scenarios.add(entry.getKey().label, metrics(stats.histogram(), stats.errors(), result.seconds)
+                    .add("statuses", statuses));
+        }
+
+        String summary = catalog.importSummary;
+        JsonObject imported;
+        try (JsonReader reader = Json.createReader(new StringReader(summary))) {
+            imported = reader.readObject();
+        }
+        return Json.createObjectBuilder()
+                .add("name", options.name)
+                .add("date", String.format(Locale.ROOT, "%tFT%<tT%<tz", new Date()))
+                .add("jdk", System.getProperty("java.vm.name") + " " + System.getProperty("java.version"))
+                .add("cpus", Runtime.getRuntime().availableProcessors())
+                .add("config", config)
+                .add("seed", Json.createObjectBuilder()
+                        .add("millis", catalog.seedMillis)
+                        .add("rowsPerSecond", imported.getJsonNumber("rowsPerSecond")))
+                .add("totals", metrics(all, errors, result.seconds).add("maxBacklog", result.maxBacklog))
+                .add("scenarios", scenarios)
+                .build();
+    }
+
+    private static JsonObjectBuilder metrics(Histogram histogram, long errors, double seconds) {
+        JsonObjectBuilder percentiles = Json.createObjectBuilder();
+        for (double percentile : PERCENTILES) {
+            percentiles.add(format(percentile), millis(histogram.getValueAtPercentile(percentile)));
+        }
+        return Json.createObjectBuilder()
+                .add("requests", histogram.getTotalCount())
+                .add("errors", errors)
+                .add("throughput", round(histogram.getTotalCount() / seconds))
+                .add("meanMs", round(histogram.getMean() / 1000))
+                .add("p50Ms", millis(histogram.getValueAtPercentile(50)))
+                .add("p99Ms", millis(histogram.getValueAtPercentile(99)))
+                .add("p999Ms", millis(histogram.getValueAtPercentile(99.9)))
+                .add("maxMs", millis(histogram.getMaxValue()))
+                .add("percentiles", percentiles);
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    static void writeJson(JsonObject report, File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file);
+                JsonWriter writer = Json.createWriterFactory(
+                        Collections.singletonMap(JsonGenerator.PRETTY_PRINTING, true)).createWriter(out)) {
+            writer.writeObject(report);
+        }
+    }
+
+    static JsonObject readJson(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file); JsonReader reader = Json.createReader(in)) {
+            return reader.readObject();
+        }
+    }
+
+    /**
+     * Tabla por escenario; con baseline, cada valor lleva la variación respecto a él
+     */
+    static void writeHtml(JsonObject report, JsonObject baseline, File file) throws IOException {
+        try (PrintWriter html = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            html.println("<!DOCTYPE html>");
+            html.println("<html lang=\"es\"><head><meta charset=\"utf-8\">");
+            html.println("<title>Prueba de carga " + escape(report.getString("name")) + "</title>");
+            html.println("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin:1em 0}"
+                    + "th,td{border:1px solid #ccc;padding:4px 10px;text-align:right}th:first-child,td:first-child"
+                    + "{text-align:left}.worse{color:#b00}.better{color:#070}small{color:#666}</style>");
+            html.println("</head><body>");
+            html.println("<h1>Prueba de carga " + escape(report.getString("name")) + "</h1>");
+            JsonObject config = report.getJsonObject("config");
+            html.println("<p>" + escape(report.getString("date")) + " · " + escape(report.getString("jdk"))
+                    + " · " + report.getInt("cpus") + " CPU<br>"
+                    + config.getInt("rate") + " peticiones/s en bucle abierto durante " + config.getInt("durationSeconds")
+                    + " s (+" + config.getInt("warmupSeconds") + " s de calentamiento), como mucho "
+                    + config.getInt("connections") + " en vuelo · mezcla " + escape(config.getJsonObject("mix").toString())
+                    + "<br>" + config.getInt("models") + " modelos, " + config.getInt("customers") + " clientes, "
+                    + config.getInt("topics") + " topics, " + config.getInt("comments") + " comentarios, sembrados en "
+                    + report.getJsonObject("seed").getJsonNumber("millis") + " ms</p>");
+            if (baseline != null) {
+                html.println("<p>Comparado con <b>" + escape(baseline.getString("name", "?")) + "</b> ("
+                        + escape(baseline.getString("date", "?")) + ")</p>");
+            }
+
+            html.println("<table><tr><th>Escenario</th><th>peticiones</th>");
+            for (String header : HEADERS) {
+                html.print("<th>" + header + "</th>");
+            }
+            html.println("</tr>");
+            row(html, "total", report.getJsonObject("totals"), baseline != null ? baseline.getJsonObject("totals") : null);
+            JsonObject scenarios = report.getJsonObject("scenarios");
+            JsonObject baselineScenarios = baseline != null ? baseline.getJsonObject("scenarios") : null;
+            for (String name : scenarios.keySet()) {
+                row(html, name, scenarios.getJsonObject(name),
+                        baselineScenarios != null ? baselineScenarios.getJsonObject(name) : null);
+            }
+            html.println("</table>");
+
+            html.println("<h2>Percentiles (ms)</h2><table><tr><th>Escenario</th>");
+            for (double percentile : PERCENTILES) {
+                html.print("<th>p" + format(percentile) + "</th>");
+            }
+            html.println("</tr>");
+            percentiles(html, "total", report.getJsonObject("totals"));
+            for (String name : scenarios.keySet()) {
+                percentiles(html, name, scenarios.getJsonObject(name));
+            }
+            html.println("</table>");
+            html.println("<p><small>Latencia medida desde el instante en que tocaba enviar cada petición, "
+                    + "incluida la espera en cola. Máxima cola de envío: "
+                    + report.getJsonObject("totals").getInt("maxBacklog") + "</small></p>");
+            html.println("</body></html>");
+        }
+    }
+
+    private static void row(PrintWriter html, String name, JsonObject metrics, JsonObject baseline) {
+        html.print("<tr><td>" + escape(name) + "</td><td>" + metrics.getJsonNumber("requests") + "</td>");
+        for (String metric : METRICS) {
+            double value = metrics.getJsonNumber(metric).doubleValue();
+            html.print("<td>" + format(value));
+            JsonValue previous = baseline != null ? baseline.get(metric) : null;
+            if (previous instanceof JsonNumber && ((JsonNumber) previous).doubleValue() > 0) {
+                double change = (value / ((JsonNumber) previous).doubleValue() - 1) * 100;
+                // más throughput es mejor; en el resto, menos
+                boolean worse = "throughput".equals(metric) ? change < 0 : change > 0;
+                html.print(String.format(Locale.ROOT, " <small class=\"%s\">(%+.1f%%)</small>",
+                        Math.abs(change) < 5 ? "" : worse ? "worse" : "better", change));
+            }
+            html.print("</td>");
+        }
+        html.println("</tr>");
+    }
+
+    private static void percentiles(PrintWriter html, String name, JsonObject metrics) {
+        JsonObject percentiles = metrics.getJsonObject("percentiles");
+        html.print("<tr><td>" + escape(name) + "</td>");
+        for (double percentile : PERCENTILES) {
+            html.print("<td>" + percentiles.getJsonNumber(format(percentile)) + "</td>");
+        }
+        html.println("</tr>");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
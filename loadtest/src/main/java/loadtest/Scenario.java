@@ -0,0 +1,125 @@
+package loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tipos de petición de la prueba. Cada llamada a next() elige al azar los
+ * parámetros (capabilities, modelo, topic) entre los datos sembrados.
+ */
+enum Scenario {
+    /**
+     * GET /models con una o dos capabilities y, a veces, provider
+     */
+    LIST_MODELS("list-models") {
+        @Override
+        Request next(Random random, Target target) {
+            StringBuilder url = new StringBuilder(target.api).append("/models?capability=")
+                    .append(pick(random, Catalog.CAPABILITIES));
+            if (random.nextBoolean()) {
+                url.append("&capability=").append(pick(random, Catalog.CAPABILITIES));
+            }
+            if (random.nextInt(4) == 0) {
+                url.append("&provider=").append(pick(random, Catalog.PROVIDERS));
+            }
+            return new Request(this, "GET", url.toString(), null, null, null);
+        }
+    },
+    /**
+     * GET /models/{id} de un modelo privado, con Basic auth
+     */
+    GET_PRIVATE_MODEL("get-private-model") {
+        @Override
+        Request next(Random random, Target target) {
+            List<Long> ids = target.catalog.privateModels;
+            Long id = ids.get(random.nextInt(ids.size()));
+            return new Request(this, "GET", target.api + "/models/" + id, target.authorization, null, null);
+        }
+    },
+    /**
+     * POST /comment en un topic sembrado
+     */
+    POST_COMMENT("post-comment") {
+        @Override
+        Request next(Random random, Target target) {
+            List<Long> topics = target.catalog.topics;
+            Long topic = topics.get(random.nextInt(topics.size()));
+            String body = "{\"message\": \"Load test comment " + random.nextInt(1000000)
+                    + "\", \"topic\": {\"id\": " + topic + "}}";
+            return new Request(this, "POST", target.api + "/comment", null, "application/json",
+                    body.getBytes(StandardCharsets.UTF_8));
+        }
+    };
+
+    static final String DEFAULT_MIX = "list-models=60,get-private-model=30,post-comment=10";
+    static final List<String> NAMES;
+
+    static {
+        List<String> names = new ArrayList<>();
+        for (Scenario scenario : values()) {
+            names.add(scenario.label);
+        }
+        NAMES = Collections.unmodifiableList(names);
+    }
+
+    final String label;
+
+    Scenario(String label) {
+        this.label = label;
+    }
+
+    abstract Request next(Random random, Target target);
+
+    static Scenario byLabel(String label) {
+        for (Scenario scenario : values()) {
+            if (scenario.label.equals(label)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario " + label);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Servidor y datos contra los que se generan las peticiones
+     */
+    static final class Target {
+        final String api;
+        final String authorization;
+        final Catalog catalog;
+
+        Target(String api, String authorization, Catalog catalog) {
+            this.api = api;
+            this.authorization = authorization;
+            this.catalog = catalog;
+        }
+    }
+
+    /**
+     * Petición ya construida, lista para enviarse desde cualquier hilo
+     */
+    static final class Request {
+        final Scenario scenario;
+        final String method;
+        final String url;
+        final String authorization;
+        final String contentType;
+        final byte[] body;
+
+        Request(Scenario scenario, String method, String url, String authorization, String contentType,
+                byte[] body) {
+            this.scenario = scenario;
+            this.method = method;
+            this.url = url;
+            this.authorization = authorization;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencias (en microsegundos, 3 cifras significativas) y códigos de
+ * estado de un escenario. record() se llama desde varios hilos a la vez.
+ */
+final class Stats {
+    // código de estado con el que se anotan los fallos de conexión o timeouts
+    static final int IO_ERROR = 0;
+
+    private final Recorder recorder = new Recorder(3);
+    private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong lastCompleted = new AtomicLong(Long.MIN_VALUE);
+    private Histogram histogram;
+
+    void record(long latencyNanos, int status) {
+        recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        if (status / 100 != 2) {
+            errors.increment();
+        }
+        lastCompleted.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    /**
+     * Histograma de todo lo anotado; solo debe pedirse cuando ya no quedan peticiones en vuelo
+     */
+    Histogram histogram() {
+        if (histogram == null) {
+            histogram = recorder.getIntervalHistogram();
+        }
+        return histogram;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Map<Integer, Long> statuses() {
+        Map<Integer, Long> sorted = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+            sorted.put(entry.getKey(), entry.getValue().sum());
+        }
+        return sorted;
+    }
+
+    long lastCompleted() {
+        return lastCompleted.get();
+    }
+}
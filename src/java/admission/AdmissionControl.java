@@ -0,0 +1,76 @@
+package admission;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import metrics.PrometheusText;
+
+/**
+ * Estado del control de admisión: los cubos de escritura por usuario y un
+ * ConcurrencyLimit por método de recurso, y su exportación a GET /metrics.
+ *
+ * Como con RequestMetrics, AdmissionFeature pide aquí lo de cada método al
+ * desplegar y AdmissionFilter trabaja directamente con ello.
+ *
+ * Propiedades de sistema:
+ * - homework1.admission.writesPerSecond (10) y homework1.admission.writeBurst
+ *   (20): ritmo y ráfaga de escrituras por usuario
+ * - homework1.admission.initialLimit (20), minLimit (4) y maxLimit (200):
+ *   peticiones en curso por método
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AdmissionControl {
+    private static final double WRITES_PER_SECOND = Double.parseDouble(
+            System.getProperty("homework1.admission.writesPerSecond", "10"));
+    private static final int WRITE_BURST = Integer.getInteger("homework1.admission.writeBurst", 20);
+    private static final int INITIAL_LIMIT = Integer.getInteger("homework1.admission.initialLimit", 20);
+    private static final int MIN_LIMIT = Integer.getInteger("homework1.admission.minLimit", 4);
+    private static final int MAX_LIMIT = Integer.getInteger("homework1.admission.maxLimit", 200);
+
+    private final TokenBuckets writes = new TokenBuckets(WRITES_PER_SECOND, WRITE_BURST);
+    private final ConcurrentMap<String, ConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public TokenBuckets writes() {
+        return writes;
+    }
+
+    public ConcurrencyLimit limit(String httpMethod, String path) {
+        return limits.computeIfAbsent(httpMethod + " " + path,
+                key -> new ConcurrencyLimit(httpMethod, path, INITIAL_LIMIT, MIN_LIMIT, MAX_LIMIT));
+    }
+
+    public void writeTo(PrometheusText out) {
+        List<ConcurrencyLimit> all = new ArrayList<>(limits.values());
+        all.sort(Comparator.comparing(ConcurrencyLimit::getPath).thenComparing(ConcurrencyLimit::getHttpMethod));
+        String admission = "homework1_admission";
+
+        out.family(admission + "_limit", "gauge", "Límite adaptativo de peticiones en curso por método de recurso");
+        for (ConcurrencyLimit limit : all) {
+            out.sample(admission + "_limit", labels(limit), limit.getLimit());
+        }
+        out.family(admission + "_inflight", "gauge", "Peticiones admitidas en curso por método de recurso");
+        for (ConcurrencyLimit limit : all) {
+            out.sample(admission + "_inflight", labels(limit), limit.getInflight());
+        }
+        out.family(admission + "_rejected_total", "counter", "Peticiones rechazadas por el control de admisión");
+        for (ConcurrencyLimit limit : all) {
+            if (limit.getRejected() > 0) {
+                out.sample(admission + "_rejected_total",
+                        PrometheusText.with(labels(limit), "reason", "concurrency"), limit.getRejected());
+            }
+        }
+        out.sample(admission + "_rejected_total", PrometheusText.labels("reason", "rate"), writes.getRejected());
+        out.family(admission + "_buckets", "gauge", "Usuarios con cubo de escritura no lleno");
+        out.sample(admission + "_buckets", "", writes.size());
+    }
+
+    private static String labels(ConcurrencyLimit limit) {
+        return PrometheusText.labels("method", limit.getHttpMethod(), "path", limit.getPath());
+    }
+}
@@ -0,0 +1,48 @@
+package admission;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+import metrics.MetricsFeature;
+
+/**
+ * Registra un AdmissionFilter en cada método de recurso al desplegar,
+ * salvo en los @Exempt. Las lecturas @Suspended solo pasan por AsyncReads.
+ *
+ * Va en Priorities.AUTHENTICATION + 100: después de RESTRequestFilter, para
+ * conocer al usuario y no gastar hueco en peticiones que se van a rechazar
+ * por credenciales, y después de MetricsFilter, que así cuenta los 429/503.
+ */
+@Provider
+public class AdmissionFeature implements DynamicFeature {
+    static final int PRIORITY = Priorities.AUTHENTICATION + 100;
+
+    @Inject
+    private AdmissionControl control;
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        Method method = resourceInfo.getResourceMethod();
+        String httpMethod = MetricsFeature.httpMethod(method);
+        if (httpMethod == null || method.isAnnotationPresent(Exempt.class)) {
+            return;
+        }
+        boolean write = isWrite(httpMethod);
+        if (!write && MetricsFeature.isAsync(method)) {
+            return;
+        }
+        ConcurrencyLimit limit = control.limit(httpMethod,
+                MetricsFeature.path(resourceInfo.getResourceClass(), method));
+        context.register(new AdmissionFilter(limit, write ? control.writes() : null), PRIORITY);
+    }
+
+    private static boolean isWrite(String httpMethod) {
+        return HttpMethod.POST.equals(httpMethod) || HttpMethod.PUT.equals(httpMethod)
+                || HttpMethod.DELETE.equals(httpMethod) || HttpMethod.PATCH.equals(httpMethod);
+    }
+}
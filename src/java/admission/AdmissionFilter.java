@@ -0,0 +1,59 @@
+package admission;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.Response;
+import java.io.IOException;
+import java.security.Principal;
+import service.ErrorResponse;
+
+/**
+ * Control de admisión de un método de recurso. Va justo después de
+ * RESTRequestFilter, con el usuario ya identificado:
+ *
+ * 1. En las escrituras, un token del cubo del usuario (las anónimas
+ *    comparten uno); sin token → 429 con Retry-After.
+ * 2. Un hueco en el ConcurrencyLimit del método; sin hueco → 503.
+ *
+ * El hueco lo devuelve AdmissionListener cuando la petición termina, sea
+ * cual sea el resultado. Las lecturas @Suspended no tienen límite aquí: las
+ * acota AsyncReads, y mientras esperan en su cola no deben ocupar hueco.
+ */
+final class AdmissionFilter implements ContainerRequestFilter {
+    static final String LIMIT_PROPERTY = "admission.limit";
+    static final String START_PROPERTY = "admission.start";
+    private static final String ANONYMOUS = "";
+
+    private final ConcurrencyLimit limit;
+    private final TokenBuckets writes;
+
+    /**
+     * @param writes cubos por usuario, o null si el método no escribe
+     */
+    AdmissionFilter(ConcurrencyLimit limit, TokenBuckets writes) {
+        this.limit = limit;
+        this.writes = writes;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) throws IOException {
+        if (writes != null) {
+            Principal user = request.getSecurityContext().getUserPrincipal();
+            long waitNanos = writes.tryAcquire(user != null ? user.getName() : ANONYMOUS);
+            if (waitNanos > 0) {
+                request.abortWith(ErrorResponse.of(Response.Status.TOO_MANY_REQUESTS, "Too many requests, try again later")
+                        .header("Retry-After", Math.max(1, (waitNanos + 999_999_999) / 1_000_000_000))
+                        .build());
+                return;
+            }
+        }
+        if (!limit.tryAcquire()) {
+            request.abortWith(ErrorResponse.of(Response.Status.SERVICE_UNAVAILABLE, "Server overloaded, try again later")
+                    .header("Retry-After", 1)
+                    .build());
+            return;
+        }
+        request.setProperty(LIMIT_PROPERTY, limit);
+        request.setProperty(START_PROPERTY, System.nanoTime());
+    }
+}
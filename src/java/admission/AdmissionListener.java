@@ -0,0 +1,49 @@
+package admission;
+
+import jakarta.ws.rs.ext.Provider;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+/**
+ * Devuelve el hueco que AdmissionFilter ocupó en el ConcurrencyLimit del
+ * método cuando Jersey da la petición por terminada (RequestEvent FINISHED).
+ *
+ * Un filtro de respuesta no basta: con una excepción sin ExceptionMapper no
+ * se llega a él y el hueco se perdería para siempre. FINISHED llega siempre,
+ * una vez por petición, después de escribir el cuerpo o de fallar.
+ *
+ * Es específico de Jersey, el único runtime JAX-RS de Payara.
+ */
+@Provider
+public class AdmissionListener implements ApplicationEventListener {
+    // sin estado: todo va en las propiedades de la petición
+    private static final RequestEventListener RELEASE = AdmissionListener::finished;
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return RELEASE;
+    }
+
+    private static void finished(RequestEvent event) {
+        if (event.getType() != RequestEvent.Type.FINISHED) {
+            return;
+        }
+        ConcurrencyLimit limit = (ConcurrencyLimit) event.getContainerRequest()
+                .getProperty(AdmissionFilter.LIMIT_PROPERTY);
+        if (limit == null) {
+            // rechazada en AdmissionFilter, o cortada antes por la autenticación
+            return;
+        }
+        long rtt = System.nanoTime() - (Long) event.getContainerRequest().getProperty(AdmissionFilter.START_PROPERTY);
+        ContainerResponse response = event.getContainerResponse();
+        // un error no dice nada de la latencia: puede fallar enseguida
+        limit.release(rtt, event.isSuccess() && response != null && response.getStatus() < 500);
+    }
+}
@@ -0,0 +1,105 @@
+package admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Límite de peticiones en curso de un método de recurso, que se adapta a
+ * la latencia medida (gradiente, como Gradient2 de Netflix).
+ *
+ * Se comparan dos medias móviles de la latencia: una corta (10 muestras) y
+ * una larga (500). Mientras la corta no pasa de TOLERANCE veces la larga,
+ * el límite crece en raíz del límite por ajuste; si pasa, se multiplica por
+ * larga * TOLERANCE / corta (como mucho se reduce a la mitad). Cuando la
+ * latencia vuelve a bajar, la media larga se olvida más deprisa para no
+ * quedarse anclada en el pico. Con pocas peticiones en curso el límite no
+ * crece, porque la latencia no dice nada de él.
+ */
+public final class ConcurrencyLimit {
+    private static final double TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 500;
+
+    private final String httpMethod;
+    private final String path;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    // protegidos por this
+    private double estimate;
+    private double shortRtt;
+    private double longRtt;
+
+    ConcurrencyLimit(String httpMethod, String path, int initialLimit, int minLimit, int maxLimit) {
+        this.httpMethod = httpMethod;
+        this.path = path;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimate = initialLimit;
+    }
+
+    boolean tryAcquire() {
+        if (inflight.incrementAndGet() > limit) {
+            inflight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param rttNanos latencia de la petición
+     * @param sample false si la respuesta no es representativa (p. ej. un 5xx inmediato)
+     */
+    void release(long rttNanos, boolean sample) {
+        int before = inflight.getAndDecrement();
+        if (sample) {
+            update(rttNanos, before);
+        }
+    }
+
+    private synchronized void update(long rttNanos, int inflightBefore) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+        } else {
+            shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+            longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+        }
+        if (longRtt / shortRtt > TOLERANCE) {
+            longRtt *= 0.95;
+        }
+        if (inflightBefore < estimate / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double next = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + next * SMOOTHING));
+        limit = (int) estimate;
+    }
+
+    String getHttpMethod() {
+        return httpMethod;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+}
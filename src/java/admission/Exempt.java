@@ -0,0 +1,15 @@
+package admission;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Método de recurso sin control de admisión, como GET /metrics, que tiene
+ * que responder precisamente cuando hay sobrecarga
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Exempt {
+}
@@ -0,0 +1,71 @@
+package admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets por usuario, sin bloqueos (GCRA).
+ *
+ * Cada cubo es un AtomicLong con el instante teórico en que volvería a estar
+ * lleno. Admitir una petición es un compareAndSet que lo adelanta un
+ * intervalo (1 s / ritmo), y se rechaza si eso lo deja más de burst
+ * intervalos por delante del reloj. Los cubos se reparten entre los bins del
+ * ConcurrentHashMap, así que usuarios distintos no compiten entre sí.
+ */
+public final class TokenBuckets {
+    private static final int MAX_KEYS = 10_000;
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongAdder rejected = new LongAdder();
+
+    TokenBuckets(double perSecond, int burst) {
+        this.intervalNanos = (long) (1e9 / perSecond);
+        this.burstNanos = intervalNanos * burst;
+    }
+
+    /**
+     * @return 0 si hay token; si no, nanosegundos hasta que lo habrá
+     */
+    long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_KEYS) {
+                purge(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long full = bucket.get();
+            long next = (full - now > 0 ? full : now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                rejected.increment();
+                return ahead - burstNanos;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Quita los cubos llenos, que equivalen a no tener cubo. Uno que se
+     * vacíe mientras se quita pierde esa petición: se falla hacia admitir.
+     */
+    private void purge(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,43 @@
+package authn;
+
+import java.security.Principal;
+import jakarta.ws.rs.core.SecurityContext;
+
+/**
+ * SecurityContext que RESTRequestFilter deja en la petición una vez
+ * verificado el usuario, para que los recursos puedan leerlo con
+ * {@code @Context SecurityContext}.
+ */
+public class AuthenticatedUser implements SecurityContext {
+    public static final String BEARER_AUTH = "Bearer";
+
+    private final String username;
+    private final String scheme;
+    private final boolean secure;
+
+    public AuthenticatedUser(String username, String scheme, boolean secure) {
+        this.username = username;
+        this.scheme = scheme;
+        this.secure = secure;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return () -> username;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return secure;
+    }
+
+    @Override
+    public String getAuthenticationScheme() {
+        return scheme;
+    }
+}
@@ -0,0 +1,64 @@
+package authn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Parser de la cabecera "Authorization: Basic ..."
+ *
+ * Sustituye al camino String.replace + saaj Base64 + StringTokenizer:
+ * decodifica directamente a bytes y corta por el primer ':' sin
+ * crear cadenas intermedias. Así las contraseñas con ':' también funcionan.
+ */
+public final class BasicAuthorization {
+    private static final String PREFIX = "Basic ";
+
+    private final String username;
+    private final String password;
+
+    private BasicAuthorization(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * @param header valor de la cabecera Authorization
+     * @return credenciales decodificadas o null si la cabecera no es Basic válida
+     */
+    public static BasicAuthorization parse(String header) {
+        if (header == null || !header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) {
+            return null;
+        }
+        int start = PREFIX.length();
+        while (start < header.length() && header.charAt(start) == ' ') {
+            start++;
+        }
+        byte[] decoded;
+        try {
+            decoded = Base64.getDecoder().decode(header.substring(start));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = -1;
+        for (int i = 0; i < decoded.length; i++) {
+            if (decoded[i] == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon <= 0 || colon == decoded.length - 1) {
+            return null;
+        }
+        return new BasicAuthorization(
+                new String(decoded, 0, colon, StandardCharsets.UTF_8),
+                new String(decoded, colon + 1, decoded.length - colon - 1, StandardCharsets.UTF_8));
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import javax.xml.bind.annotation.XmlRootElement;
 
 @Entity
+@EntityListeners(CredentialsListener.class)
 @NamedQuery(name="Credentials.findUser", 
             query="SELECT c FROM Credentials c WHERE c.username = :username")
 @XmlRootElement
@@ -18,6 +19,9 @@ public class Credentials implements Serializable {
     private String username;
     @NotNull(message="Password can't be null")
     private String password;
+    // username tal como está en la base de datos (ver CredentialsListener)
+    @Transient
+    private transient String storedUsername;
 
     public Long getId() {
         return id;
@@ -42,4 +46,12 @@ public class Credentials implements Serializable {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    String getStoredUsername() {
+        return storedUsername;
+    }
+
+    void setStoredUsername(String storedUsername) {
+        this.storedUsername = storedUsername;
+    }
 }
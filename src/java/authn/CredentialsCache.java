@@ -0,0 +1,214 @@
+package authn;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import metrics.AuthOutcome;
+
+/**
+ * Caché de verificaciones de credenciales para RESTRequestFilter.
+ *
+ * La clave es el SHA-256 de la cabecera Authorization, así nunca se guarda
+ * la contraseña. Tiene tamaño máximo (LRU) y caducidad por TTL, y se
+ * invalida por usuario cuando se confirma un cambio de su fila de
+ * Credentials, con el nombre anterior y el nuevo.
+ *
+ * También guarda, aparte y durante REJECTED_TTL_NANOS, las cabeceras que no
+ * se pudieron verificar, para no repetir PBKDF2 con cada reintento de unas
+ * credenciales incorrectas. Un usuario que se crea después de un intento
+ * con su nombre puede tardar ese tiempo en poder entrar con esa cabecera.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CredentialsCache {
+    private static final int MAX_ENTRIES = 1024;
+    private static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static final long REJECTED_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Map<String, Verification> entries = new LinkedHashMap<String, Verification>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Verification> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // separadas de las buenas: un aluvión de fallos no las expulsa
+    private final Map<String, Rejection> rejected = new LinkedHashMap<String, Rejection>(64, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Rejection> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong rejectedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @return el usuario verificado para esta cabecera, o null si no está en caché
+     */
+    public String lookup(String key) {
+        Verification entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.createdAt > TTL_NANOS) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.username;
+    }
+
+    public void put(String key, String username) {
+        synchronized (entries) {
+            entries.put(key, new Verification(username, System.nanoTime()));
+        }
+    }
+
+    /**
+     * @return el resultado del intento fallido reciente con esta cabecera
+     *         (UNKNOWN_USER o WRONG_PASSWORD), o null si no lo hay
+     */
+    public AuthOutcome lookupRejected(String key) {
+        synchronized (rejected) {
+            Rejection rejection = rejected.get(key);
+            if (rejection == null) {
+                return null;
+            }
+            if (System.nanoTime() - rejection.createdAt > REJECTED_TTL_NANOS) {
+                rejected.remove(key);
+                return null;
+            }
+            rejectedHits.incrementAndGet();
+            return rejection.outcome;
+        }
+    }
+
+    /**
+     * @param username el de la cabecera, para invalidarla si cambian sus credenciales
+     */
+    public void reject(String key, String username, AuthOutcome outcome) {
+        synchronized (rejected) {
+            rejected.put(key, new Rejection(username, outcome, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Elimina todas las verificaciones guardadas de un usuario, también las fallidas
+     */
+    public void invalidate(String username) {
+        synchronized (entries) {
+            Iterator<Verification> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().username.equals(username)) {
+                    it.remove();
+                }
+            }
+        }
+        synchronized (rejected) {
+            Iterator<Rejection> it = rejected.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().username.equals(username)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) CredentialsChanged change) {
+        invalidate(change.getPreviousUsername());
+        invalidate(change.getUsername());
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        synchronized (rejected) {
+            rejected.clear();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getRejectedHits() {
+        return rejectedHits.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Clave de caché a partir del valor completo de la cabecera Authorization
+     */
+    public static String keyFor(String authorizationHeader) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(authorizationHeader.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Verification {
+        final String username;
+        final long createdAt;
+
+        Verification(String username, long createdAt) {
+            this.username = username;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private static final class Rejection {
+        final String username;
+        final AuthOutcome outcome;
+        final long createdAt;
+
+        Rejection(String username, AuthOutcome outcome, long createdAt) {
+            this.username = username;
+            this.outcome = outcome;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package authn;
+
+/**
+ * Evento CDI que CredentialsListener lanza cuando se modifica o se borra
+ * una fila de Credentials. Lleva también el username anterior, para que
+ * un cambio de nombre invalide el viejo.
+ *
+ * Los observadores que tocan estado en memoria usan
+ * {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)}.
+ */
+public class CredentialsChanged {
+    private final Long id;
+    private final String previousUsername;
+    private final String username;
+    private final boolean removed;
+
+    public CredentialsChanged(Long id, String previousUsername, String username, boolean removed) {
+        this.id = id;
+        this.previousUsername = previousUsername;
+        this.username = username;
+        this.removed = removed;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Username antes del cambio (el mismo que getUsername() si no se renombró)
+     */
+    public String getPreviousUsername() {
+        return previousUsername;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+}
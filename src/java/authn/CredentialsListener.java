@@ -0,0 +1,59 @@
+package authn;
+
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Listener JPA de Credentials: guarda las contraseñas con hash y anuncia
+ * cada modificación o borrado con CredentialsChanged.
+ *
+ * La caché de verificaciones y los tokens se invalidan en los observadores
+ * de ese evento (CredentialsCache, TokenService) cuando la transacción ha
+ * confirmado; hacerlo aquí, antes del commit, dejaba que un login
+ * concurrente volviera a guardar la contraseña vieja.
+ */
+public class CredentialsListener {
+
+    @Inject
+    private PasswordHasher hasher;
+
+    @Inject
+    private Event<CredentialsChanged> changes;
+
+    @PrePersist
+    @PreUpdate
+    public void hashPassword(Credentials credentials) {
+        if (credentials.getPassword() != null && !PasswordHasher.isHashed(credentials.getPassword())) {
+            credentials.setPassword(hasher.hash(credentials.getPassword()));
+        }
+    }
+
+    @PostLoad
+    @PostPersist
+    public void remember(Credentials credentials) {
+        credentials.setStoredUsername(credentials.getUsername());
+    }
+
+    @PostUpdate
+    public void updated(Credentials credentials) {
+        changes.fire(new CredentialsChanged(credentials.getId(), previous(credentials),
+                credentials.getUsername(), false));
+        credentials.setStoredUsername(credentials.getUsername());
+    }
+
+    @PostRemove
+    public void removed(Credentials credentials) {
+        changes.fire(new CredentialsChanged(credentials.getId(), previous(credentials),
+                credentials.getUsername(), true));
+    }
+
+    private static String previous(Credentials credentials) {
+        return credentials.getStoredUsername() != null ? credentials.getStoredUsername() : credentials.getUsername();
+    }
+}
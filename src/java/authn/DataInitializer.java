@@ -1,127 +1,278 @@
 package authn;
 
+import cluster.ReplicaCopier;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import model.entities.Comment;
 import model.entities.Customer;
 import model.entities.Model;
+import model.entities.Topic;
+import org.eclipse.persistence.jpa.JpaEntityManager;
+import org.eclipse.persistence.sessions.server.ServerSession;
+import org.eclipse.persistence.tools.schemaframework.DefaultTableGenerator;
+import org.eclipse.persistence.tools.schemaframework.SchemaManager;
+import org.eclipse.persistence.tools.schemaframework.TableDefinition;
+import service.EntityChanged;
+import service.EntityCounters;
+import service.Readiness;
 
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
- * Inicializador de datos para la aplicación
- * Crea el usuario de prueba sob/sob y algunos modelos de ejemplo
- * 
- * TODO AMBOS: Completar los métodos para insertar datos de prueba
- * 
- * Este singleton se ejecuta automáticamente al arrancar la aplicación (@Startup)
- * y llama al método init() una sola vez (@PostConstruct)
+ * Prepara la base de datos al arrancar la aplicación.
+ *
+ * El esquema se trata aquí y no en persistence.xml, según homework1.schema:
+ * - drop-and-create (por defecto): borra y vuelve a crear las tablas, como
+ *   en desarrollo
+ * - create: crea las tablas y columnas que falten sin borrar nada; para
+ *   producción
+ * - validate: no toca el esquema y el despliegue falla si falta alguna tabla
+ *
+ * Eso se hace antes de terminar el despliegue (los demás @Startup que leen
+ * la base de datos dependen de este). Los datos de prueba (usuario sob/sob,
+ * 4 modelos y 2 clientes) se insertan después, en segundo plano, en una sola
+ * transacción con escritura por lotes y solo si las tablas están vacías.
+ * homework1.seed decide si se insertan; por defecto solo con
+ * drop-and-create, para que una base de datos de producción recién creada
+ * no quede con un usuario de contraseña conocida. Al acabar se calientan
+ * los contadores y la caché de modelos, y el nodo se marca listo en
+ * Readiness.
+ *
+ * Con homework1.replica.copy=true el mismo perfil se aplica también a la
+ * réplica de lectura, que entonces mantiene cluster.ReplicaCopier.
  */
 @Singleton
 @Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class DataInitializer {
+    public static final String SCHEMA_PROPERTY = "homework1.schema";
+    public static final String SEED_PROPERTY = "homework1.seed";
+
+    private static final String SCHEMA = System.getProperty(SCHEMA_PROPERTY, "drop-and-create");
+    private static final boolean SEED = Boolean.parseBoolean(
+            System.getProperty(SEED_PROPERTY, String.valueOf("drop-and-create".equals(SCHEMA))));
 
     @PersistenceContext(unitName = "Homework1PU")
     private EntityManager em;
 
+    @PersistenceContext(unitName = "Homework1ReadPU")
+    private EntityManager replica;
+
+    @Resource
+    private TimerService timerService;
+
+    @Resource
+    private SessionContext context;
+
+    @EJB
+    private Readiness readiness;
+
+    @EJB
+    private EntityCounters counters;
+
+    @Inject
+    private Event<EntityChanged> changes;
+
     @PostConstruct
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
     public void init() {
+        readiness.starting("schema");
+        readiness.starting("seed");
+        readiness.starting("caches");
+        long start = System.currentTimeMillis();
+        applySchema(em);
+        if (ReplicaCopier.COPY) {
+            applySchema(replica);
+        }
+        readiness.ready("schema");
+        System.out.println("✓ DataInitializer: esquema (" + SCHEMA + ") en "
+                + (System.currentTimeMillis() - start) + " ms");
+        // el timer salta cuando ha terminado el despliegue, en un hilo del contenedor
+        timerService.createSingleActionTimer(0, new TimerConfig(null, false));
+    }
+
+    private static void applySchema(EntityManager em) {
+        ServerSession session = em.unwrap(JpaEntityManager.class).getServerSession();
+        SchemaManager schema = new SchemaManager(session);
+        switch (SCHEMA) {
+            case "drop-and-create":
+                schema.replaceDefaultTables(true, false, true);
+                break;
+            case "create":
+                schema.extendDefaultTables(true);
+                break;
+            case "validate":
+                List<String> missing = new ArrayList<>();
+                for (TableDefinition table : new DefaultTableGenerator(session.getProject())
+                        .generateDefaultTableCreator().getTableDefinitions()) {
+                    if (!schema.checkTableExists(table)) {
+                        missing.add(table.getName());
+                    }
+                }
+                if (!missing.isEmpty()) {
+                    throw new IllegalStateException("Missing tables: " + missing);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown " + SCHEMA_PROPERTY + ": " + SCHEMA);
+        }
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void startInBackground() {
+        long start = System.currentTimeMillis();
         try {
-            createTestUser();
-            createSampleModels();
-            createSampleCustomers();
-            System.out.println("✓ DataInitializer: Datos de prueba creados correctamente");
-        } catch (Exception e) {
+            if (SEED) {
+                // a través del contenedor, para que seed() tenga su transacción
+                context.getBusinessObject(DataInitializer.class).seed();
+            }
+        } catch (RuntimeException e) {
             System.err.println("✗ Error al inicializar datos: " + e.getMessage());
             e.printStackTrace();
         }
+        readiness.ready("seed");
+        try {
+            // después de confirmar los datos, para que los EntityChanged no se cuenten dos veces
+            counters.warmUp(Model.class, Customer.class, Comment.class, Topic.class);
+            em.createNamedQuery("Model.findAll", Model.class)
+                    .setHint("jakarta.persistence.loadgraph", em.getEntityGraph("Model.full"))
+                    .getResultList();
+        } catch (RuntimeException e) {
+            System.err.println("✗ Error al calentar las cachés: " + e.getMessage());
+            e.printStackTrace();
+        }
+        readiness.ready("caches");
+        System.out.println("✓ DataInitializer: datos y cachés listos en "
+                + (System.currentTimeMillis() - start) + " ms");
     }
 
     /**
-     * TODO AMBOS: Crear el usuario de prueba sob/sob
-     * 
-     * Pasos:
-     * 1. Intentar buscar usuario existente con:
-     *    em.createNamedQuery("Credentials.findUser", Credentials.class)
-     *      .setParameter("username", "sob")
-     *      .getSingleResult();
-     * 2. Si existe (no lanza excepción) → imprimir "Usuario 'sob' ya existe"
-     * 3. Si NO existe (lanza excepción) → crear:
-     *    Credentials credentials = new Credentials();
-     *    credentials.setUsername("sob");
-     *    credentials.setPassword("sob");
-     *    em.persist(credentials);
-     *    Imprimir "✓ Usuario de prueba creado: sob/sob"
+     * Inserta los datos de prueba que falten. Las filas se envían juntas en
+     * el flush (eclipselink.jdbc.batch-writing) y cada una se anuncia con
+     * EntityChanged para que el índice y los contadores las vean.
      */
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public void seed() {
+        List<Object> created = new ArrayList<>();
+        createTestUser();
+        createSampleModels(created);
+        createSampleCustomers(created);
+        em.flush();
+        for (Object entity : created) {
+            Object id = em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+            changes.fire(new EntityChanged(entity.getClass(), id, EntityChanged.Kind.CREATED, entity));
+        }
+        System.out.println("✓ DataInitializer: " + created.size() + " modelos y clientes de prueba creados");
+    }
+
     private void createTestUser() {
-        // TODO AMBOS: Implementar creación de usuario sob/sob
-        System.out.println("  TODO: Crear usuario sob/sob");
+        boolean exists = !em.createNamedQuery("Credentials.findUser", Credentials.class)
+                .setParameter("username", "sob")
+                .getResultList()
+                .isEmpty();
+        if (exists) {
+            return;
+        }
+        Credentials credentials = new Credentials();
+        credentials.setUsername("sob");
+        credentials.setPassword("sob");
+        em.persist(credentials);
     }
 
     /**
-     * TODO PERSONA A: Crear 3-4 modelos de ejemplo
-     * 
-     * Pasos:
-     * 1. Comprobar si ya hay modelos:
-     *    Long count = em.createQuery("SELECT COUNT(m) FROM Model m", Long.class).getSingleResult();
-     *    Si count > 0 → return (ya hay datos)
-     * 
-     * 2. Crear al menos 2 modelos privados (isPrivate=true) y 2 públicos (isPrivate=false)
-     * 
-     * Ejemplo de modelo:
-     *    Model gpt4 = new Model();
-     *    gpt4.setName("GPT-4.1-mini");
-     *    gpt4.setProvider("OpenAI");
-     *    gpt4.setSummary("Modelo optimizado para conversaciones rápidas...");
-     *    gpt4.setCapabilities(Arrays.asList("chat-completion", "code-generation"));
-     *    gpt4.setLicense("Custom");
-     *    gpt4.setMaxContextTokens(32768);
-     *    gpt4.setPrivate(true);
-     *    gpt4.setLogoUrl("https://openai.com/favicon.ico");
-     *    // ... más campos
-     *    em.persist(gpt4);
-     * 
-     * Sugerencias de modelos:
-     * - GPT-4 (OpenAI, privado)
-     * - Claude (Anthropic, privado)
-     * - Mistral (Mistral AI, público, Apache 2.0)
-     * - LLaMA (Meta, público)
-     * 
-     * 3. Imprimir mensaje de confirmación
+     * 2 modelos privados y 2 públicos, solo si no hay ninguno
      */
-    private void createSampleModels() {
-        // TODO PERSONA A: Implementar creación de modelos de ejemplo
-        System.out.println("  TODO: Crear modelos de ejemplo");
+    private void createSampleModels(List<Object> created) {
+        Long count = em.createQuery("SELECT COUNT(m) FROM Model m", Long.class).getSingleResult();
+        if (count > 0) {
+            return;
+        }
+        add(created, model("GPT-4.1-mini", "OpenAI",
+                "Modelo optimizado para conversaciones rápidas y generación de código",
+                Arrays.asList("chat-completion", "code-generation"), "Custom", 32768, true,
+                "https://openai.com/favicon.ico", "2025-04-14", "2024-06-01", "2025-04-14"));
+        add(created, model("Claude Sonnet", "Anthropic",
+                "Modelo de uso general con contexto largo y buen razonamiento",
+                Arrays.asList("chat-completion", "code-generation", "reasoning"), "Custom", 200000, true,
+                "https://anthropic.com/favicon.ico", "4", "2025-03-01", "2025-05-22"));
+        add(created, model("Mistral 7B", "Mistral AI",
+                "Modelo abierto pequeño y eficiente",
+                Arrays.asList("chat-completion"), "Apache 2.0", 32768, false,
+                "https://mistral.ai/favicon.ico", "v0.3", "2024-03-01", "2024-05-22"));
+        add(created, model("LLaMA 3.1 8B", "Meta",
+                "Modelo abierto de Meta para texto multilingüe",
+                Arrays.asList("chat-completion", "translation"), "Llama 3.1 Community", 128000, false,
+                "https://llama.meta.com/favicon.ico", "3.1", "2023-12-01", "2024-07-23"));
+    }
+
+    private static Model model(String name, String provider, String summary, List<String> capabilities,
+            String license, int maxContextTokens, boolean isPrivate, String logoUrl, String lastVersion,
+            String trainingDate, String lastUpdateDate) {
+        Model model = new Model();
+        model.setName(name);
+        model.setProvider(provider);
+        model.setSummary(summary);
+        model.setCapabilities(new ArrayList<>(capabilities));
+        model.setLicense(license);
+        model.setMaxContextTokens(maxContextTokens);
+        model.setInputTypes(new ArrayList<>(Arrays.asList("text")));
+        model.setOutputTypes(new ArrayList<>(Arrays.asList("text")));
+        model.setPrivate(isPrivate);
+        model.setLogoUrl(logoUrl);
+        model.setLastVersion(lastVersion);
+        model.setVersions(new ArrayList<>(Arrays.asList(lastVersion)));
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd");
+            model.setTrainingDate(format.parse(trainingDate));
+            model.setLastUpdateDate(format.parse(lastUpdateDate));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return model;
     }
 
     /**
-     * TODO PERSONA B: Crear 2 clientes de ejemplo
-     * 
-     * Pasos:
-     * 1. Comprobar si ya hay clientes:
-     *    Long count = em.createQuery("SELECT COUNT(c) FROM Customer c", Long.class).getSingleResult();
-     *    Si count > 0 → return
-     * 
-     * 2. Crear al menos 2 clientes:
-     *    Customer customer1 = new Customer();
-     *    customer1.setUsername("sob");
-     *    customer1.setDisplayName("Usuario SOB de Prueba");
-     *    customer1.setEmail("sob@urv.cat");
-     *    em.persist(customer1);
-     * 
-     *    Customer customer2 = new Customer();
-     *    customer2.setUsername("demo");
-     *    customer2.setDisplayName("Usuario Demo");
-     *    customer2.setEmail("demo@urv.cat");
-     *    em.persist(customer2);
-     * 
-     * 3. Imprimir mensaje de confirmación
+     * Clientes sob y demo, solo si no hay ninguno
      */
-    private void createSampleCustomers() {
-        // TODO PERSONA B: Implementar creación de clientes de ejemplo
-        System.out.println("  TODO: Crear clientes de ejemplo");
+    private void createSampleCustomers(List<Object> created) {
+        Long count = em.createQuery("SELECT COUNT(c) FROM Customer c", Long.class).getSingleResult();
+        if (count > 0) {
+            return;
+        }
+        add(created, customer("sob", "Usuario SOB de Prueba", "sob@urv.cat"));
+        add(created, customer("demo", "Usuario Demo", "demo@urv.cat"));
+    }
+
+    private static Customer customer(String username, String displayName, String email) {
+        Customer customer = new Customer();
+        customer.setUsername(username);
+        customer.setDisplayName(displayName);
+        customer.setEmail(email);
+        return customer;
+    }
+
+    private void add(List<Object> created, Object entity) {
+        em.persist(entity);
+        created.add(entity);
     }
 }
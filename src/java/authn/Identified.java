@@ -0,0 +1,18 @@
+package authn;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Método público que usa el usuario si la petición trae credenciales
+ * válidas (p. ej. para anotar el último modelo que ha visto). Solo en estos
+ * RESTRequestFilter verifica una cabecera Basic que no está en caché; en
+ * el resto se aceptan únicamente tokens Bearer y verificaciones ya hechas,
+ * para que un GET anónimo no cueste un PBKDF2.
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Identified {
+}
@@ -0,0 +1,141 @@
+package authn;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hash de contraseñas con PBKDF2 (formato "pbkdf2$iteraciones$salt$hash").
+ *
+ * El cálculo se hace en un pool propio y acotado: una ráfaga de logins
+ * llena como mucho este pool y su cola, y el resto se rechaza enseguida
+ * con BusyException en lugar de ocupar los hilos de JAX-RS.
+ * Las contraseñas antiguas en texto plano se siguen aceptando.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PasswordHasher {
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int ITERATIONS = 120000;
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int QUEUE_SIZE = 64;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Genera el hash de una contraseña en el pool de hashing
+     */
+    public String hash(String password) {
+        final byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] key = await(executor.submit(() -> pbkdf2(password, salt, ITERATIONS)));
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + ITERATIONS + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(key);
+    }
+
+    /**
+     * Comprueba una contraseña contra el valor guardado en Credentials
+     */
+    public boolean matches(String password, String stored) {
+        if (stored == null || password == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(stored.getBytes(StandardCharsets.UTF_8),
+                    password.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        final int iterations;
+        final byte[] salt;
+        byte[] expected;
+        try {
+            iterations = Integer.parseInt(parts[1]);
+            salt = Base64.getDecoder().decode(parts[2]);
+            expected = Base64.getDecoder().decode(parts[3]);
+        } catch (IllegalArgumentException e) {
+            // fila mal formada o de otro formato: no se puede verificar
+            return false;
+        }
+        if (iterations <= 0 || salt.length == 0 || expected.length == 0) {
+            return false;
+        }
+        byte[] actual = await(executor.submit(() -> pbkdf2(password, salt, iterations)));
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) {
+        try {
+            return future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * El pool de hashing está saturado o no respondió a tiempo
+     */
+    public static class BusyException extends RejectedExecutionException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -1,10 +1,12 @@
 package authn;
 
-import com.sun.xml.messaging.saaj.util.Base64;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.List;
-import java.util.StringTokenizer;
+import java.util.concurrent.RejectedExecutionException;
+import metrics.AuthOutcome;
+import metrics.MetricsFilter;
+import jakarta.inject.Inject;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -14,6 +16,7 @@ import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.ext.Provider;
 import jakarta.annotation.Priority;
 import jakarta.ws.rs.core.Context;
@@ -26,8 +29,8 @@ import jakarta.ws.rs.container.ResourceInfo;
 @Priority(Priorities.AUTHENTICATION)
 @Provider
 public class RESTRequestFilter implements ContainerRequestFilter {
-    private static final String AUTHORIZATION_HEADER_PREFIX = "Basic ";      
-    
+    private static final String BEARER_PREFIX = "Bearer ";
+
     // to access the resource class and resource method matched by the current request
     @Context
     private ResourceInfo resourceInfo;
@@ -35,57 +38,166 @@ public class RESTRequestFilter implements ContainerRequestFilter {
     @PersistenceContext(unitName = "Homework1PU")
     private EntityManager em;
 
+    @Inject
+    private CredentialsCache cache;
+
+    @Inject
+    private PasswordHasher hasher;
+
+    @Inject
+    private TokenService tokens;
+
     @Override
     public void filter(ContainerRequestContext requestCtx) throws IOException {
         Method method = resourceInfo.getResourceMethod();
-        if (method != null) 
+        if (method != null)
         {
             Secured secured = method.getAnnotation(Secured.class);
             if(secured != null)
             {
-                
+
                 List<String> headers = requestCtx.getHeaders()
                         .get(HttpHeaders.AUTHORIZATION);
-                
+
                 if(headers != null && !headers.isEmpty())
                 {
-                    String username;
-                    String password;
-                    try {
-                        String auth = headers.get(0);
-                        auth = auth.replace(AUTHORIZATION_HEADER_PREFIX, "");
-                        String decode = Base64.base64Decode(auth);
-                        StringTokenizer tokenizer = new StringTokenizer(decode, ":");
-                        username = tokenizer.nextToken();
-                        password = tokenizer.nextToken();
-                    } catch(@SuppressWarnings("unused") Exception e){
+                    String header = headers.get(0);
+                    if (header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+                        // token firmado: se verifica en memoria, sin consultar Credentials
+                        String username = tokens.verify(header.substring(BEARER_PREFIX.length()).trim());
+                        if (username == null) {
+                            MetricsFilter.auth(AuthOutcome.INVALID_TOKEN);
+                            requestCtx.abortWith(
+                                Response.status(Response.Status.UNAUTHORIZED).build()
+                            );
+                        } else {
+                            MetricsFilter.auth(AuthOutcome.BEARER);
+                            authenticate(requestCtx, username, AuthenticatedUser.BEARER_AUTH);
+                        }
+                        return;
+                    }
+
+                    String cacheKey = CredentialsCache.keyFor(header);
+                    String cachedUser = cache.lookup(cacheKey);
+                    if (cachedUser != null) {
+                        MetricsFilter.auth(AuthOutcome.BASIC_CACHED);
+                        authenticate(requestCtx, cachedUser, SecurityContext.BASIC_AUTH);
+                        return;
+                    }
+
+                    AuthOutcome rejected = cache.lookupRejected(cacheKey);
+                    if (rejected != null) {
+                        // mismo fallo hace poco: sin repetir PBKDF2
+                        MetricsFilter.auth(rejected);
+                        requestCtx.abortWith(
+                                Response.status(rejected == AuthOutcome.WRONG_PASSWORD
+                                        ? Response.Status.FORBIDDEN : Response.Status.UNAUTHORIZED).build()
+                        );
+                        return;
+                    }
+
+                    BasicAuthorization auth = BasicAuthorization.parse(header);
+                    if (auth == null) {
+                        MetricsFilter.auth(AuthOutcome.MALFORMED);
                         requestCtx.abortWith(
                                 Response.status(Response.Status.BAD_REQUEST).build()
                         );
                         return;
                     }
-                    
+
                     try {
                         TypedQuery<Credentials> query = em.createNamedQuery("Credentials.findUser", Credentials.class);
-                        Credentials c = query.setParameter("username", username)
+                        Credentials c = query.setParameter("username", auth.getUsername())
                             .getSingleResult();
-                        if(!c.getPassword().equals(password)) {
+                        if(hasher.matches(auth.getPassword(), c.getPassword())) {
+                            cache.put(cacheKey, c.getUsername());
+                            MetricsFilter.auth(AuthOutcome.BASIC);
+                            authenticate(requestCtx, c.getUsername(), SecurityContext.BASIC_AUTH);
+                        } else {
+                            cache.reject(cacheKey, auth.getUsername(), AuthOutcome.WRONG_PASSWORD);
+                            MetricsFilter.auth(AuthOutcome.WRONG_PASSWORD);
                             requestCtx.abortWith(
                                 Response.status(Response.Status.FORBIDDEN).build()
                             );
                         }
                     } catch(@SuppressWarnings("unused") NoResultException e) {
+                        cache.reject(cacheKey, auth.getUsername(), AuthOutcome.UNKNOWN_USER);
+                        MetricsFilter.auth(AuthOutcome.UNKNOWN_USER);
                         requestCtx.abortWith(
                             Response.status(Response.Status.UNAUTHORIZED).build()
                         );
-                    }                  
-                }  
+                    } catch(@SuppressWarnings("unused") RejectedExecutionException e) {
+                        MetricsFilter.auth(AuthOutcome.BUSY);
+                        requestCtx.abortWith(
+                            Response.status(Response.Status.SERVICE_UNAVAILABLE).build()
+                        );
+                    }
+                }
                 else {
+                    MetricsFilter.auth(AuthOutcome.MISSING);
                    requestCtx.abortWith(
                         Response.status(Response.Status.UNAUTHORIZED).build()
                     );
                 }
             }
+            else {
+                String header = requestCtx.getHeaderString(HttpHeaders.AUTHORIZATION);
+                if (header != null) {
+                    identify(requestCtx, header, method.isAnnotationPresent(Identified.class));
+                }
+            }
+        }
+    }
+
+    /**
+     * En los métodos públicos la autenticación es opcional: unas credenciales
+     * válidas dejan el usuario en el SecurityContext (p. ej. para anotar qué
+     * modelos ve) y unas inválidas no rechazan la petición, sigue como anónima.
+     *
+     * @param verify si se puede comprobar la contraseña de una cabecera Basic
+     *        que no está en caché (solo en los métodos @Identified)
+     */
+    private void identify(ContainerRequestContext requestCtx, String header, boolean verify) {
+        if (header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            String username = tokens.verify(header.substring(BEARER_PREFIX.length()).trim());
+            if (username != null) {
+                authenticate(requestCtx, username, AuthenticatedUser.BEARER_AUTH);
+            }
+            return;
+        }
+        String cacheKey = CredentialsCache.keyFor(header);
+        String username = cache.lookup(cacheKey);
+        if (username == null) {
+            if (!verify || cache.lookupRejected(cacheKey) != null) {
+                return;
+            }
+            BasicAuthorization auth = BasicAuthorization.parse(header);
+            if (auth == null) {
+                return;
+            }
+            List<Credentials> found = em.createNamedQuery("Credentials.findUser", Credentials.class)
+                    .setParameter("username", auth.getUsername())
+                    .getResultList();
+            if (found.isEmpty()) {
+                cache.reject(cacheKey, auth.getUsername(), AuthOutcome.UNKNOWN_USER);
+                return;
+            }
+            try {
+                if (!hasher.matches(auth.getPassword(), found.get(0).getPassword())) {
+                    cache.reject(cacheKey, auth.getUsername(), AuthOutcome.WRONG_PASSWORD);
+                    return;
+                }
+            } catch(@SuppressWarnings("unused") RejectedExecutionException e) {
+                return;
+            }
+            username = found.get(0).getUsername();
+            cache.put(cacheKey, username);
         }
+        authenticate(requestCtx, username, SecurityContext.BASIC_AUTH);
+    }
+
+    private static void authenticate(ContainerRequestContext requestCtx, String username, String scheme) {
+        requestCtx.setSecurityContext(new AuthenticatedUser(username, scheme,
+                requestCtx.getSecurityContext().isSecure()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package authn;
+
+/**
+ * Evento CDI que TokenService lanza con cada revocación pedida por un
+ * cliente, para apuntarla en CHANGE_LOG y que los demás nodos la apliquen
+ * (ver ChangeLogPoller). Sin jti se revocan todos los tokens del usuario.
+ *
+ * Se lanza dentro de la transacción de TokenService.revoke(); las
+ * revocaciones que llegan de otros nodos o de CredentialsChanged no lo
+ * lanzan.
+ */
+public class TokenRevoked {
+    private final String username;
+    private final String jti;
+    private final long expiresAt;
+
+    public TokenRevoked(String username, String jti, long expiresAt) {
+        this.username = username;
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return el id del token revocado, o null si se revocan todos los del usuario
+     */
+    public String getJti() {
+        return jti;
+    }
+
+    /**
+     * Caducidad del token revocado, en milisegundos epoch
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
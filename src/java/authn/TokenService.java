@@ -0,0 +1,236 @@
+package authn;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Tokens Bearer firmados con HMAC-SHA256, verificados solo en memoria.
+ *
+ * Formato: base64url("kid:username:exp:jti") + "." + base64url(firma)
+ *
+ * La clave de firma se deriva de un secreto maestro y del periodo de
+ * rotación actual (kid), así todos los nodos con el mismo secreto
+ * ("homework1.token.secret") calculan las mismas claves sin coordinarse.
+ * Se aceptan la clave actual y la anterior durante OVERLAP_MILLIS.
+ * Las revocaciones (por token o por usuario) se comprueban con un get()
+ * en un ConcurrentHashMap. Las que pide un cliente se anuncian con
+ * TokenRevoked para que ChangeLogWriter las apunte en CHANGE_LOG, y
+ * ChangeLogPoller aplica las de otros nodos con revokeToken/revokeUser.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class TokenService {
+    public static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long ROTATION_MILLIS = TimeUnit.HOURS.toMillis(6);
+    private static final long OVERLAP_MILLIS = TTL_MILLIS;
+    private static final int MAX_REVOKED = 10000;
+    private static final String HMAC = "HmacSHA256";
+
+    @Inject
+    private Event<TokenRevoked> revocations;
+
+    private byte[] masterSecret;
+    private final Map<Long, SecretKeySpec> keys = new ConcurrentHashMap<>();
+    // jti -> expiración del token revocado
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // username -> instante antes del cual sus tokens ya no son válidos
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        String secret = System.getProperty("homework1.token.secret");
+        if (secret != null && !secret.isEmpty()) {
+            masterSecret = secret.getBytes(StandardCharsets.UTF_8);
+        } else {
+            masterSecret = new byte[32];
+            new SecureRandom().nextBytes(masterSecret);
+            System.out.println("  TokenService: sin homework1.token.secret, los tokens solo valen en este nodo");
+        }
+    }
+
+    /**
+     * Emite un token para un usuario ya verificado contra Credentials
+     */
+    public String issue(String username) {
+        long now = System.currentTimeMillis();
+        long kid = now / ROTATION_MILLIS;
+        String payload = kid + ":" + username + ":" + (now + TTL_MILLIS) + ":" + UUID.randomUUID();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        return b64.encodeToString(payloadBytes) + "." + b64.encodeToString(sign(kid, payloadBytes));
+    }
+
+    /**
+     * @return el usuario del token, o null si la firma, la clave,
+     * la caducidad o las revocaciones no lo permiten
+     */
+    public String verify(String token) {
+        Claims claims = parse(token);
+        if (claims == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        long currentKid = now / ROTATION_MILLIS;
+        boolean keyAccepted = claims.kid == currentKid
+                || (claims.kid == currentKid - 1 && now - currentKid * ROTATION_MILLIS < OVERLAP_MILLIS);
+        if (!keyAccepted || claims.expiresAt <= now) {
+            return null;
+        }
+        if (revokedTokens.containsKey(claims.jti)) {
+            return null;
+        }
+        Long notBefore = revokedUsers.get(claims.username);
+        if (notBefore != null && claims.expiresAt - TTL_MILLIS < notBefore) {
+            return null;
+        }
+        return claims.username;
+    }
+
+    /**
+     * Revoca un token concreto hasta que caduque. Si la lista está llena
+     * aun sin los caducados, se revocan todos los tokens del usuario: un
+     * cliente no puede llenarla y dejar a los demás sin cerrar sesión.
+     *
+     * @return false si el token no es válido
+     */
+    public boolean revoke(String token) {
+        Claims claims = parse(token);
+        if (claims == null) {
+            return false;
+        }
+        if (revokedTokens.size() >= MAX_REVOKED) {
+            long now = System.currentTimeMillis();
+            revokedTokens.values().removeIf(exp -> exp <= now);
+        }
+        if (revokedTokens.size() >= MAX_REVOKED) {
+            revocations.fire(new TokenRevoked(claims.username, null, claims.expiresAt));
+            revokeUser(claims.username);
+        } else {
+            revocations.fire(new TokenRevoked(claims.username, claims.jti, claims.expiresAt));
+            revokedTokens.put(claims.jti, claims.expiresAt);
+        }
+        return true;
+    }
+
+    /**
+     * Revoca un token de otro nodo hasta que caduque. No mira MAX_REVOKED:
+     * cada nodo ya limita las que apunta en CHANGE_LOG.
+     */
+    public void revokeToken(String jti, long expiresAt) {
+        if (expiresAt > System.currentTimeMillis()) {
+            revokedTokens.put(jti, expiresAt);
+        }
+    }
+
+    /**
+     * Invalida todos los tokens emitidos hasta ahora para un usuario
+     */
+    public void revokeUser(String username) {
+        revokedUsers.put(username, System.currentTimeMillis());
+    }
+
+    /**
+     * Un usuario modificado o borrado pierde sus tokens, también con el
+     * nombre anterior si se ha renombrado
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) CredentialsChanged change) {
+        revokeUser(change.getPreviousUsername());
+        revokeUser(change.getUsername());
+    }
+
+    @Schedule(minute = "*/5", hour = "*", persistent = false)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(exp -> exp <= now);
+        revokedUsers.values().removeIf(notBefore -> notBefore + TTL_MILLIS <= now);
+        Iterator<Long> it = keys.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next() < now / ROTATION_MILLIS - 1) {
+                it.remove();
+            }
+        }
+    }
+
+    private Claims parse(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        try {
+            Base64.Decoder b64 = Base64.getUrlDecoder();
+            byte[] payloadBytes = b64.decode(token.substring(0, dot));
+            byte[] signature = b64.decode(token.substring(dot + 1));
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) {
+                return null;
+            }
+            long kid = Long.parseLong(parts[0]);
+            long currentKid = System.currentTimeMillis() / ROTATION_MILLIS;
+            if (kid != currentKid && kid != currentKid - 1) {
+                return null;
+            }
+            if (!MessageDigest.isEqual(sign(kid, payloadBytes), signature)) {
+                return null;
+            }
+            return new Claims(kid, parts[1], Long.parseLong(parts[2]), parts[3]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(long kid, byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(keys.computeIfAbsent(kid, this::deriveKey));
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private SecretKeySpec deriveKey(long kid) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(masterSecret, HMAC));
+            return new SecretKeySpec(mac.doFinal(("token-key:" + kid).getBytes(StandardCharsets.UTF_8)), HMAC);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Claims {
+        final long kid;
+        final String username;
+        final long expiresAt;
+        final String jti;
+
+        Claims(long kid, String username, long expiresAt, String jti) {
+            this.kid = kid;
+            this.username = username;
+            this.expiresAt = expiresAt;
+            this.jti = jti;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package cbor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor CBOR (RFC 8949) en streaming, sin construir el árbol: cada
+ * llamada codifica directamente en un buffer que se vuelca a la salida.
+ *
+ * Los objetos van como mapas de longitud indefinida, porque los campos null
+ * no se escriben; las listas, con su longitud. Todo el documento es un
+ * espacio de nombres stringref (tags 256 y 25, http://cbor.schmorp.de/stringref):
+ * la segunda vez que aparece una cadena (un nombre de campo, un provider,
+ * una capability) se escribe solo su índice en la tabla.
+ */
+public final class CborGenerator {
+    static final int MAJOR_UNSIGNED = 0;
+    static final int MAJOR_NEGATIVE = 1;
+    static final int MAJOR_BYTES = 2;
+    static final int MAJOR_TEXT = 3;
+    static final int MAJOR_ARRAY = 4;
+    static final int MAJOR_MAP = 5;
+    static final int MAJOR_TAG = 6;
+
+    static final int TAG_EPOCH = 1;
+    static final int TAG_STRINGREF = 25;
+    static final int TAG_STRINGREF_NAMESPACE = 256;
+
+    static final int INDEFINITE = 31;
+    static final int FALSE = 0xf4;
+    static final int TRUE = 0xf5;
+    static final int NULL = 0xf6;
+    static final int FLOAT64 = 0xfb;
+    static final int BREAK = 0xff;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    public CborGenerator(OutputStream out) {
+        this.out = out;
+        writeHead(MAJOR_TAG, TAG_STRINGREF_NAMESPACE);
+    }
+
+    /**
+     * Longitud mínima en bytes para que una cadena entre en la tabla cuando
+     * ya tiene size entradas: la que hace que la referencia sea más corta.
+     */
+    static int minReferenced(int size) {
+        if (size < 24) {
+            return 3;
+        }
+        if (size < 256) {
+            return 4;
+        }
+        if (size < 65536) {
+            return 5;
+        }
+        return 7;
+    }
+
+    public CborGenerator writeStartObject() {
+        write(MAJOR_MAP << 5 | INDEFINITE);
+        return this;
+    }
+
+    public CborGenerator writeStartObject(String name) {
+        return writeString(name).writeStartObject();
+    }
+
+    public CborGenerator writeStartArray(int size) {
+        writeHead(MAJOR_ARRAY, size);
+        return this;
+    }
+
+    /**
+     * Cierra el último writeStartObject
+     */
+    public CborGenerator writeEnd() {
+        write(BREAK);
+        return this;
+    }
+
+    public CborGenerator writeString(String value) {
+        if (value == null) {
+            return writeNull();
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeHead(MAJOR_TAG, TAG_STRINGREF);
+            writeHead(MAJOR_UNSIGNED, index);
+            return this;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= minReferenced(strings.size())) {
+            strings.put(value, strings.size());
+        }
+        writeHead(MAJOR_TEXT, utf8.length);
+        write(utf8, 0, utf8.length);
+        return this;
+    }
+
+    public CborGenerator writeLong(long value) {
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value);
+        } else {
+            writeHead(MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    public CborGenerator writeBoolean(boolean value) {
+        write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public CborGenerator writeNull() {
+        write(NULL);
+        return this;
+    }
+
+    /**
+     * Fecha como tag 1: segundos desde 1970, con decimales si hay milisegundos
+     */
+    public CborGenerator writeDate(Date value) {
+        long millis = value.getTime();
+        writeHead(MAJOR_TAG, TAG_EPOCH);
+        if (millis % 1000 == 0) {
+            return writeLong(millis / 1000);
+        }
+        write(FLOAT64);
+        long bits = Double.doubleToLongBits(millis / 1000.0);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            write((int) (bits >>> shift));
+        }
+        return this;
+    }
+
+    // campos de un objeto: como en EntityJson, los null no se escriben
+
+    public CborGenerator write(String name, String value) {
+        if (value != null) {
+            writeString(name).writeString(value);
+        }
+        return this;
+    }
+
+    public CborGenerator write(String name, Long value) {
+        if (value != null) {
+            writeString(name).writeLong(value);
+        }
+        return this;
+    }
+
+    public CborGenerator write(String name, Integer value) {
+        if (value != null) {
+            writeString(name).writeLong(value);
+        }
+        return this;
+    }
+
+    public CborGenerator write(String name, boolean value) {
+        return writeString(name).writeBoolean(value);
+    }
+
+    public CborGenerator write(String name, Date value) {
+        if (value != null) {
+            writeString(name).writeDate(value);
+        }
+        return this;
+    }
+
+    public CborGenerator write(String name, List<String> values) {
+        if (values != null) {
+            writeString(name).writeStartArray(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    private void writeHead(int major, long argument) {
+        int type = major << 5;
+        if (argument < 24) {
+            write(type | (int) argument);
+        } else if (argument < 0x100) {
+            write(type | 24);
+            write((int) argument);
+        } else if (argument < 0x10000) {
+            write(type | 25);
+            write((int) (argument >>> 8));
+            write((int) argument);
+        } else if (argument < 0x100000000L) {
+            write(type | 26);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                write((int) (argument >>> shift));
+            }
+        } else {
+            write(type | 27);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                write((int) (argument >>> shift));
+            }
+        }
+    }
+
+    private void write(int b) {
+        if (position == BUFFER_SIZE) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void write(byte[] bytes, int offset, int length) {
+        while (length > 0) {
+            if (position == BUFFER_SIZE) {
+                drain();
+            }
+            int chunk = Math.min(length, BUFFER_SIZE - position);
+            System.arraycopy(bytes, offset, buffer, position, chunk);
+            position += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void drain() {
+        try {
+            out.write(buffer, 0, position);
+            position = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
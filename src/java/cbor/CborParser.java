@@ -0,0 +1,336 @@
+package cbor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static cbor.CborGenerator.*;
+
+/**
+ * Lector CBOR en streaming para lo que escribe CborGenerator, sin construir
+ * el árbol: quien lo usa va pidiendo cada valor con el tipo que espera.
+ *
+ * Acepta mapas y arrays de longitud definida o indefinida, y cadenas
+ * stringref (tags 256 y 25). Los errores de formato son
+ * IllegalArgumentException, también un anidamiento de más de MAX_DEPTH
+ * niveles en lo que se salta, para que no se agote la pila.
+ */
+public final class CborParser {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_STRING_BYTES = 1 << 20;
+    private static final int MAX_DEPTH = 64;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private List<String> strings;
+
+    public CborParser(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @return número de entradas, o -1 si el mapa es de longitud indefinida
+     *         (hay que preguntar con hasNext)
+     */
+    public long readStartObject() throws IOException {
+        return readContainer(MAJOR_MAP, "object");
+    }
+
+    /**
+     * @return número de elementos, o -1 si es de longitud indefinida
+     */
+    public long readStartArray() throws IOException {
+        return readContainer(MAJOR_ARRAY, "array");
+    }
+
+    /**
+     * Para mapas y arrays de longitud indefinida: false, y consume el
+     * final, si no quedan entradas
+     */
+    public boolean hasNext() throws IOException {
+        if (peek() == BREAK) {
+            position++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Clave de un mapa: una cadena no nula
+     */
+    public String readName() throws IOException {
+        String name = readString();
+        if (name == null) {
+            throw new IllegalArgumentException("CBOR map key must be a string");
+        }
+        return name;
+    }
+
+    public String readString() throws IOException {
+        int initial = readTags();
+        if (initial == NULL) {
+            return null;
+        }
+        if (initial == -TAG_STRINGREF) {
+            long index = readArgument(readByte(), MAJOR_UNSIGNED, "string reference");
+            if (strings == null || index >= strings.size()) {
+                throw new IllegalArgumentException("Unknown CBOR string reference " + index);
+            }
+            return strings.get((int) index);
+        }
+        long length = readArgument(initial, MAJOR_TEXT, "string");
+        if (length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("CBOR string too long");
+        }
+        byte[] utf8 = new byte[(int) length];
+        readFully(utf8);
+        String value = new String(utf8, StandardCharsets.UTF_8);
+        if (strings != null && utf8.length >= minReferenced(strings.size())) {
+            strings.add(value);
+        }
+        return value;
+    }
+
+    public Long readLong() throws IOException {
+        int initial = readTags();
+        if (initial == NULL) {
+            return null;
+        }
+        if (initial >>> 5 == MAJOR_NEGATIVE) {
+            return -1 - readArgument(initial, MAJOR_NEGATIVE, "integer");
+        }
+        return readArgument(initial, MAJOR_UNSIGNED, "integer");
+    }
+
+    public Integer readInt() throws IOException {
+        Long value = readLong();
+        if (value != null && (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)) {
+            throw new IllegalArgumentException("CBOR integer out of range");
+        }
+        return value != null ? value.intValue() : null;
+    }
+
+    public boolean readBoolean() throws IOException {
+        int initial = readTags();
+        if (initial == TRUE) {
+            return true;
+        }
+        if (initial == FALSE) {
+            return false;
+        }
+        throw unexpected(initial, "boolean");
+    }
+
+    /**
+     * Fecha como tag 1 (segundos desde 1970, enteros o double)
+     */
+    public Date readDate() throws IOException {
+        int initial = readTags();
+        if (initial == NULL) {
+            return null;
+        }
+        if (initial != -TAG_EPOCH) {
+            throw unexpected(initial, "date");
+        }
+        initial = readByte();
+        if (initial == FLOAT64) {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = bits << 8 | readByte();
+            }
+            return new Date(Math.round(Double.longBitsToDouble(bits) * 1000));
+        }
+        if (initial >>> 5 == MAJOR_NEGATIVE) {
+            return new Date((-1 - readArgument(initial, MAJOR_NEGATIVE, "date")) * 1000);
+        }
+        return new Date(readArgument(initial, MAJOR_UNSIGNED, "date") * 1000);
+    }
+
+    public List<String> readStrings() throws IOException {
+        if (peek() == NULL) {
+            position++;
+            return null;
+        }
+        long size = readStartArray();
+        List<String> values = new ArrayList<>(size >= 0 ? (int) Math.min(size, 64) : 8);
+        for (long i = 0; size < 0 ? hasNext() : i < size; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    /**
+     * Salta un valor completo de cualquier tipo (p. ej. un campo desconocido)
+     */
+    public void skipValue() throws IOException {
+        skipValue(0);
+    }
+
+    private void skipValue(int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("CBOR nesting too deep");
+        }
+        int initial = readTags();
+        if (initial == -TAG_STRINGREF || initial == -TAG_EPOCH) {
+            skipValue(depth + 1);
+            return;
+        }
+        int major = initial >>> 5;
+        int info = initial & 0x1f;
+        switch (major) {
+            case MAJOR_UNSIGNED:
+            case MAJOR_NEGATIVE:
+                readArgument(initial, major, "integer");
+                return;
+            case MAJOR_BYTES:
+            case MAJOR_TEXT:
+                if (info == INDEFINITE) {
+                    while (hasNext()) {
+                        skipValue(depth + 1);
+                    }
+                } else {
+                    long length = readArgument(initial, major, "string");
+                    if (strings != null && length >= minReferenced(strings.size())) {
+                        // la tabla tiene que seguir igual que la del escritor
+                        if (length > MAX_STRING_BYTES) {
+                            throw new IllegalArgumentException("CBOR string too long");
+                        }
+                        byte[] bytes = new byte[(int) length];
+                        readFully(bytes);
+                        strings.add(new String(bytes, major == MAJOR_TEXT
+                                ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1));
+                    } else {
+                        skipBytes(length);
+                    }
+                }
+                return;
+            case MAJOR_ARRAY:
+            case MAJOR_MAP:
+                long items = info == INDEFINITE ? -1 : readArgument(initial, major, "container");
+                int perItem = major == MAJOR_MAP ? 2 : 1;
+                for (long i = 0; items < 0 ? hasNext() : i < items; i++) {
+                    for (int j = 0; j < perItem; j++) {
+                        skipValue(depth + 1);
+                    }
+                }
+                return;
+            default:
+                if (info == 24) {
+                    readByte();
+                } else if (info >= 25 && info <= 27) {
+                    skipBytes(1L << (info - 24));
+                } else if (info > 27) {
+                    throw unexpected(initial, "value");
+                }
+        }
+    }
+
+    private long readContainer(int major, String what) throws IOException {
+        int initial = readTags();
+        if (initial == (major << 5 | INDEFINITE)) {
+            return -1;
+        }
+        return readArgument(initial, major, what);
+    }
+
+    /**
+     * Lee el byte inicial del siguiente valor. Los tags 256 abren la tabla
+     * de cadenas y se consumen aquí; los tags 1 y 25 se devuelven en negativo
+     * para que los trate quien llama, y el resto se ignoran.
+     */
+    private int readTags() throws IOException {
+        while (true) {
+            int initial = readByte();
+            if (initial >>> 5 != MAJOR_TAG) {
+                return initial;
+            }
+            long tag = readArgument(initial, MAJOR_TAG, "tag");
+            if (tag == TAG_STRINGREF_NAMESPACE) {
+                strings = new ArrayList<>();
+            } else if (tag == TAG_STRINGREF || tag == TAG_EPOCH) {
+                return (int) -tag;
+            }
+        }
+    }
+
+    private long readArgument(int initial, int major, String what) throws IOException {
+        if (initial < 0 || initial >>> 5 != major) {
+            throw unexpected(initial, what);
+        }
+        int info = initial & 0x1f;
+        if (info < 24) {
+            return info;
+        }
+        if (info > 27) {
+            throw unexpected(initial, what);
+        }
+        int bytes = 1 << (info - 24);
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = value << 8 | readByte();
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("CBOR " + what + " out of range");
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException unexpected(int initial, String what) {
+        return new IllegalArgumentException(initial < 0
+                ? "Unexpected CBOR tag " + -initial + ", expected " + what
+                : "Unexpected CBOR byte 0x" + Integer.toHexString(initial) + ", expected " + what);
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("Truncated CBOR");
+        }
+        return buffer[position] & 0xff;
+    }
+
+    private int readByte() throws IOException {
+        int b = peek();
+        position++;
+        return b;
+    }
+
+    private void readFully(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (position == limit && !fill()) {
+                throw new EOFException("Truncated CBOR");
+            }
+            int chunk = Math.min(bytes.length - offset, limit - position);
+            System.arraycopy(buffer, position, bytes, offset, chunk);
+            position += chunk;
+            offset += chunk;
+        }
+    }
+
+    private void skipBytes(long count) throws IOException {
+        while (count > 0) {
+            if (position == limit && !fill()) {
+                throw new EOFException("Truncated CBOR");
+            }
+            int chunk = (int) Math.min(count, limit - position);
+            position += chunk;
+            count -= chunk;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, BUFFER_SIZE);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package cbor;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import model.entities.Comment;
+import model.entities.Customer;
+import model.entities.Model;
+import model.entities.Topic;
+import service.ErrorResponse;
+import service.ModelSummary;
+
+/**
+ * application/cbor para Model, ModelSummary, Customer, Comment y Topic, y
+ * para listas de ellos. Se elige con Accept (o Content-Type al leer), como
+ * JSON y XML.
+ *
+ * Escribe directamente en la salida con CborGenerator: las cadenas repetidas
+ * (nombres de campo, provider, capabilities, tipos de entrada y salida) se
+ * envían una vez y después por índice. Al leer solo se aceptan entidades
+ * sueltas; un cuerpo mal formado es 400.
+ */
+@Provider
+@Produces(CborProvider.APPLICATION_CBOR)
+@Consumes(CborProvider.APPLICATION_CBOR)
+public class CborProvider implements MessageBodyWriter<Object>, MessageBodyReader<Object> {
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        if (isEntity(type)) {
+            return true;
+        }
+        if (!Collection.class.isAssignableFrom(type) || !(genericType instanceof ParameterizedType)) {
+            return false;
+        }
+        Type item = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+        return item instanceof Class && isEntity((Class<?>) item);
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException {
+        CborGenerator g = new CborGenerator(entityStream);
+        try {
+            if (entity instanceof Collection) {
+                Collection<?> items = (Collection<?>) entity;
+                g.writeStartArray(items.size());
+                for (Object item : items) {
+                    write(g, item);
+                }
+            } else {
+                write(g, entity);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        g.flush();
+    }
+
+    private static void write(CborGenerator g, Object entity) {
+        if (entity instanceof Model) {
+            EntityCbor.write(g, (Model) entity);
+        } else if (entity instanceof ModelSummary) {
+            EntityCbor.write(g, (ModelSummary) entity);
+        } else if (entity instanceof Customer) {
+            EntityCbor.write(g, (Customer) entity);
+        } else if (entity instanceof Comment) {
+            EntityCbor.write(g, (Comment) entity);
+        } else if (entity instanceof Topic) {
+            EntityCbor.write(g, (Topic) entity);
+        } else {
+            g.writeNull();
+        }
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == Model.class || type == Customer.class || type == Comment.class || type == Topic.class;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        CborParser p = new CborParser(entityStream);
+        try {
+            if (Model.class.equals(type)) {
+                return EntityCbor.readModel(p);
+            }
+            if (Customer.class.equals(type)) {
+                return EntityCbor.readCustomer(p);
+            }
+            if (Comment.class.equals(type)) {
+                return EntityCbor.readComment(p);
+            }
+            return EntityCbor.readTopic(p);
+        } catch (IllegalArgumentException | EOFException e) {
+            throw new WebApplicationException(ErrorResponse.of(Response.Status.BAD_REQUEST,
+                    "Invalid CBOR body: " + e.getMessage())
+                    .build());
+        }
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return type == Model.class || type == ModelSummary.class || type == Customer.class
+                || type == Comment.class || type == Topic.class;
+    }
+}
@@ -0,0 +1,228 @@
+package cbor;
+
+import java.io.IOException;
+import model.entities.Comment;
+import model.entities.Customer;
+import model.entities.Model;
+import model.entities.Topic;
+import service.ModelSummary;
+
+/**
+ * Serialización CBOR de las entidades sobre CborGenerator y CborParser,
+ * campo a campo como EntityJson y con los mismos nombres de propiedad.
+ *
+ * Al leer se ignoran los campos desconocidos, igual que con JSON-B.
+ */
+public final class EntityCbor {
+
+    private EntityCbor() {
+    }
+
+    public static void write(CborGenerator g, Model m) {
+        g.writeStartObject();
+        g.write("id", m.getId());
+        g.write("version", m.getVersion());
+        g.write("name", m.getName());
+        g.write("provider", m.getProvider());
+        g.write("summary", m.getSummary());
+        g.write("description", m.getDescription());
+        g.write("capabilities", m.getCapabilities());
+        g.write("license", m.getLicense());
+        g.write("maxContextTokens", m.getMaxContextTokens());
+        g.write("inputTypes", m.getInputTypes());
+        g.write("outputTypes", m.getOutputTypes());
+        g.write("isPrivate", m.isPrivate());
+        g.write("logoUrl", m.getLogoUrl());
+        g.write("lastVersion", m.getLastVersion());
+        g.write("trainingDate", m.getTrainingDate());
+        g.write("lastUpdateDate", m.getLastUpdateDate());
+        g.write("versions", m.getVersions());
+        g.writeEnd();
+    }
+
+    public static void write(CborGenerator g, ModelSummary m) {
+        g.writeStartObject();
+        g.write("id", m.getId());
+        g.write("name", m.getName());
+        g.write("provider", m.getProvider());
+        g.write("summary", m.getSummary());
+        g.write("isPrivate", m.isPrivate());
+        g.writeEnd();
+    }
+
+    public static void write(CborGenerator g, Customer c) {
+        g.writeStartObject();
+        g.write("id", c.getId());
+        g.write("version", c.getVersion());
+        g.write("username", c.getUsername());
+        g.write("displayName", c.getDisplayName());
+        g.write("email", c.getEmail());
+        g.write("lastViewedModelId", c.getLastViewedModelId());
+        g.writeEnd();
+    }
+
+    public static void write(CborGenerator g, Comment c) {
+        g.writeStartObject();
+        g.write("id", c.getId());
+        g.write("message", c.getMessage());
+        if (c.getTopic() != null) {
+            g.writeStartObject("topic");
+            g.write("id", c.getTopic().getId());
+            g.write("name", c.getTopic().getName());
+            g.writeEnd();
+        }
+        g.writeEnd();
+    }
+
+    public static void write(CborGenerator g, Topic t) {
+        g.writeStartObject();
+        g.write("id", t.getId());
+        g.write("name", t.getName());
+        g.writeEnd();
+    }
+
+    public static Model readModel(CborParser p) throws IOException {
+        Model m = new Model();
+        long size = p.readStartObject();
+        for (long i = 0; size < 0 ? p.hasNext() : i < size; i++) {
+            String name = p.readName();
+            switch (name) {
+                case "id":
+                    m.setId(p.readLong());
+                    break;
+                case "version":
+                    m.setVersion(p.readLong());
+                    break;
+                case "name":
+                    m.setName(p.readString());
+                    break;
+                case "provider":
+                    m.setProvider(p.readString());
+                    break;
+                case "summary":
+                    m.setSummary(p.readString());
+                    break;
+                case "description":
+                    m.setDescription(p.readString());
+                    break;
+                case "capabilities":
+                    m.setCapabilities(p.readStrings());
+                    break;
+                case "license":
+                    m.setLicense(p.readString());
+                    break;
+                case "maxContextTokens":
+                    m.setMaxContextTokens(p.readInt());
+                    break;
+                case "inputTypes":
+                    m.setInputTypes(p.readStrings());
+                    break;
+                case "outputTypes":
+                    m.setOutputTypes(p.readStrings());
+                    break;
+                case "isPrivate":
+                    m.setPrivate(p.readBoolean());
+                    break;
+                case "logoUrl":
+                    m.setLogoUrl(p.readString());
+                    break;
+                case "lastVersion":
+                    m.setLastVersion(p.readString());
+                    break;
+                case "trainingDate":
+                    m.setTrainingDate(p.readDate());
+                    break;
+                case "lastUpdateDate":
+                    m.setLastUpdateDate(p.readDate());
+                    break;
+                case "versions":
+                    m.setVersions(p.readStrings());
+                    break;
+                default:
+                    p.skipValue();
+            }
+        }
+        return m;
+    }
+
+    /**
+     * lastViewedModelId llega como un Model con solo el id, igual que
+     * {"lastViewedModel": {"id": ...}} en JSON
+     */
+    public static Customer readCustomer(CborParser p) throws IOException {
+        Customer c = new Customer();
+        long size = p.readStartObject();
+        for (long i = 0; size < 0 ? p.hasNext() : i < size; i++) {
+            String name = p.readName();
+            switch (name) {
+                case "id":
+                    c.setId(p.readLong());
+                    break;
+                case "version":
+                    c.setVersion(p.readLong());
+                    break;
+                case "username":
+                    c.setUsername(p.readString());
+                    break;
+                case "displayName":
+                    c.setDisplayName(p.readString());
+                    break;
+                case "email":
+                    c.setEmail(p.readString());
+                    break;
+                case "lastViewedModelId":
+                    Long modelId = p.readLong();
+                    if (modelId != null) {
+                        Model model = new Model();
+                        model.setId(modelId);
+                        c.setLastViewedModel(model);
+                    }
+                    break;
+                default:
+                    p.skipValue();
+            }
+        }
+        return c;
+    }
+
+    public static Comment readComment(CborParser p) throws IOException {
+        Comment c = new Comment();
+        long size = p.readStartObject();
+        for (long i = 0; size < 0 ? p.hasNext() : i < size; i++) {
+            String name = p.readName();
+            switch (name) {
+                case "id":
+                    c.setId(p.readLong());
+                    break;
+                case "message":
+                    c.setMessage(p.readString());
+                    break;
+                case "topic":
+                    c.setTopic(readTopic(p));
+                    break;
+                default:
+                    p.skipValue();
+            }
+        }
+        return c;
+    }
+
+    public static Topic readTopic(CborParser p) throws IOException {
+        Topic t = new Topic();
+        long size = p.readStartObject();
+        for (long i = 0; size < 0 ? p.hasNext() : i < size; i++) {
+            String name = p.readName();
+            switch (name) {
+                case "id":
+                    t.setId(p.readLong());
+                    break;
+                case "name":
+                    t.setName(p.readString());
+                    break;
+                default:
+                    p.skipValue();
+            }
+        }
+        return t;
+    }
+}
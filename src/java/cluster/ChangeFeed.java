@@ -0,0 +1,137 @@
+package cluster;
+
+import jakarta.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cambios de un tipo de entidad a partir de una posición de CHANGE_LOG,
+ * para clientes que mantienen una copia y solo piden lo nuevo.
+ *
+ * El token es opaco: base64url de "id|emitido", con el id de CHANGE_LOG
+ * hasta el que el cliente está al día y cuándo se emitió. El siguiente
+ * token nunca salta un hueco reciente (una transacción que aún puede
+ * confirmar con un id menor): se queda justo antes, y lo que venga detrás
+ * se vuelve a enviar en la próxima petición. Como en ChangeLogPoller, un
+ * hueco de más de GAP_GRACE_MILLIS se da por deshecho. Mientras un hueco
+ * impide llegar al final de la página, isMore() es false: pedir enseguida
+ * devolvería lo mismo, el cliente tiene que esperar a su siguiente sondeo.
+ *
+ * CHANGE_LOG se purga a la hora, así que un token más viejo que eso ya no
+ * se puede servir: IllegalStateException, y el cliente tiene que volver a
+ * cargarlo todo.
+ */
+public final class ChangeFeed {
+    private static final long TOKEN_TTL_MILLIS =
+            ChangeLogPoller.RETENTION_MILLIS - ChangeLogPoller.GAP_GRACE_MILLIS;
+
+    private final List<ChangeLogEntry> entries;
+    private final String next;
+    private final boolean more;
+
+    private ChangeFeed(List<ChangeLogEntry> entries, long next, boolean more) {
+        this.entries = entries;
+        this.next = encode(next);
+        this.more = more;
+    }
+
+    /**
+     * @param token devuelto en una petición anterior, o null para empezar:
+     *        sin cambios, solo el token actual (se pide antes de la carga
+     *        completa, para no perder lo que cambie entretanto)
+     * @param limit máximo de entradas; si hay más, isMore()
+     * @throws IllegalArgumentException si el token no es válido
+     * @throws IllegalStateException si el token ha caducado
+     */
+    public static ChangeFeed read(EntityManager em, String entityType, String token, int limit) {
+        if (token == null) {
+            return new ChangeFeed(Collections.<ChangeLogEntry>emptyList(), settled(em, 0L, maxId(em)), false);
+        }
+        long since = decode(token);
+        List<ChangeLogEntry> entries = em.createNamedQuery("ChangeLogEntry.afterOfType", ChangeLogEntry.class)
+                .setParameter("entityType", entityType)
+                .setParameter("after", since)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        boolean more = entries.size() > limit;
+        if (more) {
+            entries = entries.subList(0, limit);
+        }
+        // sin más páginas se avanza también sobre los cambios de otros tipos
+        long upTo = more ? entries.get(limit - 1).getId() : maxId(em);
+        long next = settled(em, since, upTo);
+        return new ChangeFeed(entries, next, more && next == upTo);
+    }
+
+    /**
+     * Última posición hasta upTo sin huecos recientes por delante
+     */
+    private static long settled(EntityManager em, long after, long upTo) {
+        if (upTo <= after) {
+            return after;
+        }
+        Long old = em.createNamedQuery("ChangeLogEntry.maxIdCreatedBefore", Long.class)
+                .setParameter("after", after)
+                .setParameter("upTo", upTo)
+                .setParameter("before", System.currentTimeMillis() - ChangeLogPoller.GAP_GRACE_MILLIS)
+                .getSingleResult();
+        long next = old != null ? old : after;
+        for (Long id : em.createNamedQuery("ChangeLogEntry.idsBetween", Long.class)
+                .setParameter("after", next)
+                .setParameter("upTo", upTo)
+                .getResultList()) {
+            if (id != next + 1) {
+                break;
+            }
+            next = id;
+        }
+        return next;
+    }
+
+    private static long maxId(EntityManager em) {
+        Long max = em.createNamedQuery("ChangeLogEntry.maxId", Long.class).getSingleResult();
+        return max != null ? max : 0L;
+    }
+
+    private static String encode(long position) {
+        String raw = position + "|" + System.currentTimeMillis();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decode(String token) {
+        String[] parts;
+        long position;
+        long issued;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            position = parts.length == 2 ? Long.parseLong(parts[0]) : -1;
+            issued = parts.length == 2 ? Long.parseLong(parts[1]) : 0;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+        if (position < 0) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+        if (System.currentTimeMillis() - issued > TOKEN_TTL_MILLIS) {
+            throw new IllegalStateException("Token expired, reload the full list");
+        }
+        return position;
+    }
+
+    /**
+     * Entradas en orden de id; una entidad puede aparecer varias veces
+     */
+    public List<ChangeLogEntry> getEntries() {
+        return entries;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+}
@@ -0,0 +1,162 @@
+package cluster;
+
+import java.io.Serializable;
+import jakarta.persistence.*;
+import service.EntityChanged;
+
+/**
+ * Fila de la tabla CHANGE_LOG: una por cada create/edit/remove hecho a
+ * través de AbstractFacade, escrita en la misma transacción que el cambio.
+ * También se apuntan los cambios de Credentials y las revocaciones de
+ * tokens (TOKEN, TOKEN_USER), que no son entidades: ver ChangeLogWriter.
+ *
+ * Los ids salen de una secuencia sin preasignación (allocationSize=1) para
+ * que sean casi consecutivos entre nodos: ChangeLogPoller trata los huecos
+ * como transacciones aún no confirmadas y los vuelve a pedir. Los mismos
+ * ids hacen de secuencia de cambios para la sincronización por deltas
+ * (ver ChangeFeed).
+ */
+@Entity
+@Table(name = "CHANGE_LOG", indexes = {
+    @Index(name = "change_log_created", columnList = "createdAt"),
+    @Index(name = "change_log_type", columnList = "entityType, id")
+})
+@NamedQueries({
+    @NamedQuery(
+        name = "ChangeLogEntry.maxId",
+        query = "SELECT MAX(e.id) FROM ChangeLogEntry e"
+    ),
+    @NamedQuery(
+        name = "ChangeLogEntry.maxIdCreatedBefore",
+        query = "SELECT MAX(e.id) FROM ChangeLogEntry e WHERE e.id > :after AND e.id <= :upTo AND e.createdAt < :before"
+    ),
+    @NamedQuery(
+        name = "ChangeLogEntry.idsBetween",
+        query = "SELECT e.id FROM ChangeLogEntry e WHERE e.id > :after AND e.id <= :upTo ORDER BY e.id"
+    ),
+    @NamedQuery(
+        name = "ChangeLogEntry.after",
+        query = "SELECT e FROM ChangeLogEntry e WHERE e.id > :after ORDER BY e.id"
+    ),
+    @NamedQuery(
+        name = "ChangeLogEntry.afterOrIn",
+        query = "SELECT e FROM ChangeLogEntry e WHERE e.id > :after OR e.id IN :ids ORDER BY e.id"
+    ),
+    @NamedQuery(
+        name = "ChangeLogEntry.afterOfType",
+        query = "SELECT e FROM ChangeLogEntry e WHERE e.entityType = :entityType AND e.id > :after ORDER BY e.id"
+    ),
+    @NamedQuery(
+        name = "ChangeLogEntry.purge",
+        query = "DELETE FROM ChangeLogEntry e WHERE e.createdAt < :before"
+    )
+})
+public class ChangeLogEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // entityType de un token revocado: entityId es su caducidad y detail su jti
+    static final String TOKEN = "Token";
+    // entityType de los tokens revocados de un usuario: detail es el username
+    static final String TOKEN_USER = "TokenUser";
+
+    @Id
+    @SequenceGenerator(name = "ChangeLog_Gen", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ChangeLog_Gen")
+    private Long id;
+
+    // nombre JPA de la entidad (Model, Customer, Comment...), TOKEN o TOKEN_USER
+    @Column(nullable = false, length = 64)
+    private String entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EntityChanged.Kind kind;
+
+    // id del padre por el que se cuenta la entidad (ver EntityCounters.parentOf)
+    private Long parentId;
+
+    // dato que ya no se puede leer de la entidad: el username anterior en
+    // Credentials, el jti o el username en las revocaciones
+    @Column(length = 255)
+    private String detail;
+
+    // nodo que hizo el cambio, para no procesar los propios
+    @Column(nullable = false, length = 64)
+    private String origin;
+
+    // milisegundos epoch del nodo de origen; solo se usa para purgar
+    private long createdAt;
+
+    public ChangeLogEntry() {
+    }
+
+    public ChangeLogEntry(String entityType, Long entityId, EntityChanged.Kind kind, Long parentId,
+            String origin) {
+        this(entityType, entityId, kind, parentId, null, origin);
+    }
+
+    public ChangeLogEntry(String entityType, Long entityId, EntityChanged.Kind kind, Long parentId,
+            String detail, String origin) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.kind = kind;
+        this.parentId = parentId;
+        this.detail = detail;
+        this.origin = origin;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public EntityChanged.Kind getKind() {
+        return kind;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof ChangeLogEntry)) {
+            return false;
+        }
+        ChangeLogEntry other = (ChangeLogEntry) object;
+        return id != null && id.equals(other.id);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeLogEntry[ id=" + id + ", " + kind + " " + entityType + "#" + entityId + " ]";
+    }
+}
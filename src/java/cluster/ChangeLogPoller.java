@@ -0,0 +1,196 @@
+package cluster;
+
+import authn.Credentials;
+import authn.CredentialsCache;
+import authn.TokenService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import service.EntityChanged;
+
+/**
+ * Sigue la tabla CHANGE_LOG para enterarse de lo que escriben los demás
+ * nodos que comparten la base de datos.
+ *
+ * Por cada entrada de otro nodo saca la entidad de la caché compartida de
+ * EclipseLink y lanza un EntityChanged remoto con el estado recién leído,
+ * para que las cachés en memoria (ModelIndex, etc.) se actualicen igual que
+ * con un cambio local. Si la entidad ya no existe, el evento es DELETED
+ * aunque la entrada diga otra cosa (ver EntityChanged.getLoggedKind). Las
+ * entradas propias solo avanzan la marca de agua.
+ *
+ * Las de Credentials y las revocaciones de tokens no lanzan EntityChanged:
+ * invalidan CredentialsCache y revocan en TokenService, como hacen en el
+ * nodo de origen CredentialsChanged y TokenService.revoke().
+ *
+ * Un id que falta entre dos leídos puede ser una transacción de otro nodo
+ * que aún no ha confirmado: se guarda como hueco y se vuelve a pedir hasta
+ * que aparece o pasa GAP_GRACE_MILLIS (rollback).
+ *
+ * Propiedades de sistema, para levantar dos instancias contra el mismo
+ * Derby de red: homework1.node.id (por defecto aleatorio) y
+ * homework1.changelog.pollMillis (por defecto 1000).
+ */
+@Singleton
+@Startup
+@DependsOn("DataInitializer")
+public class ChangeLogPoller {
+    public static final String NODE_ID = System.getProperty("homework1.node.id",
+            UUID.randomUUID().toString());
+
+    private static final long POLL_MILLIS = Long.getLong("homework1.changelog.pollMillis", 1000L);
+    static final long GAP_GRACE_MILLIS = 60 * 1000L;
+    private static final int MAX_GAPS = 1000;
+    private static final int BATCH_SIZE = 500;
+    static final long RETENTION_MILLIS = 60 * 60 * 1000L;
+    private static final long PURGE_EVERY_MILLIS = 5 * 60 * 1000L;
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @Resource
+    private TimerService timerService;
+
+    @Inject
+    private Event<EntityChanged> changes;
+
+    @EJB
+    private CredentialsCache credentials;
+
+    @EJB
+    private TokenService tokens;
+
+    private final Map<String, Class<?>> entityTypes = new HashMap<>();
+    // id del hueco -> cuándo se detectó
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long highWater;
+    private long lastPurge;
+    private long applied;
+
+    @PostConstruct
+    public void init() {
+        for (EntityType<?> type : em.getMetamodel().getEntities()) {
+            entityTypes.put(type.getName(), type.getJavaType());
+        }
+        // lo anterior al arranque ya está en la base de datos y las cachés empiezan vacías
+        Long max = em.createNamedQuery("ChangeLogEntry.maxId", Long.class).getSingleResult();
+        highWater = max != null ? max : 0L;
+        lastPurge = System.currentTimeMillis();
+        timerService.createIntervalTimer(POLL_MILLIS, POLL_MILLIS, new TimerConfig(null, false));
+        System.out.println("  ChangeLogPoller: nodo " + NODE_ID + ", desde el cambio " + highWater);
+    }
+
+    @Timeout
+    public void poll() {
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(noticed -> now - noticed > GAP_GRACE_MILLIS);
+
+        TypedQuery<ChangeLogEntry> query = gaps.isEmpty()
+                ? em.createNamedQuery("ChangeLogEntry.after", ChangeLogEntry.class)
+                : em.createNamedQuery("ChangeLogEntry.afterOrIn", ChangeLogEntry.class)
+                        .setParameter("ids", gaps.keySet());
+        List<ChangeLogEntry> entries = query.setParameter("after", highWater)
+                .setMaxResults(BATCH_SIZE)
+                .getResultList();
+
+        for (ChangeLogEntry entry : entries) {
+            if (!NODE_ID.equals(entry.getOrigin())) {
+                apply(entry);
+            }
+            long id = entry.getId();
+            if (id > highWater) {
+                for (long missing = highWater + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                highWater = id;
+            } else {
+                gaps.remove(id);
+            }
+        }
+
+        if (now - lastPurge > PURGE_EVERY_MILLIS) {
+            em.createNamedQuery("ChangeLogEntry.purge")
+                    .setParameter("before", now - RETENTION_MILLIS)
+                    .executeUpdate();
+            lastPurge = now;
+        }
+    }
+
+    private void apply(ChangeLogEntry entry) {
+        switch (entry.getEntityType()) {
+            case ChangeLogEntry.TOKEN:
+                tokens.revokeToken(entry.getDetail(), entry.getEntityId());
+                applied++;
+                return;
+            case ChangeLogEntry.TOKEN_USER:
+                tokens.revokeUser(entry.getDetail());
+                applied++;
+                return;
+            case "Credentials":
+                applyCredentials(entry);
+                applied++;
+                return;
+            default:
+                break;
+        }
+        Class<?> type = entityTypes.get(entry.getEntityType());
+        if (type == null) {
+            return;
+        }
+        Long id = entry.getEntityId();
+        em.getEntityManagerFactory().getCache().evict(type, id);
+        Object current = entry.getKind() == EntityChanged.Kind.DELETED ? null : em.find(type, id);
+        EntityChanged.Kind kind = current == null ? EntityChanged.Kind.DELETED : entry.getKind();
+        changes.fire(new EntityChanged(type, id, kind, current, entry.getKind(), entry.getParentId()));
+        applied++;
+    }
+
+    /**
+     * Olvida el usuario con el nombre anterior (detail) y con el actual, por
+     * si se ha renombrado
+     */
+    private void applyCredentials(ChangeLogEntry entry) {
+        em.getEntityManagerFactory().getCache().evict(Credentials.class, entry.getEntityId());
+        forgetUser(entry.getDetail());
+        Credentials current = entry.getKind() == EntityChanged.Kind.DELETED
+                ? null : em.find(Credentials.class, entry.getEntityId());
+        if (current != null && !current.getUsername().equals(entry.getDetail())) {
+            forgetUser(current.getUsername());
+        }
+    }
+
+    private void forgetUser(String username) {
+        if (username != null) {
+            credentials.invalidate(username);
+            tokens.revokeUser(username);
+        }
+    }
+
+    public long getHighWater() {
+        return highWater;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public int getPendingGaps() {
+        return gaps.size();
+    }
+}
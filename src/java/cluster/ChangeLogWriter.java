@@ -0,0 +1,57 @@
+package cluster;
+
+import authn.CredentialsChanged;
+import authn.TokenRevoked;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import service.EntityChanged;
+import service.EntityCounters;
+
+/**
+ * Apunta en CHANGE_LOG cada EntityChanged local, cada CredentialsChanged y
+ * cada TokenRevoked.
+ *
+ * EntityChanged y TokenRevoked se observan de forma síncrona: la fila del
+ * log se confirma o se deshace junto con el cambio. CredentialsChanged se
+ * lanza desde un callback de JPA, donde no se puede usar el EntityManager,
+ * así que se apunta en una transacción nueva después del commit; si el nodo
+ * cae justo entre medias, los demás no se enteran del cambio hasta que
+ * caduquen sus cachés.
+ */
+@Stateless
+public class ChangeLogWriter {
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    public void record(@Observes EntityChanged change) {
+        if (change.isRemote() || !(change.getId() instanceof Long)) {
+            return;
+        }
+        String entityType = em.getMetamodel().entity(change.getEntityType()).getName();
+        em.persist(new ChangeLogEntry(entityType, (Long) change.getId(), change.getKind(),
+                EntityCounters.parentOf(change.getEntity()), ChangeLogPoller.NODE_ID));
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void record(@Observes(during = TransactionPhase.AFTER_SUCCESS) CredentialsChanged change) {
+        EntityChanged.Kind kind = change.isRemoved() ? EntityChanged.Kind.DELETED : EntityChanged.Kind.UPDATED;
+        em.persist(new ChangeLogEntry("Credentials", change.getId(), kind, null,
+                change.getPreviousUsername(), ChangeLogPoller.NODE_ID));
+    }
+
+    public void record(@Observes TokenRevoked revocation) {
+        if (revocation.getJti() != null) {
+            em.persist(new ChangeLogEntry(ChangeLogEntry.TOKEN, revocation.getExpiresAt(),
+                    EntityChanged.Kind.DELETED, null, revocation.getJti(), ChangeLogPoller.NODE_ID));
+        } else {
+            em.persist(new ChangeLogEntry(ChangeLogEntry.TOKEN_USER, System.currentTimeMillis(),
+                    EntityChanged.Kind.DELETED, null, revocation.getUsername(), ChangeLogPoller.NODE_ID));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import metrics.PrometheusText;
+
+/**
+ * Decide si las lecturas de una petición GET van a la réplica
+ * (Homework1ReadPU) o a la base de datos principal.
+ *
+ * El retraso de la réplica se mide con CHANGE_LOG, que se replica como
+ * cualquier otra tabla: cada homework1.replica.pollMillis (250) se lee el
+ * último id de la principal y después el de la réplica. La réplica tiene
+ * todo lo confirmado en la principal hasta la lectura más reciente cuyo id
+ * ya ha alcanzado; el retraso es el tiempo desde entonces. Si pasa de
+ * homework1.replica.maxLagMillis (2000), o la réplica no responde, todas
+ * las lecturas van a la principal.
+ *
+ * Leer lo propio: tras una escritura de un usuario, sus lecturas van a la
+ * principal hasta que la réplica esté al día respecto a ese momento. Se
+ * guarda en memoria, así que solo vale si el balanceador manda al usuario
+ * siempre al mismo nodo.
+ *
+ * Desactivado salvo con homework1.replica.enabled=true. La decisión de la
+ * petición en curso va en el hilo (ver onReplica) y AbstractFacade la usa
+ * para elegir el EntityManager.
+ */
+@Singleton
+@Startup
+@DependsOn("DataInitializer")
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ReadRouting {
+    public static final String ENABLED_PROPERTY = "homework1.replica.enabled";
+
+    private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+    private static final long POLL_MILLIS = Long.getLong("homework1.replica.pollMillis", 250);
+    private static final long MAX_LAG_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Long.getLong("homework1.replica.maxLagMillis", 2000));
+    private static final int MAX_SAMPLES = 256;
+
+    private static final ThreadLocal<Boolean> ON_REPLICA = new ThreadLocal<>();
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager primary;
+
+    @PersistenceContext(unitName = "Homework1ReadPU")
+    private EntityManager replica;
+
+    @Resource
+    private TimerService timerService;
+
+    // lecturas de la principal: (cuándo, último id), de la más antigua a la más reciente
+    private final Deque<long[]> samples = new ArrayDeque<>();
+    // usuario -> cuándo confirmó su última escritura
+    private final ConcurrentMap<String, Long> writes = new ConcurrentHashMap<>();
+    private volatile long freshAsOf = System.nanoTime() - MAX_LAG_NANOS - 1;
+    private volatile boolean available;
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder ownWrites = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (ENABLED) {
+            timerService.createIntervalTimer(0, POLL_MILLIS, new TimerConfig(null, false));
+        }
+    }
+
+    /**
+     * true si las lecturas de la petición en curso en este hilo van a la réplica
+     */
+    public static boolean onReplica() {
+        return Boolean.TRUE.equals(ON_REPLICA.get());
+    }
+
+    /**
+     * Fija la decisión para este hilo, p. ej. al reanudar en él una lectura
+     * de AsyncReads
+     */
+    public static void attach(boolean replica) {
+        if (replica) {
+            ON_REPLICA.set(Boolean.TRUE);
+        } else {
+            ON_REPLICA.remove();
+        }
+    }
+
+    /**
+     * Decide a dónde van las lecturas de un GET del usuario (null si es anónimo)
+     */
+    public boolean route(String user) {
+        boolean replica = useReplica(user);
+        (replica ? replicaReads : primaryReads).increment();
+        return replica;
+    }
+
+    private boolean useReplica(String user) {
+        if (!ENABLED || !available) {
+            return false;
+        }
+        long fresh = freshAsOf;
+        if (System.nanoTime() - fresh > MAX_LAG_NANOS) {
+            return false;
+        }
+        if (user != null) {
+            Long written = writes.get(user);
+            if (written != null) {
+                if (written - fresh >= 0) {
+                    ownWrites.increment();
+                    return false;
+                }
+                writes.remove(user, written);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Anota una escritura confirmada del usuario
+     */
+    public void written(String user) {
+        if (ENABLED) {
+            writes.put(user, System.nanoTime());
+        }
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void poll() {
+        long now = System.nanoTime();
+        long primaryId;
+        long replicaId;
+        try {
+            // primero la principal: si la réplica llega a ese id, tiene todo lo anterior a now
+            primaryId = maxId(primary);
+            replicaId = maxId(replica);
+        } catch (RuntimeException e) {
+            if (available) {
+                System.err.println("  ReadRouting: réplica no disponible: " + e.getMessage());
+            }
+            available = false;
+            return;
+        }
+        synchronized (samples) {
+            samples.addLast(new long[] {now, primaryId});
+            if (samples.size() > MAX_SAMPLES) {
+                samples.removeFirst();
+            }
+            long[] fresh = null;
+            while (!samples.isEmpty() && samples.peekFirst()[1] <= replicaId) {
+                fresh = samples.removeFirst();
+            }
+            if (fresh != null) {
+                // se queda para la próxima vuelta: la réplica sigue teniendo al menos eso
+                samples.addFirst(fresh);
+                freshAsOf = fresh[0];
+            }
+        }
+        if (!available) {
+            System.out.println("  ReadRouting: réplica disponible, hasta el cambio " + replicaId);
+        }
+        available = true;
+    }
+
+    private static long maxId(EntityManager em) {
+        Long max = em.createNamedQuery("ChangeLogEntry.maxId", Long.class).getSingleResult();
+        return max != null ? max : 0L;
+    }
+
+    public void writeTo(PrometheusText out) {
+        String reads = "homework1_replica_reads_total";
+        out.family(reads, "counter", "Peticiones GET de los facades según a dónde fueron sus lecturas");
+        out.sample(reads, PrometheusText.labels("target", "replica"), replicaReads.sum());
+        out.sample(reads, PrometheusText.labels("target", "primary"), primaryReads.sum());
+        out.family("homework1_replica_own_writes_total", "counter",
+                "Lecturas enviadas a la principal por una escritura reciente del mismo usuario");
+        out.sample("homework1_replica_own_writes_total", "", ownWrites.sum());
+        out.family("homework1_replica_available", "gauge", "1 si la réplica responde");
+        out.sample("homework1_replica_available", "", available ? 1 : 0);
+        out.family("homework1_replica_lag_seconds", "gauge", "Tiempo desde el último estado de la principal que tiene la réplica");
+        out.sample("homework1_replica_lag_seconds", "", (System.nanoTime() - freshAsOf) / 1e9);
+    }
+}
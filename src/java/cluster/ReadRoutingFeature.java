@@ -0,0 +1,39 @@
+package cluster;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+import metrics.MetricsFeature;
+import service.AbstractFacade;
+
+/**
+ * Registra un ReadRoutingFilter en cada método de recurso al desplegar:
+ * los GET de los facades deciden a dónde leen, las escrituras se anotan
+ * para leer lo propio y el resto deja el hilo leyendo de la principal.
+ *
+ * Va después de RESTRequestFilter y del control de admisión, para conocer
+ * al usuario y no decidir por peticiones que se van a rechazar.
+ */
+@Provider
+public class ReadRoutingFeature implements DynamicFeature {
+    static final int PRIORITY = Priorities.AUTHENTICATION + 200;
+
+    @Inject
+    private ReadRouting routing;
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        String httpMethod = MetricsFeature.httpMethod(resourceInfo.getResourceMethod());
+        if (httpMethod == null) {
+            return;
+        }
+        boolean read = HttpMethod.GET.equals(httpMethod) || HttpMethod.HEAD.equals(httpMethod);
+        boolean facade = AbstractFacade.class.isAssignableFrom(resourceInfo.getResourceClass());
+        boolean write = !read && !HttpMethod.OPTIONS.equals(httpMethod);
+        context.register(new ReadRoutingFilter(routing, read && facade, write), PRIORITY);
+    }
+}
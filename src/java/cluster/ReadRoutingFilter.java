@@ -0,0 +1,51 @@
+package cluster;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import java.io.IOException;
+import java.security.Principal;
+
+/**
+ * Fija en el hilo a dónde leen las consultas de la petición (ver
+ * ReadRouting.onReplica) y, tras una escritura con éxito, anota al usuario
+ * para que sus próximas lecturas vayan a la principal.
+ *
+ * Toda petición fija la decisión al entrar, así que lo que quede en el
+ * hilo de una lectura anterior no llega a la siguiente.
+ */
+final class ReadRoutingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private final ReadRouting routing;
+    private final boolean read;
+    private final boolean write;
+
+    /**
+     * @param read si es un GET de un facade, que puede ir a la réplica
+     * @param write si el método escribe
+     */
+    ReadRoutingFilter(ReadRouting routing, boolean read, boolean write) {
+        this.routing = routing;
+        this.read = read;
+        this.write = write;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) throws IOException {
+        ReadRouting.attach(read && routing.route(user(request)));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        ReadRouting.attach(false);
+        String user = user(request);
+        if (write && user != null && response.getStatus() < 400) {
+            routing.written(user);
+        }
+    }
+
+    private static String user(ContainerRequestContext request) {
+        Principal user = request.getSecurityContext().getUserPrincipal();
+        return user != null ? user.getName() : null;
+    }
+}
@@ -0,0 +1,325 @@
+package cluster;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import metrics.PrometheusText;
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.internal.helper.DatabaseField;
+import org.eclipse.persistence.jpa.JpaEntityManager;
+import org.eclipse.persistence.mappings.DatabaseMapping;
+import org.eclipse.persistence.mappings.DirectCollectionMapping;
+import org.eclipse.persistence.sessions.server.ServerSession;
+
+/**
+ * Mantiene una réplica de lectura (java:app/jdbc/homework1-replica) a partir
+ * de CHANGE_LOG, para probar ReadRouting con dos bases de datos Derby
+ * locales. Solo se activa con homework1.replica.copy=true; con una réplica
+ * de verdad (replicación de Derby o de otro motor) no hace falta.
+ *
+ * Cada homework1.replica.pollMillis lee las entradas nuevas de la principal
+ * y, por cada una, copia por JDBC la fila actual de la entidad y sus
+ * @ElementCollection (o las borra si ya no existe) y después la propia fila
+ * de CHANGE_LOG, todo en una transacción de la réplica por vuelta. Así el
+ * último id de CHANGE_LOG en la réplica dice hasta dónde está al día. Los
+ * huecos se tratan igual que en ChangeLogPoller. Tras confirmar, las
+ * entidades copiadas se sacan de la caché compartida de Homework1ReadPU,
+ * como hace ChangeLogPoller con la de la principal.
+ *
+ * Las tablas y columnas salen de los descriptores de EclipseLink. La réplica
+ * tiene que empezar con el mismo contenido que la principal (las dos vacías
+ * con drop-and-create, o una copia de la base de datos) y no puede quedarse
+ * parada más de lo que ChangeLogPoller guarda CHANGE_LOG (una hora).
+ */
+@Singleton
+@Startup
+@DependsOn("DataInitializer")
+public class ReplicaCopier {
+    public static final String COPY_PROPERTY = "homework1.replica.copy";
+    public static final boolean COPY = Boolean.getBoolean(COPY_PROPERTY);
+
+    private static final long POLL_MILLIS = Long.getLong("homework1.replica.pollMillis", 250);
+    private static final long GAP_GRACE_MILLIS = 60 * 1000L;
+    private static final int MAX_GAPS = 1000;
+    private static final int BATCH_SIZE = 500;
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @PersistenceContext(unitName = "Homework1ReadPU")
+    private EntityManager replica;
+
+    @Resource(lookup = "java:app/jdbc/homework1")
+    private DataSource primaryData;
+
+    @Resource(lookup = "java:app/jdbc/homework1-replica")
+    private DataSource replicaData;
+
+    @Resource
+    private TimerService timerService;
+
+    // nombre JPA de la entidad -> tablas que hay que copiar
+    private final Map<String, EntityTables> tables = new HashMap<>();
+    private EntityTables changeLog;
+    // id del hueco -> cuándo se detectó
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long highWater;
+    private long copied;
+
+    @PostConstruct
+    public void init() {
+        if (!COPY) {
+            return;
+        }
+        ServerSession session = em.unwrap(JpaEntityManager.class).getServerSession();
+        for (ClassDescriptor descriptor : session.getDescriptors().values()) {
+            EntityTables entity = new EntityTables(descriptor);
+            if (ChangeLogEntry.class.equals(descriptor.getJavaClass())) {
+                changeLog = entity;
+            } else {
+                tables.put(descriptor.getAlias(), entity);
+            }
+        }
+        Long max = replica.createNamedQuery("ChangeLogEntry.maxId", Long.class).getSingleResult();
+        highWater = max != null ? max : 0L;
+        timerService.createIntervalTimer(POLL_MILLIS, POLL_MILLIS, new TimerConfig(null, false));
+        System.out.println("  ReplicaCopier: copiando a la réplica desde el cambio " + highWater);
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void poll() {
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(noticed -> now - noticed > GAP_GRACE_MILLIS);
+
+        TypedQuery<ChangeLogEntry> query = gaps.isEmpty()
+                ? em.createNamedQuery("ChangeLogEntry.after", ChangeLogEntry.class)
+                : em.createNamedQuery("ChangeLogEntry.afterOrIn", ChangeLogEntry.class)
+                        .setParameter("ids", gaps.keySet());
+        List<ChangeLogEntry> entries = query.setParameter("after", highWater)
+                .setMaxResults(BATCH_SIZE)
+                .getResultList();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (Connection from = primaryData.getConnection();
+                Connection to = replicaData.getConnection()) {
+            to.setAutoCommit(false);
+            try {
+                for (ChangeLogEntry entry : entries) {
+                    EntityTables entity = tables.get(entry.getEntityType());
+                    if (entity != null) {
+                        entity.copy(from, to, entry.getEntityId());
+                    }
+                    changeLog.copy(from, to, entry.getId());
+                }
+                to.commit();
+            } catch (SQLException | RuntimeException e) {
+                to.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            // se reintenta entero en la próxima vuelta
+            System.err.println("  ReplicaCopier: error al copiar desde el cambio " + highWater + ": " + e.getMessage());
+            return;
+        }
+
+        for (ChangeLogEntry entry : entries) {
+            long id = entry.getId();
+            if (id > highWater) {
+                for (long missing = highWater + 1; missing < id && gaps.size() < MAX_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                highWater = id;
+            } else {
+                gaps.remove(id);
+            }
+        }
+        for (ChangeLogEntry entry : entries) {
+            EntityTables entity = tables.get(entry.getEntityType());
+            if (entity != null) {
+                replica.getEntityManagerFactory().getCache().evict(entity.type, entry.getEntityId());
+            }
+        }
+        copied += entries.size();
+    }
+
+    public void writeTo(PrometheusText out) {
+        out.family("homework1_replica_copied_total", "counter", "Entradas de CHANGE_LOG copiadas a la réplica");
+        out.sample("homework1_replica_copied_total", "", copied);
+    }
+
+    /**
+     * Tabla principal de una entidad y las de sus @ElementCollection, con
+     * las columnas que las unen
+     */
+    private static final class EntityTables {
+        private final Class<?> type;
+        private final Table main;
+        private final List<Table> collections = new ArrayList<>();
+
+        EntityTables(ClassDescriptor descriptor) {
+            type = descriptor.getJavaClass();
+            List<String> key = new ArrayList<>();
+            for (DatabaseField field : descriptor.getPrimaryKeyFields()) {
+                key.add(field.getName());
+            }
+            main = new Table(descriptor.getTableName(), key);
+            for (DatabaseMapping mapping : descriptor.getMappings()) {
+                if (mapping instanceof DirectCollectionMapping) {
+                    DirectCollectionMapping collection = (DirectCollectionMapping) mapping;
+                    List<String> reference = new ArrayList<>();
+                    for (DatabaseField field : collection.getReferenceKeyFields()) {
+                        reference.add(field.getName());
+                    }
+                    collections.add(new Table(collection.getReferenceTableName(), reference));
+                }
+            }
+        }
+
+        void copy(Connection from, Connection to, Object id) throws SQLException {
+            // primero se quitan las colecciones: dependen de la fila principal
+            for (Table collection : collections) {
+                collection.delete(to, id);
+            }
+            if (!main.copyRow(from, to, id)) {
+                main.delete(to, id);
+                return;
+            }
+            for (Table collection : collections) {
+                collection.insertAll(from, to, id);
+            }
+        }
+    }
+
+    /**
+     * Una tabla con una clave de una sola columna (el id de la entidad o, en
+     * las colecciones, la columna que apunta a ella)
+     */
+    private static final class Table {
+        private final String name;
+        private final String key;
+
+        Table(String name, List<String> key) {
+            if (key.size() != 1) {
+                throw new IllegalStateException("Composite key not supported in replica copy: " + name);
+            }
+            this.name = name;
+            this.key = key.get(0);
+        }
+
+        void delete(Connection to, Object id) throws SQLException {
+            try (PreparedStatement delete = to.prepareStatement(
+                    "DELETE FROM " + name + " WHERE " + key + " = ?")) {
+                delete.setObject(1, id);
+                delete.executeUpdate();
+            }
+        }
+
+        /**
+         * @return false si la fila ya no está en la principal
+         */
+        boolean copyRow(Connection from, Connection to, Object id) throws SQLException {
+            try (PreparedStatement select = select(from, id);
+                    ResultSet row = select.executeQuery()) {
+                if (!row.next()) {
+                    return false;
+                }
+                ResultSetMetaData meta = row.getMetaData();
+                StringBuilder set = new StringBuilder();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    set.append(set.length() > 0 ? ", " : "").append(meta.getColumnName(i)).append(" = ?");
+                }
+                int updated;
+                try (PreparedStatement update = to.prepareStatement(
+                        "UPDATE " + name + " SET " + set + " WHERE " + key + " = ?")) {
+                    int n = bind(update, row, meta);
+                    update.setObject(n + 1, id);
+                    updated = update.executeUpdate();
+                }
+                if (updated == 0) {
+                    try (PreparedStatement insert = insert(to, meta)) {
+                        bind(insert, row, meta);
+                        insert.executeUpdate();
+                    }
+                }
+                return true;
+            }
+        }
+
+        void insertAll(Connection from, Connection to, Object id) throws SQLException {
+            try (PreparedStatement select = select(from, id);
+                    ResultSet rows = select.executeQuery()) {
+                PreparedStatement insert = null;
+                try {
+                    while (rows.next()) {
+                        if (insert == null) {
+                            insert = insert(to, rows.getMetaData());
+                        }
+                        bind(insert, rows, rows.getMetaData());
+                        insert.addBatch();
+                    }
+                    if (insert != null) {
+                        insert.executeBatch();
+                    }
+                } finally {
+                    if (insert != null) {
+                        insert.close();
+                    }
+                }
+            }
+        }
+
+        private PreparedStatement select(Connection from, Object id) throws SQLException {
+            PreparedStatement select = from.prepareStatement(
+                    "SELECT * FROM " + name + " WHERE " + key + " = ?");
+            select.setObject(1, id);
+            return select;
+        }
+
+        private PreparedStatement insert(Connection to, ResultSetMetaData meta) throws SQLException {
+            StringBuilder columns = new StringBuilder();
+            StringBuilder values = new StringBuilder();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                columns.append(i > 1 ? ", " : "").append(meta.getColumnName(i));
+                values.append(i > 1 ? ", ?" : "?");
+            }
+            return to.prepareStatement("INSERT INTO " + name + " (" + columns + ") VALUES (" + values + ")");
+        }
+
+        private static int bind(PreparedStatement statement, ResultSet row, ResultSetMetaData meta)
+                throws SQLException {
+            int columns = meta.getColumnCount();
+            for (int i = 1; i <= columns; i++) {
+                Object value = row.getObject(i);
+                if (value == null) {
+                    statement.setNull(i, meta.getColumnType(i));
+                } else {
+                    statement.setObject(i, value);
+                }
+            }
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package compression;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import metrics.PrometheusText;
+
+/**
+ * Respuestas ya comprimidas de los métodos @Precompressed, y contadores de
+ * toda la compresión gzip para GET /metrics.
+ *
+ * La clave lleva el ETag, así que un cambio en los datos nunca sirve bytes
+ * viejos: la entrada anterior deja de pedirse y sale por LRU. El total de
+ * bytes guardados no pasa de homework1.gzip.cacheBytes (16 MiB por defecto).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class CompressedCache {
+    private static final long MAX_BYTES = Long.getLong("homework1.gzip.cacheBytes", 16L * 1024 * 1024);
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // protegido por entries
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder skippedResponses = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    public static String key(URI uri, MediaType type, EntityTag tag) {
+        // sin parámetros como charset, que no cambian los bytes de una misma respuesta
+        return uri + " " + type.getType() + "/" + type.getSubtype() + " " + tag.getValue();
+    }
+
+    /**
+     * @return la respuesta comprimida, o null si no está en caché
+     */
+    public Entry get(String key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return entry;
+    }
+
+    public Entry put(String key, byte[] gzip, long uncompressed) {
+        Entry entry = new Entry(gzip, uncompressed);
+        if (gzip.length > MAX_BYTES) {
+            return entry;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            bytes += gzip.length - (previous != null ? previous.gzip.length : 0);
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > MAX_BYTES) {
+                bytes -= eldest.next().gzip.length;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Anota una respuesta enviada con gzip, comprimida ahora o desde la caché
+     */
+    public void compressed(long uncompressed, long compressed) {
+        compressedResponses.increment();
+        bytesIn.add(uncompressed);
+        bytesOut.add(compressed);
+    }
+
+    /**
+     * Anota una respuesta que admitía gzip pero no llegaba al umbral
+     */
+    public void skipped() {
+        skippedResponses.increment();
+    }
+
+    public void writeTo(PrometheusText out) {
+        String gzip = "homework1_gzip";
+        out.family(gzip + "_responses_total", "counter", "Respuestas que admitían gzip, comprimidas o por debajo del umbral");
+        out.sample(gzip + "_responses_total", PrometheusText.labels("result", "compressed"), compressedResponses.sum());
+        out.sample(gzip + "_responses_total", PrometheusText.labels("result", "skipped"), skippedResponses.sum());
+        out.family(gzip + "_bytes_total", "counter", "Bytes de las respuestas comprimidas, antes y después de gzip");
+        long in = bytesIn.sum();
+        long compressed = bytesOut.sum();
+        out.sample(gzip + "_bytes_total", PrometheusText.labels("stage", "uncompressed"), in);
+        out.sample(gzip + "_bytes_total", PrometheusText.labels("stage", "compressed"), compressed);
+        out.family(gzip + "_ratio", "gauge", "Bytes comprimidos por byte sin comprimir desde el arranque");
+        out.sample(gzip + "_ratio", "", in > 0 ? (double) compressed / in : 0);
+
+        String cache = gzip + "_cache";
+        out.family(cache + "_lookups_total", "counter", "Consultas a la caché de respuestas comprimidas");
+        out.sample(cache + "_lookups_total", PrometheusText.labels("result", "hit"), hits.get());
+        out.sample(cache + "_lookups_total", PrometheusText.labels("result", "miss"), misses.get());
+        out.family(cache + "_evictions_total", "counter", "Entradas expulsadas de la caché de respuestas comprimidas");
+        out.sample(cache + "_evictions_total", "", evictions.get());
+        int size;
+        long stored;
+        synchronized (entries) {
+            size = entries.size();
+            stored = bytes;
+        }
+        out.family(cache + "_entries", "gauge", "Entradas en la caché de respuestas comprimidas");
+        out.sample(cache + "_entries", "", size);
+        out.family(cache + "_bytes", "gauge", "Bytes comprimidos en la caché");
+        out.sample(cache + "_bytes", "", stored);
+    }
+
+    public static final class Entry {
+        final byte[] gzip;
+        final long uncompressed;
+
+        Entry(byte[] gzip, long uncompressed) {
+            this.gzip = gzip;
+            this.uncompressed = uncompressed;
+        }
+    }
+}
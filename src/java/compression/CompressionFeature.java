@@ -0,0 +1,27 @@
+package compression;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Registra un GzipInterceptor en cada método de recurso al desplegar.
+ *
+ * Va en Priorities.ENTITY_CODER, por dentro de MetricsFilter, para que el
+ * tamaño de respuesta que se mide sea el que sale por la red.
+ */
+@Provider
+public class CompressionFeature implements DynamicFeature {
+
+    @Inject
+    private CompressedCache cache;
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        boolean precompressed = resourceInfo.getResourceMethod().isAnnotationPresent(Precompressed.class);
+        context.register(new GzipInterceptor(cache, precompressed), Priorities.ENTITY_CODER);
+    }
+}
@@ -0,0 +1,269 @@
+package compression;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Comprime con gzip las respuestas JSON y XML de un método de recurso si
+ * el cliente lo admite (Accept-Encoding) y el cuerpo llega a
+ * homework1.gzip.minBytes (1024 por defecto), con nivel homework1.gzip.level
+ * (6 por defecto).
+ *
+ * El cuerpo se retiene en memoria solo hasta el umbral; a partir de ahí se
+ * comprime sobre la marcha, así que las respuestas en streaming siguen
+ * saliendo en streaming. En los métodos @Precompressed, las respuestas 200
+ * con ETag se sirven desde CompressedCache sin serializar ni comprimir.
+ */
+final class GzipInterceptor implements ContainerResponseFilter, WriterInterceptor {
+    static final int LEVEL = Integer.getInteger("homework1.gzip.level", 6);
+    static final int MIN_BYTES = Integer.getInteger("homework1.gzip.minBytes", 1024);
+    private static final String GZIP = "gzip";
+    private static final String GZIP_PROPERTY = "compression.gzip";
+    private static final String KEY_PROPERTY = "compression.key";
+
+    private final CompressedCache cache;
+    private final boolean precompressed;
+
+    GzipInterceptor(CompressedCache cache, boolean precompressed) {
+        this.cache = cache;
+        this.precompressed = precompressed;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        if (!response.hasEntity() || !compressible(response.getMediaType())
+                || response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return;
+        }
+        response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(request.getHeaderString(HttpHeaders.ACCEPT_ENCODING))) {
+            return;
+        }
+        request.setProperty(GZIP_PROPERTY, Boolean.TRUE);
+        EntityTag tag = response.getEntityTag();
+        if (precompressed && response.getStatus() == 200 && tag != null) {
+            request.setProperty(KEY_PROPERTY,
+                    CompressedCache.key(request.getUriInfo().getRequestUri(), response.getMediaType(), tag));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        if (context.getProperty(GZIP_PROPERTY) == null) {
+            context.proceed();
+            return;
+        }
+        String key = (String) context.getProperty(KEY_PROPERTY);
+        if (key != null) {
+            writeCached(context, key);
+            return;
+        }
+        OutputStream original = context.getOutputStream();
+        ThresholdStream body = new ThresholdStream(original, context.getHeaders());
+        context.setOutputStream(body);
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(original);
+        }
+        body.finish();
+        if (body.gzip != null) {
+            cache.compressed(body.uncompressed, body.compressed.count);
+        } else {
+            cache.skipped();
+        }
+    }
+
+    private void writeCached(WriterInterceptorContext context, String key) throws IOException {
+        OutputStream original = context.getOutputStream();
+        CompressedCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(16 * 1024);
+            context.setOutputStream(body);
+            try {
+                context.proceed();
+            } finally {
+                context.setOutputStream(original);
+            }
+            if (body.size() < MIN_BYTES) {
+                cache.skipped();
+                body.writeTo(original);
+                return;
+            }
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(body.size() / 4);
+            try (OutputStream out = new LevelGzipStream(gzip)) {
+                body.writeTo(out);
+            }
+            entry = cache.put(key, gzip.toByteArray(), body.size());
+        }
+        gzipHeaders(context.getHeaders());
+        original.write(entry.gzip);
+        cache.compressed(entry.uncompressed, entry.gzip.length);
+    }
+
+    private static void gzipHeaders(MultivaluedMap<String, Object> headers) {
+        headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+    }
+
+    /**
+     * JSON, XML y NDJSON; el resto (imágenes, texto de Prometheus...) sale tal cual
+     */
+    static boolean compressible(MediaType type) {
+        if (type == null) {
+            return false;
+        }
+        String subtype = type.getSubtype().toLowerCase();
+        return subtype.equals("json") || subtype.equals("xml") || subtype.equals("x-ndjson")
+                || subtype.endsWith("+json") || subtype.endsWith("+xml");
+    }
+
+    /**
+     * true si Accept-Encoding incluye gzip (o *) con q mayor que 0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase(GZIP) && !name.equalsIgnoreCase("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            double q = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (q > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * GZIPOutputStream con el nivel configurado; flush() vacía también el
+     * compresor, para que las respuestas en streaming no se queden retenidas
+     */
+    private static final class LevelGzipStream extends GZIPOutputStream {
+        LevelGzipStream(OutputStream out) throws IOException {
+            super(out, 8192, true);
+            def.setLevel(LEVEL);
+        }
+    }
+
+    /**
+     * Retiene el cuerpo hasta MIN_BYTES; si se supera, pone las cabeceras
+     * de gzip (aún no se ha escrito nada) y sigue comprimiendo
+     */
+    private static final class ThresholdStream extends OutputStream {
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(MIN_BYTES);
+        private CountingStream compressed;
+        private GZIPOutputStream gzip;
+        private long uncompressed;
+        private boolean finished;
+
+        ThresholdStream(OutputStream target, MultivaluedMap<String, Object> headers) {
+            this.target = target;
+            this.headers = headers;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            uncompressed += len;
+            if (gzip == null && buffer.size() + len < MIN_BYTES) {
+                buffer.write(b, off, len);
+                return;
+            }
+            if (gzip == null) {
+                gzipHeaders(headers);
+                compressed = new CountingStream(target);
+                gzip = new LevelGzipStream(compressed);
+                buffer.writeTo(gzip);
+                buffer = null;
+            }
+            gzip.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // por debajo del umbral se sigue reteniendo: aún no se sabe si habrá gzip
+            if (gzip != null) {
+                gzip.flush();
+            }
+        }
+
+        /**
+         * Termina el gzip, o escribe el cuerpo sin comprimir si no llegó al umbral.
+         * El stream de destino lo cierra el contenedor.
+         */
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (gzip != null) {
+                gzip.finish();
+            } else {
+                buffer.writeTo(target);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream target;
+        long count;
+
+        CountingStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+}
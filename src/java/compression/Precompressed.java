@@ -0,0 +1,15 @@
+package compression;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Método de recurso público cuya respuesta comprimida se guarda en
+ * CompressedCache, por URI, tipo de contenido y ETag
+ */
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Precompressed {
+}
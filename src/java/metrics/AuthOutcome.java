@@ -0,0 +1,29 @@
+package metrics;
+
+/**
+ * Resultado de la autenticación de RESTRequestFilter en un método @Secured
+ */
+public enum AuthOutcome {
+    BASIC_CACHED,
+    BASIC,
+    BEARER,
+    // 401: sin cabecera Authorization
+    MISSING,
+    // 401: token caducado, revocado o con firma incorrecta
+    INVALID_TOKEN,
+    // 401: el usuario no existe
+    UNKNOWN_USER,
+    // 403: contraseña incorrecta
+    WRONG_PASSWORD,
+    // 400: cabecera Basic mal formada
+    MALFORMED,
+    // 503: el pool de hashing está lleno
+    BUSY;
+
+    /**
+     * Valor de la etiqueta outcome en /metrics
+     */
+    public String label() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,109 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de un método de recurso JAX-RS ("GET /models/{id}").
+ *
+ * Todo se reserva al crear el objeto (una vez por método, al desplegar),
+ * así que registrar una petición no reserva memoria.
+ */
+public final class EndpointMetrics {
+    static final int MAX_STATUS = 600;
+
+    private final String httpMethod;
+    private final String path;
+    private final boolean async;
+    private final LogLinearHistogram latencyNanos = new LogLinearHistogram();
+    private final LogLinearHistogram requestBytes = new LogLinearHistogram();
+    private final LogLinearHistogram responseBytes = new LogLinearHistogram();
+    private final AtomicLongArray statuses = new AtomicLongArray(MAX_STATUS);
+    private final AtomicLongArray authOutcomes = new AtomicLongArray(AuthOutcome.values().length);
+    private final LogLinearHistogram sqlStatements = new LogLinearHistogram();
+    private final LongAdder sqlRows = new LongAdder();
+    private final LongAdder sqlNanos = new LongAdder();
+
+    EndpointMetrics(String httpMethod, String path, boolean async) {
+        this.httpMethod = httpMethod;
+        this.path = path;
+        this.async = async;
+    }
+
+    void status(int status) {
+        // códigos fuera de rango se cuentan como 0
+        statuses.incrementAndGet(status > 0 && status < MAX_STATUS ? status : 0);
+    }
+
+    void latency(long nanos) {
+        latencyNanos.record(nanos);
+    }
+
+    void requestSize(long bytes) {
+        requestBytes.record(bytes);
+    }
+
+    void responseSize(long bytes) {
+        responseBytes.record(bytes);
+    }
+
+    void auth(AuthOutcome outcome) {
+        authOutcomes.incrementAndGet(outcome.ordinal());
+    }
+
+    void sql(int statements, long rows, long nanos) {
+        sqlStatements.record(statements);
+        sqlRows.add(rows);
+        sqlNanos.add(nanos);
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * true si el método usa @Suspended y la respuesta puede salir en otro hilo
+     */
+    boolean isAsync() {
+        return async;
+    }
+
+    public LogLinearHistogram getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public LogLinearHistogram getRequestBytes() {
+        return requestBytes;
+    }
+
+    public LogLinearHistogram getResponseBytes() {
+        return responseBytes;
+    }
+
+    public long getStatusCount(int status) {
+        return statuses.get(status);
+    }
+
+    public long getAuthCount(AuthOutcome outcome) {
+        return authOutcomes.get(outcome.ordinal());
+    }
+
+    /**
+     * Sentencias SQL por petición (ver SqlAccounting)
+     */
+    public LogLinearHistogram getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public long getSqlRows() {
+        return sqlRows.sum();
+    }
+
+    public long getSqlNanos() {
+        return sqlNanos.sum();
+    }
+}
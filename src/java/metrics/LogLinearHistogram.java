@@ -0,0 +1,124 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma log-lineal al estilo HdrHistogram, sin bloqueos.
+ *
+ * Cada potencia de dos se divide en 32 cubetas, así que el error relativo
+ * de cualquier valor es como mucho 1/32 (~3%). Los valores por debajo de
+ * 64 tienen cubeta propia y los mayores que MAX_VALUE se cuentan en la
+ * última. record() solo hace un incremento atómico en un array reservado
+ * al crear el histograma: no reserva memoria ni bloquea.
+ */
+public final class LogLinearHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_EXPONENT = 40;
+    // 2^41 - 1: ~36 minutos en nanosegundos o 2 TB en bytes
+    static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        counts.incrementAndGet(indexOf(value));
+        sum.add(value);
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        // mantisa en [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        int mantissa = (int) (value >>> shift);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    /**
+     * Mayor valor que cae en la cubeta
+     */
+    static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int mantissa = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Copia de las cubetas para calcular percentiles y exportar sin parar de registrar.
+     * La copia no es atómica: con tráfico, count y sum pueden diferir en las últimas muestras.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum());
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+
+        Snapshot(long[] counts, long count, long sum) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * @param quantile entre 0 y 1
+         * @return el mayor valor de la cubeta donde cae el cuantil, 0 si no hay muestras
+         */
+        public long valueAt(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return highestValueOf(i);
+                }
+            }
+            return MAX_VALUE;
+        }
+
+        /**
+         * Muestras menores o iguales que value (para las cubetas "le" de Prometheus)
+         */
+        public long countAtOrBelow(long value) {
+            long below = 0;
+            for (int i = 0; i < counts.length && highestValueOf(i) <= value; i++) {
+                below += counts[i];
+            }
+            return below;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package metrics;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Registra un MetricsFilter en cada método de recurso al desplegar.
+ *
+ * El filtro va antes que RESTRequestFilter (Priorities.AUTHENTICATION),
+ * para que la latencia incluya la autenticación y el resultado de esta se
+ * anote en el método correcto.
+ */
+@Provider
+public class MetricsFeature implements DynamicFeature {
+    static final int PRIORITY = Priorities.AUTHENTICATION - 100;
+
+    @Inject
+    private RequestMetrics metrics;
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        Method method = resourceInfo.getResourceMethod();
+        String httpMethod = httpMethod(method);
+        if (httpMethod == null) {
+            return;
+        }
+        EndpointMetrics endpoint = metrics.endpoint(httpMethod,
+                path(resourceInfo.getResourceClass(), method), isAsync(method));
+        context.register(new MetricsFilter(endpoint), PRIORITY);
+    }
+
+    /**
+     * Verbo HTTP del método de recurso, o null si es un localizador de subrecursos
+     */
+    public static String httpMethod(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod http = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (http != null) {
+                return http.value();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plantilla de la ruta relativa a RESTapp, p. ej. "/models/{id}"
+     */
+    public static String path(Class<?> resource, Method method) {
+        StringBuilder path = new StringBuilder();
+        append(path, resource.getAnnotation(Path.class));
+        append(path, method.getAnnotation(Path.class));
+        return path.length() == 0 ? "/" : path.toString();
+    }
+
+    private static void append(StringBuilder path, Path segment) {
+        if (segment == null) {
+            return;
+        }
+        String value = segment.value();
+        if (value.startsWith("/")) {
+            value = value.substring(1);
+        }
+        if (value.endsWith("/")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        if (!value.isEmpty()) {
+            path.append('/').append(value);
+        }
+    }
+
+    /**
+     * true si el método recibe un @Suspended AsyncResponse
+     */
+    public static boolean isAsync(Method method) {
+        for (Annotation[] parameter : method.getParameterAnnotations()) {
+            for (Annotation annotation : parameter) {
+                if (annotation instanceof Suspended) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,175 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Mide cada petición de un método de recurso: latencia, código de estado,
+ * tamaño del cuerpo de la petición y de la respuesta, y resultado de la
+ * autenticación. MetricsFeature registra una instancia por método, con su
+ * EndpointMetrics ya creado, así que no hay búsquedas por petición.
+ *
+ * La latencia va desde antes de RESTRequestFilter hasta que Jersey da la
+ * petición por terminada (MetricsListener), con el cuerpo ya escrito. El
+ * código de estado se anota también ahí: una excepción sin ExceptionMapper
+ * no pasa por el filtro de respuesta y se contaría como si no existiera;
+ * así sale como 500. El instante de inicio se guarda en un objeto por hilo
+ * reutilizado, sin reservar memoria; en los métodos @Suspended, cuya
+ * respuesta puede salir en otro hilo, va en una propiedad de la petición.
+ *
+ * También abre y cierra la cuenta de SQL de SqlAccounting. Con
+ * homework1.sql.debug=true, los totales hasta el filtro de respuesta van en
+ * las cabeceras X-SQL-*; las cargas perezosas al serializar el cuerpo ya no
+ * caben en ellas, pero sí en las métricas del método.
+ */
+public final class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+    private static final String START_PROPERTY = MetricsFilter.class.getName() + ".start";
+    private static final String ENDPOINT_PROPERTY = MetricsFilter.class.getName() + ".endpoint";
+    static final String SQL_STATEMENTS_HEADER = "X-SQL-Statements";
+    static final String SQL_ROWS_HEADER = "X-SQL-Rows";
+    static final String SQL_TIME_HEADER = "X-SQL-Time-Ms";
+    private static final ThreadLocal<Slot> SLOT = ThreadLocal.withInitial(Slot::new);
+
+    private final EndpointMetrics endpoint;
+
+    MetricsFilter(EndpointMetrics endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Anota el resultado de la autenticación en el método de la petición en curso
+     */
+    public static void auth(AuthOutcome outcome) {
+        EndpointMetrics current = SLOT.get().endpoint;
+        if (current != null) {
+            current.auth(outcome);
+        }
+    }
+
+    /**
+     * Método de recurso de la petición en curso en este hilo, para seguir
+     * midiéndola si se reanuda en otro (ver attach)
+     */
+    public static EndpointMetrics current() {
+        return SLOT.get().endpoint;
+    }
+
+    /**
+     * Asocia a este hilo una petición @Suspended que se va a reanudar en él,
+     * para que su SQL se anote en el método correcto
+     */
+    public static void attach(EndpointMetrics endpoint) {
+        SLOT.get().endpoint = endpoint;
+        if (endpoint != null) {
+            SqlAccounting.begin(endpoint);
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) throws IOException {
+        Slot slot = SLOT.get();
+        slot.endpoint = endpoint;
+        slot.start = System.nanoTime();
+        request.setProperty(ENDPOINT_PROPERTY, endpoint);
+        if (endpoint.isAsync()) {
+            request.setProperty(START_PROPERTY, slot.start);
+        }
+        SqlAccounting.begin(endpoint);
+        int length = request.getLength();
+        if (length >= 0) {
+            endpoint.requestSize(length);
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+        if (SqlAccounting.DEBUG_HEADERS) {
+            SqlAccounting.Tally sql = SqlAccounting.current();
+            response.getHeaders().putSingle(SQL_STATEMENTS_HEADER, sql.statements);
+            response.getHeaders().putSingle(SQL_ROWS_HEADER, sql.rows);
+            response.getHeaders().putSingle(SQL_TIME_HEADER, String.format(Locale.ROOT, "%.3f", sql.nanos / 1e6));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Slot slot = SLOT.get();
+        OutputStream original = context.getOutputStream();
+        slot.counter.target = original;
+        slot.counter.count = 0;
+        context.setOutputStream(slot.counter);
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(original);
+            endpoint.responseSize(slot.counter.count);
+            slot.counter.target = null;
+        }
+    }
+
+    /**
+     * Cierra la medida de la petición: estado, latencia y cuenta de SQL.
+     * Lo llama MetricsListener una vez por petición, con el cuerpo ya
+     * escrito o tras una excepción.
+     *
+     * @param status código de la respuesta; 500 si la excepción no tenía ExceptionMapper
+     */
+    static void finished(ContainerRequestContext request, int status) {
+        EndpointMetrics endpoint = (EndpointMetrics) request.getProperty(ENDPOINT_PROPERTY);
+        if (endpoint == null) {
+            // no llegó a un método de recurso
+            return;
+        }
+        endpoint.status(status);
+        endpoint.latency(System.nanoTime() - start(request.getProperty(START_PROPERTY)));
+        SqlAccounting.end();
+        SLOT.get().endpoint = null;
+    }
+
+    private static long start(Object property) {
+        return property != null ? (Long) property : SLOT.get().start;
+    }
+
+    /**
+     * Estado por hilo de la petición en curso
+     */
+    private static final class Slot {
+        EndpointMetrics endpoint;
+        long start;
+        final CountingOutputStream counter = new CountingOutputStream();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        OutputStream target;
+        long count;
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package metrics;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+/**
+ * Avisa a MetricsFilter cuando Jersey da una petición por terminada
+ * (RequestEvent FINISHED), que llega siempre y una sola vez: después de
+ * escribir el cuerpo, o tras una excepción, tenga o no ExceptionMapper.
+ */
+@Provider
+public class MetricsListener implements ApplicationEventListener {
+    // sin estado: MetricsFilter deja lo que necesita en la petición
+    private static final RequestEventListener FINISH = MetricsListener::finished;
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return FINISH;
+    }
+
+    private static void finished(RequestEvent event) {
+        if (event.getType() != RequestEvent.Type.FINISHED) {
+            return;
+        }
+        ContainerResponse response = event.getContainerResponse();
+        // sin respuesta, la excepción sale al contenedor, que responde 500
+        MetricsFilter.finished(event.getContainerRequest(), response != null
+                ? response.getStatus() : Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+    }
+}
@@ -0,0 +1,91 @@
+package metrics;
+
+import java.math.BigDecimal;
+
+/**
+ * Formato de texto de Prometheus (versión 0.0.4)
+ */
+public final class PrometheusText {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(16 * 1024);
+
+    public PrometheusText family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    public PrometheusText sample(String name, String labels, long value) {
+        out.append(name).append(labels).append(' ').append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusText sample(String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * @param pairs nombre, valor, nombre, valor...
+     * @return las etiquetas entre llaves, o "" si no hay
+     */
+    public static String labels(String... pairs) {
+        if (pairs.length == 0) {
+            return "";
+        }
+        StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) {
+                labels.append(',');
+            }
+            labels.append(pairs[i]).append("=\"");
+            escape(labels, pairs[i + 1]);
+            labels.append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    /**
+     * Añade una etiqueta más a las de labels(...)
+     */
+    public static String with(String labels, String name, String value) {
+        StringBuilder extended = new StringBuilder(labels.length() + name.length() + value.length() + 5);
+        if (labels.isEmpty()) {
+            extended.append('{');
+        } else {
+            extended.append(labels, 0, labels.length() - 1).append(',');
+        }
+        extended.append(name).append("=\"");
+        escape(extended, value);
+        return extended.append("\"}").toString();
+    }
+
+    static String format(double value) {
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
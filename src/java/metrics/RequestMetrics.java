@@ -0,0 +1,167 @@
+package metrics;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de las métricas por método de recurso y su exportación a Prometheus.
+ *
+ * MetricsFeature pide aquí un EndpointMetrics por método al desplegar; en
+ * cada petición MetricsFilter escribe directamente en él, sin pasar por
+ * este bean. Solo el scrape de GET /metrics recorre el registro.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class RequestMetrics {
+    static final String PREFIX = "homework1_";
+    private static final double[] LATENCY_BUCKETS_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final long[] SIZE_BUCKETS_BYTES = {
+        64, 256, 1024, 4096, 16384, 65536, 262144, 1048576, 4194304, 16777216
+    };
+    private static final long[] STATEMENT_BUCKETS = {0, 1, 2, 5, 10, 20, 50, 100};
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public EndpointMetrics endpoint(String httpMethod, String path, boolean async) {
+        return endpoints.computeIfAbsent(httpMethod + " " + path,
+                key -> new EndpointMetrics(httpMethod, path, async));
+    }
+
+    /**
+     * Métricas de todos los métodos de recurso, ordenadas por ruta y método
+     */
+    public List<EndpointMetrics> endpoints() {
+        List<EndpointMetrics> sorted = new ArrayList<>(endpoints.values());
+        sorted.sort(Comparator.comparing(EndpointMetrics::getPath).thenComparing(EndpointMetrics::getHttpMethod));
+        return sorted;
+    }
+
+    public void writeTo(PrometheusText out) {
+        List<EndpointMetrics> all = endpoints();
+        List<String> labels = new ArrayList<>(all.size());
+        List<LogLinearHistogram.Snapshot> latencies = new ArrayList<>(all.size());
+        for (EndpointMetrics endpoint : all) {
+            labels.add(PrometheusText.labels("method", endpoint.getHttpMethod(), "path", endpoint.getPath()));
+            latencies.add(endpoint.getLatencyNanos().snapshot());
+        }
+
+        String requests = PREFIX + "http_requests_total";
+        out.family(requests, "counter", "Respuestas por método de recurso y código de estado");
+        for (int i = 0; i < all.size(); i++) {
+            for (int status = 0; status < EndpointMetrics.MAX_STATUS; status++) {
+                long count = all.get(i).getStatusCount(status);
+                if (count > 0) {
+                    out.sample(requests, PrometheusText.with(labels.get(i), "status", Integer.toString(status)), count);
+                }
+            }
+        }
+
+        String duration = PREFIX + "http_request_duration_seconds";
+        out.family(duration, "histogram", "Latencia hasta escribir la respuesta");
+        for (int i = 0; i < all.size(); i++) {
+            LogLinearHistogram.Snapshot latency = latencies.get(i);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            for (double bucket : LATENCY_BUCKETS_SECONDS) {
+                out.sample(duration + "_bucket", PrometheusText.with(labels.get(i), "le", PrometheusText.format(bucket)),
+                        latency.countAtOrBelow((long) (bucket * NANOS_PER_SECOND)));
+            }
+            out.sample(duration + "_bucket", PrometheusText.with(labels.get(i), "le", "+Inf"), latency.getCount());
+            out.sample(duration + "_sum", labels.get(i), latency.getSum() / NANOS_PER_SECOND);
+            out.sample(duration + "_count", labels.get(i), latency.getCount());
+        }
+
+        String quantiles = PREFIX + "http_request_latency_seconds";
+        out.family(quantiles, "summary", "Percentiles de latencia desde el arranque (error relativo < 4%)");
+        for (int i = 0; i < all.size(); i++) {
+            LogLinearHistogram.Snapshot latency = latencies.get(i);
+            if (latency.getCount() == 0) {
+                continue;
+            }
+            for (double quantile : QUANTILES) {
+                out.sample(quantiles, PrometheusText.with(labels.get(i), "quantile", PrometheusText.format(quantile)),
+                        latency.valueAt(quantile) / NANOS_PER_SECOND);
+            }
+            out.sample(quantiles + "_sum", labels.get(i), latency.getSum() / NANOS_PER_SECOND);
+            out.sample(quantiles + "_count", labels.get(i), latency.getCount());
+        }
+
+        sizes(out, PREFIX + "http_request_size_bytes", "Tamaño del cuerpo de las peticiones con Content-Length",
+                all, labels, true);
+        sizes(out, PREFIX + "http_response_size_bytes", "Tamaño del cuerpo de las respuestas", all, labels, false);
+
+        String auth = PREFIX + "auth_total";
+        out.family(auth, "counter", "Resultado de la autenticación en los métodos @Secured");
+        for (int i = 0; i < all.size(); i++) {
+            for (AuthOutcome outcome : AuthOutcome.values()) {
+                long count = all.get(i).getAuthCount(outcome);
+                if (count > 0) {
+                    out.sample(auth, PrometheusText.with(labels.get(i), "outcome", outcome.label()), count);
+                }
+            }
+        }
+
+        String statements = PREFIX + "sql_statements_per_request";
+        out.family(statements, "histogram", "Sentencias SQL ejecutadas por petición");
+        for (int i = 0; i < all.size(); i++) {
+            LogLinearHistogram.Snapshot sql = all.get(i).getSqlStatements().snapshot();
+            if (sql.getCount() == 0) {
+                continue;
+            }
+            for (long bucket : STATEMENT_BUCKETS) {
+                out.sample(statements + "_bucket", PrometheusText.with(labels.get(i), "le", Long.toString(bucket)),
+                        sql.countAtOrBelow(bucket));
+            }
+            out.sample(statements + "_bucket", PrometheusText.with(labels.get(i), "le", "+Inf"), sql.getCount());
+            out.sample(statements + "_sum", labels.get(i), sql.getSum());
+            out.sample(statements + "_count", labels.get(i), sql.getCount());
+        }
+
+        String rows = PREFIX + "sql_rows_total";
+        out.family(rows, "counter", "Filas leídas por las sentencias SQL");
+        for (int i = 0; i < all.size(); i++) {
+            if (all.get(i).getSqlRows() > 0) {
+                out.sample(rows, labels.get(i), all.get(i).getSqlRows());
+            }
+        }
+
+        String seconds = PREFIX + "sql_seconds_total";
+        out.family(seconds, "counter", "Tiempo en JDBC, incluida la lectura de las filas");
+        for (int i = 0; i < all.size(); i++) {
+            if (all.get(i).getSqlNanos() > 0) {
+                out.sample(seconds, labels.get(i), all.get(i).getSqlNanos() / NANOS_PER_SECOND);
+            }
+        }
+    }
+
+    private static void sizes(PrometheusText out, String name, String help, List<EndpointMetrics> all,
+            List<String> labels, boolean request) {
+        out.family(name, "histogram", help);
+        for (int i = 0; i < all.size(); i++) {
+            LogLinearHistogram.Snapshot sizes = (request ? all.get(i).getRequestBytes() : all.get(i).getResponseBytes())
+                    .snapshot();
+            if (sizes.getCount() == 0) {
+                continue;
+            }
+            for (long bucket : SIZE_BUCKETS_BYTES) {
+                out.sample(name + "_bucket", PrometheusText.with(labels.get(i), "le", Long.toString(bucket)),
+                        sizes.countAtOrBelow(bucket));
+            }
+            out.sample(name + "_bucket", PrometheusText.with(labels.get(i), "le", "+Inf"), sizes.getCount());
+            out.sample(name + "_sum", labels.get(i), sizes.getSum());
+            out.sample(name + "_count", labels.get(i), sizes.getCount());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Últimas sentencias SQL lentas, en un buffer circular de tamaño fijo:
+ * al llenarse, cada entrada nueva sustituye a la más antigua.
+ */
+public final class SlowQueryLog {
+    static final int CAPACITY = 256;
+
+    private final AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLong sequence = new AtomicLong();
+
+    void record(EndpointMetrics endpoint, String sql, long nanos, long rows) {
+        long seq = sequence.getAndIncrement();
+        entries.set((int) (seq % CAPACITY), new Entry(seq, System.currentTimeMillis(),
+                endpoint != null ? endpoint.getHttpMethod() + " " + endpoint.getPath() : null, sql, nanos, rows));
+    }
+
+    /**
+     * @return las entradas retenidas, de la más reciente a la más antigua
+     */
+    public List<Entry> recent() {
+        long last = sequence.get() - 1;
+        List<Entry> recent = new ArrayList<>(CAPACITY);
+        for (long seq = last; seq >= 0 && seq > last - CAPACITY; seq--) {
+            Entry entry = entries.get((int) (seq % CAPACITY));
+            // null si se ha vaciado; otra secuencia si se ha sobrescrito mientras se lee
+            if (entry != null && entry.sequence == seq) {
+                recent.add(entry);
+            }
+        }
+        return recent;
+    }
+
+    /**
+     * Sentencias lentas vistas desde el arranque, incluidas las ya descartadas
+     */
+    public long getTotal() {
+        return sequence.get();
+    }
+
+    public void clear() {
+        for (int i = 0; i < CAPACITY; i++) {
+            entries.set(i, null);
+        }
+    }
+
+    public static final class Entry {
+        private final long sequence;
+        private final long timestamp;
+        private final String endpoint;
+        private final String sql;
+        private final long nanos;
+        private final long rows;
+
+        Entry(long sequence, long timestamp, String endpoint, String sql, long nanos, long rows) {
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+            this.endpoint = endpoint;
+            this.sql = sql;
+            this.nanos = nanos;
+            this.rows = rows;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Fin de la sentencia, en milisegundos desde epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Método de recurso, p. ej. "GET /models/{id}"; null fuera de una petición
+         */
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+    }
+}
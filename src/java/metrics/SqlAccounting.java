@@ -0,0 +1,109 @@
+package metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.persistence.internal.databaseaccess.DatabaseCall;
+import org.eclipse.persistence.queries.Call;
+import org.eclipse.persistence.sessions.SessionEvent;
+import org.eclipse.persistence.sessions.SessionEventAdapter;
+
+/**
+ * Cuenta las sentencias SQL que ejecuta la sesión de EclipseLink de
+ * Homework1PU (propiedad eclipselink.session-event-listener).
+ *
+ * Por hilo se acumulan sentencias, filas leídas y tiempo en JDBC; MetricsFilter
+ * abre y cierra la cuenta en cada petición y la suma a su EndpointMetrics.
+ * Las sentencias que superan homework1.sql.slowMillis (100 ms por defecto)
+ * van además a SlowQueryLog, con el método de recurso que las lanzó.
+ *
+ * EclipseLink crea el listener por reflexión, fuera de CDI, por eso el
+ * estado es estático.
+ */
+public class SqlAccounting extends SessionEventAdapter {
+    /**
+     * Con homework1.sql.debug=true, MetricsFilter añade los totales a la respuesta
+     */
+    static final boolean DEBUG_HEADERS = Boolean.getBoolean("homework1.sql.debug");
+    static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("homework1.sql.slowMillis", 100));
+
+    private static final ThreadLocal<Tally> TALLY = ThreadLocal.withInitial(Tally::new);
+    private static final SlowQueryLog SLOW_QUERIES = new SlowQueryLog();
+
+    public static SlowQueryLog slowQueries() {
+        return SLOW_QUERIES;
+    }
+
+    public static long getSlowThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(SLOW_NANOS);
+    }
+
+    /**
+     * Empieza la cuenta de la petición en curso en este hilo
+     */
+    static Tally begin(EndpointMetrics endpoint) {
+        Tally tally = TALLY.get();
+        tally.endpoint = endpoint;
+        tally.statements = 0;
+        tally.rows = 0;
+        tally.nanos = 0;
+        return tally;
+    }
+
+    /**
+     * Cierra la cuenta y la suma al método de recurso
+     */
+    static void end() {
+        Tally tally = TALLY.get();
+        if (tally.endpoint != null) {
+            tally.endpoint.sql(tally.statements, tally.rows, tally.nanos);
+            tally.endpoint = null;
+        }
+    }
+
+    static Tally current() {
+        return TALLY.get();
+    }
+
+    @Override
+    public void preExecuteCall(SessionEvent event) {
+        TALLY.get().callStart = System.nanoTime();
+    }
+
+    @Override
+    public void postExecuteCall(SessionEvent event) {
+        Tally tally = TALLY.get();
+        long elapsed = System.nanoTime() - tally.callStart;
+        long rows = rows(event.getResult());
+        tally.statements++;
+        tally.rows += rows;
+        tally.nanos += elapsed;
+        if (elapsed >= SLOW_NANOS) {
+            SLOW_QUERIES.record(tally.endpoint, sql(event.getCall()), elapsed, rows);
+        }
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        // una sola fila (los registros de EclipseLink son Map); un Integer es el recuento de un UPDATE/DELETE
+        return result instanceof Map ? 1 : 0;
+    }
+
+    private static String sql(Call call) {
+        // con los parámetros como ?, sin sus valores
+        return call instanceof DatabaseCall ? ((DatabaseCall) call).getSQLString() : null;
+    }
+
+    /**
+     * Totales de un hilo
+     */
+    static final class Tally {
+        EndpointMetrics endpoint;
+        int statements;
+        long rows;
+        long nanos;
+        long callStart;
+    }
+}
@@ -5,17 +5,21 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 //import jakarta.validation.constraints.NotNull;
 import jakarta.xml.bind.annotation.XmlRootElement;
 
 @Entity
 @XmlRootElement
+// GET /topic/{id}/comments: keyset por id dentro de un topic, sin recorrer la tabla
+@Table(indexes = @Index(name = "comment_topic_id", columnList = "topic_id, id"))
 public class Comment implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
-    @SequenceGenerator(name="Comment_Gen", allocationSize=1)
+    @SequenceGenerator(name="Comment_Gen", allocationSize=50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "Comment_Gen") 
     private Long id;
     private String message;
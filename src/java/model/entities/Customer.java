@@ -9,70 +9,137 @@ import jakarta.xml.bind.annotation.XmlTransient;
 
 /**
  * Entidad que representa un cliente/usuario registrado del catálogo
- * 
- * TODO PERSONA B: Completar esta entidad con los siguientes campos:
+ *
+ * Campos:
  * - username (String, obligatorio, único)
  * - displayName (String)
- * - email (String, validar con @Email)
+ * - email (String, validado con @Email)
  * - lastViewedModel (relación @ManyToOne con Model)
- * 
- * IMPORTANTE: NO añadir campo password aquí
+ *
+ * IMPORTANTE: NO hay campo password aquí
  * Las contraseñas se gestionan en la entidad Credentials (authn/Credentials.java)
- * 
- * HINT: Mirar Comment.java como ejemplo de relación @ManyToOne
  */
 @Entity
 @XmlRootElement
 @NamedQueries({
-    // TODO PERSONA B: Añadir NamedQuery "Customer.findAll" que devuelva todos ordenados por username
-    // TODO PERSONA B: Añadir NamedQuery "Customer.findByUsername" que filtre por username exacto
+    @NamedQuery(
+        name = "Customer.findAll",
+        query = "SELECT c FROM Customer c ORDER BY c.username"
+    ),
+    @NamedQuery(
+        name = "Customer.findByUsername",
+        query = "SELECT c FROM Customer c WHERE c.username = :username"
+    )
 })
 public class Customer implements Serializable {
     private static final long serialVersionUID = 1L;
-    
-    // TODO PERSONA B: Añadir campo id con anotaciones @Id, @SequenceGenerator y @GeneratedValue
-    
-    // TODO PERSONA B: Añadir campo username (String, NOT NULL, UNIQUE)
-    // Usar @Column(unique = true, nullable = false)
-    
-    // TODO PERSONA B: Añadir campo displayName (String)
-    
-    // TODO PERSONA B: Añadir campo email (String)
-    // Usar @Email(message = "Email should be valid")
-    
-    // TODO PERSONA B: Añadir campo lastViewedModel (relación @ManyToOne con Model)
-    // Usar @XmlTransient para evitar serialización circular
-
-    // TODO PERSONA B: Crear constructor vacío
-    
-    // TODO PERSONA B: Crear constructor con username
-
-    // TODO PERSONA B: Crear getters y setters para TODOS los campos
-    
+
+    @Id
+    @SequenceGenerator(name="Customer_Gen", allocationSize=1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "Customer_Gen")
+    private Long id;
+
+    // control de concurrencia optimista y ETag de los recursos REST
+    @Version
+    private Long version;
+
+    @NotNull(message = "Username cannot be null")
+    @Column(unique = true, nullable = false)
+    private String username;
+
+    private String displayName;
+
+    @Email(message = "Email should be valid")
+    private String email;
+
+    @ManyToOne
+    private Model lastViewedModel;
+
+    public Customer() {
+    }
+
+    public Customer(String username) {
+        this.username = username;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    @XmlTransient
+    public Model getLastViewedModel() {
+        return lastViewedModel;
+    }
+
+    public void setLastViewedModel(Model lastViewedModel) {
+        this.lastViewedModel = lastViewedModel;
+    }
+
     /**
      * Método helper para obtener el ID del último modelo visto
      * Útil para construir el link HATEOAS en el servicio REST
      */
     public Long getLastViewedModelId() {
-        // TODO PERSONA B: Retornar lastViewedModel.getId() si lastViewedModel no es null, sino null
-        return null;
+        return lastViewedModel != null ? lastViewedModel.getId() : null;
     }
 
     @Override
     public int hashCode() {
-        // TODO PERSONA B: Implementar hashCode basado en el id
-        return 0;
+        int hash = 0;
+        hash += (id != null ? id.hashCode() : 0);
+        return hash;
     }
 
     @Override
     public boolean equals(Object object) {
-        // TODO PERSONA B: Implementar equals comparando ids
-        return false;
+        if (!(object instanceof Customer)) {
+            return false;
+        }
+        Customer other = (Customer) object;
+        if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+            return false;
+        }
+        return true;
     }
 
     @Override
     public String toString() {
-        // TODO PERSONA B: Retornar String con formato "Customer[ id=X, username=Y ]"
-        return "Customer[ id=? ]";
+        return "Customer[ id=" + id + ", username=" + username + " ]";
     }
 }
@@ -1,101 +1,292 @@
 package model.entities;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import jakarta.json.bind.annotation.JsonbProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.xml.bind.annotation.XmlRootElement;
+import org.eclipse.persistence.annotations.BatchFetch;
+import org.eclipse.persistence.annotations.BatchFetchType;
 
 /**
  * Entidad que representa un modelo de lenguaje (LLM)
- * 
- * TODO PERSONA A: Completar esta entidad con los siguientes campos:
+ *
+ * Campos:
  * - name (String, obligatorio)
  * - provider (String, obligatorio)
  * - summary (String, resumen corto 20-30 palabras)
  * - description (String, descripción larga)
- * - capabilities (List<String>, usar @ElementCollection)
+ * - capabilities (List<String>, @ElementCollection)
  * - license (String)
  * - maxContextTokens (Integer)
- * - inputTypes (List<String>, usar @ElementCollection)
- * - outputTypes (List<String>, usar @ElementCollection)
+ * - inputTypes (List<String>, @ElementCollection)
+ * - outputTypes (List<String>, @ElementCollection)
  * - isPrivate (boolean)
  * - logoUrl (String)
  * - lastVersion (String)
- * - trainingDate (Date, usar @Temporal)
- * - lastUpdateDate (Date, usar @Temporal)
+ * - trainingDate (Date, @Temporal)
+ * - lastUpdateDate (Date, @Temporal)
  * - versions (List<String>, opcional)
- * 
- * HINT: Mirar Topic.java y Comment.java como ejemplo
+ *
+ * Las listas son LAZY y se cargan por lotes con IN (una consulta por lista
+ * para todas las filas leídas). La vista completa las pide con el grafo
+ * "Model.full"; las vistas reducidas (ModelFields) no las tocan.
  */
 @Entity
 @XmlRootElement
+@Table(indexes = {
+    @Index(name = "model_name_id", columnList = "name, id"),
+    @Index(name = "model_provider_id", columnList = "provider, id")
+})
 @NamedQueries({
-    // TODO PERSONA A: Añadir NamedQuery "Model.findAll" que devuelva todos los modelos ordenados por name
-    // TODO PERSONA A: Añadir NamedQuery "Model.findByProvider" que filtre por provider (case-insensitive)
+    @NamedQuery(
+        name = "Model.findAll",
+        query = "SELECT m FROM Model m ORDER BY m.name"
+    ),
+    @NamedQuery(
+        name = "Model.findByProvider",
+        query = "SELECT m FROM Model m WHERE LOWER(m.provider) = LOWER(:provider) ORDER BY m.name"
+    )
+})
+@NamedEntityGraph(name = "Model.full", attributeNodes = {
+    @NamedAttributeNode("capabilities"),
+    @NamedAttributeNode("inputTypes"),
+    @NamedAttributeNode("outputTypes"),
+    @NamedAttributeNode("versions")
 })
 public class Model implements Serializable {
     private static final long serialVersionUID = 1L;
-    
-    // TODO PERSONA A: Añadir campo id con anotaciones @Id, @SequenceGenerator y @GeneratedValue
-    // Usar el patrón: @SequenceGenerator(name="Model_Gen", allocationSize=1)
-    
-    // TODO PERSONA A: Añadir campo name (String, NOT NULL)
-    
-    // TODO PERSONA A: Añadir campo provider (String, NOT NULL)
-    
-    // TODO PERSONA A: Añadir campo summary (String, max 500 caracteres)
-    
-    // TODO PERSONA A: Añadir campo description (String, max 2000 caracteres)
-    
-    // TODO PERSONA A: Añadir campo capabilities (List<String>)
-    // Usar @ElementCollection(fetch = FetchType.EAGER)
-    // Usar @CollectionTable(name = "model_capabilities")
-    
-    // TODO PERSONA A: Añadir campo license (String)
-    
-    // TODO PERSONA A: Añadir campo maxContextTokens (Integer)
-    
-    // TODO PERSONA A: Añadir campo inputTypes (List<String>)
-    
-    // TODO PERSONA A: Añadir campo outputTypes (List<String>)
-    
-    // TODO PERSONA A: Añadir campo isPrivate (boolean, default false)
-    
-    // TODO PERSONA A: Añadir campo logoUrl (String)
-    
-    // TODO PERSONA A: Añadir campo lastVersion (String)
-    
-    // TODO PERSONA A: Añadir campo trainingDate (Date)
-    // Usar @Temporal(TemporalType.DATE)
-    
-    // TODO PERSONA A: Añadir campo lastUpdateDate (Date)
-    
-    // TODO PERSONA A: Añadir campo versions (List<String>, opcional)
-
-    // TODO PERSONA A: Crear constructor vacío
-    // Inicializar las listas (capabilities, inputTypes, outputTypes, versions) como ArrayList vacíos
-
-    // TODO PERSONA A: Crear getters y setters para TODOS los campos
-    // Tip: En NetBeans: Clic derecho → Insert Code → Getter and Setter
+
+    @Id
+    // ids preasignados de 50 en 50: las altas masivas no piden uno a uno a la secuencia
+    @SequenceGenerator(name="Model_Gen", allocationSize=50)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "Model_Gen")
+    private Long id;
+
+    // control de concurrencia optimista y ETag de los recursos REST
+    @Version
+    private Long version;
+
+    @NotNull(message = "Name cannot be null")
+    @Column(nullable = false)
+    private String name;
+
+    @NotNull(message = "Provider cannot be null")
+    @Column(nullable = false)
+    private String provider;
+
+    @Column(length = 500)
+    private String summary;
+
+    @Column(length = 2000)
+    private String description;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchFetch(BatchFetchType.IN)
+    @CollectionTable(name = "model_capabilities")
+    private List<String> capabilities;
+
+    private String license;
+
+    private Integer maxContextTokens;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchFetch(BatchFetchType.IN)
+    @CollectionTable(name = "model_input_types")
+    private List<String> inputTypes;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchFetch(BatchFetchType.IN)
+    @CollectionTable(name = "model_output_types")
+    private List<String> outputTypes;
+
+    @Column(nullable = false)
+    private boolean isPrivate = false;
+
+    private String logoUrl;
+
+    private String lastVersion;
+
+    @Temporal(TemporalType.DATE)
+    private Date trainingDate;
+
+    @Temporal(TemporalType.DATE)
+    private Date lastUpdateDate;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @BatchFetch(BatchFetchType.IN)
+    @CollectionTable(name = "model_versions")
+    private List<String> versions;
+
+    public Model() {
+        this.capabilities = new ArrayList<>();
+        this.inputTypes = new ArrayList<>();
+        this.outputTypes = new ArrayList<>();
+        this.versions = new ArrayList<>();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public List<String> getCapabilities() {
+        return capabilities;
+    }
+
+    public void setCapabilities(List<String> capabilities) {
+        this.capabilities = capabilities;
+    }
+
+    public String getLicense() {
+        return license;
+    }
+
+    public void setLicense(String license) {
+        this.license = license;
+    }
+
+    public Integer getMaxContextTokens() {
+        return maxContextTokens;
+    }
+
+    public void setMaxContextTokens(Integer maxContextTokens) {
+        this.maxContextTokens = maxContextTokens;
+    }
+
+    public List<String> getInputTypes() {
+        return inputTypes;
+    }
+
+    public void setInputTypes(List<String> inputTypes) {
+        this.inputTypes = inputTypes;
+    }
+
+    public List<String> getOutputTypes() {
+        return outputTypes;
+    }
+
+    public void setOutputTypes(List<String> outputTypes) {
+        this.outputTypes = outputTypes;
+    }
+
+    @JsonbProperty("isPrivate")
+    public boolean isPrivate() {
+        return isPrivate;
+    }
+
+    @JsonbProperty("isPrivate")
+    public void setPrivate(boolean isPrivate) {
+        this.isPrivate = isPrivate;
+    }
+
+    public String getLogoUrl() {
+        return logoUrl;
+    }
+
+    public void setLogoUrl(String logoUrl) {
+        this.logoUrl = logoUrl;
+    }
+
+    public String getLastVersion() {
+        return lastVersion;
+    }
+
+    public void setLastVersion(String lastVersion) {
+        this.lastVersion = lastVersion;
+    }
+
+    public Date getTrainingDate() {
+        return trainingDate;
+    }
+
+    public void setTrainingDate(Date trainingDate) {
+        this.trainingDate = trainingDate;
+    }
+
+    public Date getLastUpdateDate() {
+        return lastUpdateDate;
+    }
+
+    public void setLastUpdateDate(Date lastUpdateDate) {
+        this.lastUpdateDate = lastUpdateDate;
+    }
+
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    public void setVersions(List<String> versions) {
+        this.versions = versions;
+    }
 
     @Override
     public int hashCode() {
-        // TODO PERSONA A: Implementar hashCode basado en el id
-        return 0;
+        int hash = 0;
+        hash += (id != null ? id.hashCode() : 0);
+        return hash;
     }
 
     @Override
     public boolean equals(Object object) {
-        // TODO PERSONA A: Implementar equals comparando ids
-        // Ver ejemplo en Topic.java
-        return false;
+        if (!(object instanceof Model)) {
+            return false;
+        }
+        Model other = (Model) object;
+        if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+            return false;
+        }
+        return true;
     }
 
     @Override
     public String toString() {
-        // TODO PERSONA A: Retornar String con formato "Model[ id=X, name=Y, provider=Z ]"
-        return "Model[ id=? ]";
+        return "Model[ id=" + id + ", name=" + name + ", provider=" + provider + " ]";
     }
 }
@@ -0,0 +1,248 @@
+package search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import model.entities.Model;
+import service.EntityChanged;
+import service.Readiness;
+
+/**
+ * Índice invertido en memoria sobre name, summary, description y
+ * capabilities de Model, con ranking BM25.
+ *
+ * Se llena al arrancar desde la tabla Model y se actualiza con los
+ * eventos EntityChanged confirmados. Editar un modelo marca su documento
+ * anterior como borrado y añade uno nuevo; cuando los borrados superan un
+ * cuarto del índice se compactan las listas de postings.
+ */
+@Singleton
+@Startup
+@DependsOn("DataInitializer")
+@Lock(LockType.READ)
+public class ModelIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_BOOST = 3;
+    private static final int CAPABILITY_BOOST = 2;
+    private static final int SUMMARY_BOOST = 2;
+    private static final int DESCRIPTION_BOOST = 1;
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @EJB
+    private Readiness readiness;
+
+    private Map<String, PostingsList> postings = new HashMap<>();
+    // número de documento -> documento (null si está borrado)
+    private List<Doc> docs = new ArrayList<>();
+    private final Map<Long, Integer> docByModel = new HashMap<>();
+    private long totalLength;
+    private int deletedDocs;
+
+    @PostConstruct
+    public void load() {
+        readiness.starting("index");
+        for (Model model : em.createNamedQuery("Model.findAll", Model.class).getResultList()) {
+            add(model);
+        }
+        System.out.println("  ModelIndex: " + docByModel.size() + " modelos indexados, "
+                + postings.size() + " términos");
+        readiness.ready("index");
+    }
+
+    @Lock(LockType.WRITE)
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChanged change) {
+        if (!change.is(Model.class)) {
+            return;
+        }
+        if (change.getKind() == EntityChanged.Kind.DELETED) {
+            delete((Long) change.getId());
+        } else {
+            index((Model) change.getEntity());
+        }
+    }
+
+    @Lock(LockType.WRITE)
+    public void index(Model model) {
+        delete(model.getId());
+        add(model);
+    }
+
+    @Lock(LockType.WRITE)
+    public void delete(Long modelId) {
+        Integer doc = docByModel.remove(modelId);
+        if (doc == null) {
+            return;
+        }
+        totalLength -= docs.get(doc).length;
+        docs.set(doc, null);
+        deletedDocs++;
+        if (deletedDocs > 64 && deletedDocs > docByModel.size() / 4) {
+            compact();
+        }
+    }
+
+    /**
+     * @return ids de modelo ordenados por relevancia, como mucho limit
+     */
+    public List<Hit> search(String query, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        int liveDocs = docByModel.size();
+        if (liveDocs == 0 || limit <= 0) {
+            return hits;
+        }
+        float avgLength = (float) totalLength / liveDocs;
+        float[] scores = new float[docs.size()];
+        boolean matched = false;
+
+        for (String term : new LinkedHashSet<>(TextAnalyzer.analyze(query))) {
+            PostingsList list = postings.get(term);
+            if (list == null) {
+                continue;
+            }
+            matched = true;
+            // docCount incluye documentos borrados pendientes de compactar; basta como aproximación
+            int df = Math.min(list.docCount(), liveDocs);
+            float idf = (float) Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            PostingsList.Cursor cursor = list.cursor();
+            while (cursor.next()) {
+                Doc doc = docs.get(cursor.doc());
+                if (doc == null) {
+                    continue;
+                }
+                float tf = cursor.tf();
+                scores[cursor.doc()] += idf * tf * (K1 + 1)
+                        / (tf + K1 * (1 - B + B * doc.length / avgLength));
+            }
+        }
+        if (!matched) {
+            return hits;
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(a.score, b.score));
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] <= 0) {
+                continue;
+            }
+            top.add(new Hit(docs.get(i).modelId, scores[i]));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        while (!top.isEmpty()) {
+            hits.add(0, top.poll());
+        }
+        return hits;
+    }
+
+    private void add(Model model) {
+        Map<String, Integer> tf = new HashMap<>();
+        int length = addTerms(tf, model.getName(), NAME_BOOST)
+                + addTerms(tf, model.getSummary(), SUMMARY_BOOST)
+                + addTerms(tf, model.getDescription(), DESCRIPTION_BOOST);
+        if (model.getCapabilities() != null) {
+            for (String capability : model.getCapabilities()) {
+                length += addTerms(tf, capability, CAPABILITY_BOOST);
+            }
+        }
+
+        int doc = docs.size();
+        docs.add(new Doc(model.getId(), length));
+        docByModel.put(model.getId(), doc);
+        totalLength += length;
+        for (Map.Entry<String, Integer> entry : tf.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new PostingsList()).add(doc, entry.getValue());
+        }
+    }
+
+    private static int addTerms(Map<String, Integer> tf, String text, int boost) {
+        List<String> terms = TextAnalyzer.analyze(text);
+        for (String term : terms) {
+            tf.merge(term, boost, Integer::sum);
+        }
+        return terms.size() * boost;
+    }
+
+    /**
+     * Reescribe las listas sin los documentos borrados y renumera los vivos
+     */
+    private void compact() {
+        int[] remap = new int[docs.size()];
+        List<Doc> liveDocs = new ArrayList<>(docByModel.size());
+        for (int i = 0; i < docs.size(); i++) {
+            Doc doc = docs.get(i);
+            remap[i] = doc == null ? -1 : liveDocs.size();
+            if (doc != null) {
+                docByModel.put(doc.modelId, liveDocs.size());
+                liveDocs.add(doc);
+            }
+        }
+        Map<String, PostingsList> compacted = new HashMap<>(postings.size());
+        for (Map.Entry<String, PostingsList> entry : postings.entrySet()) {
+            PostingsList list = new PostingsList();
+            PostingsList.Cursor cursor = entry.getValue().cursor();
+            while (cursor.next()) {
+                if (remap[cursor.doc()] >= 0) {
+                    list.add(remap[cursor.doc()], cursor.tf());
+                }
+            }
+            if (list.docCount() > 0) {
+                compacted.put(entry.getKey(), list);
+            }
+        }
+        postings = compacted;
+        docs = liveDocs;
+        deletedDocs = 0;
+    }
+
+    public int size() {
+        return docByModel.size();
+    }
+
+    /**
+     * Resultado de una búsqueda: id del modelo y puntuación BM25
+     */
+    public static final class Hit {
+        private final Long modelId;
+        private final float score;
+
+        Hit(Long modelId, float score) {
+            this.modelId = modelId;
+            this.score = score;
+        }
+
+        public Long getModelId() {
+            return modelId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private static final class Doc {
+        final Long modelId;
+        final int length;
+
+        Doc(Long modelId, int length) {
+            this.modelId = modelId;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package search;
+
+import java.util.Arrays;
+
+/**
+ * Lista de postings comprimida de un término: pares (doc, tf) con el
+ * número de documento codificado como delta respecto al anterior y ambos
+ * valores en varint (7 bits por byte). Los documentos se añaden siempre
+ * en orden creciente.
+ */
+final class PostingsList {
+    private byte[] data = new byte[8];
+    private int size;
+    private int lastDoc = -1;
+    private int docCount;
+
+    void add(int doc, int tf) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Postings must be added in doc order");
+        }
+        writeVarInt(doc - lastDoc);
+        writeVarInt(tf);
+        lastDoc = doc;
+        docCount++;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int sizeInBytes() {
+        return size;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    private void writeVarInt(int value) {
+        if (size + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[size++] = (byte) value;
+    }
+
+    /**
+     * Recorrido secuencial de la lista
+     */
+    final class Cursor {
+        private int pos;
+        private int doc = -1;
+        private int tf;
+
+        boolean next() {
+            if (pos >= size) {
+                return false;
+            }
+            doc += readVarInt();
+            tf = readVarInt();
+            return true;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int tf() {
+            return tf;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tokenización y stemming ligero para textos en inglés y castellano.
+ *
+ * Pasos: minúsculas, quitar acentos, partir por caracteres no
+ * alfanuméricos, descartar stopwords de ambos idiomas y recortar sufijos.
+ * El mismo análisis se aplica al indexar y al consultar, así que basta con
+ * que sea consistente: "modelos", "modelo" y "models" acaban en "model".
+ */
+public final class TextAnalyzer {
+    private static final int MIN_STEM = 3;
+
+    private static final Set<String> STOPWORDS = new HashSet<>(Arrays.asList(
+            // inglés
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "with",
+            // castellano
+            "al", "con", "de", "del", "el", "en", "es", "la", "las", "lo", "los", "para",
+            "por", "que", "se", "su", "sus", "un", "una", "unos", "unas", "y"));
+
+    // sufijos ordenados de más largo a más corto dentro de cada grupo
+    private static final String[] SPANISH_SUFFIXES = {
+        "amientos", "imientos", "aciones", "uciones", "amiento", "imiento", "adoras", "adores",
+        "ancias", "encias", "idades", "mente", "acion", "ucion", "adora", "ador", "ancia",
+        "encia", "idad", "ismos", "istas", "ismo", "ista", "ables", "ibles", "able", "ible",
+        "osos", "osas", "oso", "osa", "ivos", "ivas", "ivo", "iva"
+    };
+    private static final String[] ENGLISH_SUFFIXES = {
+        "ational", "ization", "fulness", "ousness", "iveness", "ations", "ation", "ments",
+        "ness", "ment", "ings", "ing", "edly", "ers", "ies", "ed", "er", "ly"
+    };
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                String t = token.toString();
+                token.setLength(0);
+                if (!STOPWORDS.contains(t)) {
+                    terms.add(stem(t));
+                }
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        if (token.length() <= MIN_STEM || Character.isDigit(token.charAt(token.length() - 1))) {
+            return token;
+        }
+        String stem = stripSuffix(token, SPANISH_SUFFIXES);
+        if (stem == token) {
+            stem = stripSuffix(token, ENGLISH_SUFFIXES);
+        }
+        if (stem == token) {
+            stem = stripPlural(token);
+        }
+        // género en castellano: modelo/modela -> model
+        if (stem.length() > MIN_STEM + 1 && (stem.endsWith("o") || stem.endsWith("a") || stem.endsWith("e"))) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String stripSuffix(String token, String[] suffixes) {
+        for (String suffix : suffixes) {
+            if (token.endsWith(suffix) && token.length() - suffix.length() >= MIN_STEM) {
+                String stem = token.substring(0, token.length() - suffix.length());
+                if ("ies".equals(suffix)) {
+                    stem += "y";
+                }
+                return stem;
+            }
+        }
+        return token;
+    }
+
+    private static String stripPlural(String token) {
+        if (token.endsWith("ss") || token.endsWith("us") || token.endsWith("is")) {
+            return token;
+        }
+        if (token.endsWith("es") && token.length() - 2 >= MIN_STEM) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.endsWith("s") && token.length() - 1 >= MIN_STEM) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
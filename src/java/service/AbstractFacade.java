@@ -5,60 +5,330 @@
  */
 package service;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericEntity;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import cluster.ReadRouting;
 
 /**
  *
  * @author deim
  */
 public abstract class AbstractFacade<T> {
+    protected static final int MAX_PAGE_SIZE = 100;
 
     private Class<T> entityClass;
 
+    @Inject
+    private Event<EntityChanged> changes;
+
+    @Inject
+    private EntityCounters counters;
+
+    @Inject
+    private SingleFlight flights;
+
+    @PersistenceContext(unitName = "Homework1ReadPU")
+    private EntityManager replica;
+
     public AbstractFacade(Class<T> entityClass) {
         this.entityClass = entityClass;
     }
 
     protected abstract EntityManager getEntityManager();
 
+    /**
+     * EntityManager para las consultas: el de la réplica si ReadRouting ha
+     * mandado allí la petición GET en curso, si no el de getEntityManager().
+     * Las escrituras y las lecturas previas a una escritura van siempre a la
+     * principal.
+     */
+    protected EntityManager reader() {
+        return ReadRouting.onReplica() ? replica : getEntityManager();
+    }
+
     public void create(T entity) {
         getEntityManager().persist(entity);
+        fireChange(EntityChanged.Kind.CREATED, entity);
     }
 
-    public void edit(T entity) {
-        getEntityManager().merge(entity);
+    public T edit(T entity) {
+        T merged = getEntityManager().merge(entity);
+        fireChange(EntityChanged.Kind.UPDATED, merged);
+        return merged;
     }
 
     public void remove(T entity) {
-        getEntityManager().remove(getEntityManager().merge(entity));
+        T merged = getEntityManager().merge(entity);
+        getEntityManager().remove(merged);
+        fireChange(EntityChanged.Kind.DELETED, merged);
+    }
+
+    private void fireChange(EntityChanged.Kind kind, T entity) {
+        Object id = getEntityManager().getEntityManagerFactory()
+                .getPersistenceUnitUtil().getIdentifier(entity);
+        changes.fire(new EntityChanged(entityClass, id, kind, entity));
     }
 
     public T find(Object id) {
-        return getEntityManager().find(entityClass, id);
+        return reader().find(entityClass, id);
+    }
+
+    /**
+     * Como find, pero las llamadas concurrentes con el mismo id comparten una
+     * sola consulta (ver SingleFlight). La entidad puede llegar a varias
+     * peticiones a la vez: solo para leerla, y con lo que haga falta cargado
+     * por las hints (p. ej. un loadgraph).
+     */
+    public T findShared(Object id, Map<String, Object> hints) {
+        EntityManager em = reader();
+        return flights.load(SingleFlight.key(entityClass, id, ReadRouting.onReplica()),
+                () -> em.find(entityClass, id, hints));
+    }
+
+    /**
+     * Lectura agrupada con SingleFlight bajo una clave de este tipo de entidad,
+     * para consultas de listas (parts: la firma de los filtros). Las lecturas
+     * de la réplica y de la principal no se mezclan.
+     */
+    protected <V> V loadShared(Supplier<V> loader, Object... parts) {
+        Object[] key = new Object[parts.length + 2];
+        key[0] = entityClass;
+        key[1] = ReadRouting.onReplica();
+        System.arraycopy(parts, 0, key, 2, parts.length);
+        return flights.load(SingleFlight.key(key), loader);
     }
 
     public List<T> findAll() {
-        jakarta.persistence.criteria.CriteriaQuery cq = getEntityManager().getCriteriaBuilder().createQuery();
+        jakarta.persistence.criteria.CriteriaQuery cq = reader().getCriteriaBuilder().createQuery();
         cq.select(cq.from(entityClass));
-        return getEntityManager().createQuery(cq).getResultList();
+        return reader().createQuery(cq).getResultList();
     }
 
+    /**
+     * Paginación por offset: las páginas profundas recorren y descartan
+     * todas las filas anteriores. Usar findAfter.
+     */
+    @Deprecated
     public List<T> findRange(int[] range) {
-        jakarta.persistence.criteria.CriteriaQuery cq = getEntityManager().getCriteriaBuilder().createQuery();
+        jakarta.persistence.criteria.CriteriaQuery cq = reader().getCriteriaBuilder().createQuery();
         cq.select(cq.from(entityClass));
-        jakarta.persistence.Query q = getEntityManager().createQuery(cq);
+        jakarta.persistence.Query q = reader().createQuery(cq);
         q.setMaxResults(range[1] - range[0] + 1);
         q.setFirstResult(range[0]);
         return q.getResultList();
     }
 
+    /**
+     * Número de entidades según los contadores en memoria (EntityCounters)
+     */
     public int count() {
-        jakarta.persistence.criteria.CriteriaQuery cq = getEntityManager().getCriteriaBuilder().createQuery();
+        return (int) counters.count(entityClass);
+    }
+
+    /**
+     * COUNT(*) sobre la tabla: exacto pero recorre todas las filas
+     */
+    public int countExact() {
+        jakarta.persistence.criteria.CriteriaQuery cq = reader().getCriteriaBuilder().createQuery();
         jakarta.persistence.criteria.Root<T> rt = cq.from(entityClass);
-        cq.select(getEntityManager().getCriteriaBuilder().count(rt));
-        jakarta.persistence.Query q = getEntityManager().createQuery(cq);
+        cq.select(reader().getCriteriaBuilder().count(rt));
+        jakarta.persistence.Query q = reader().createQuery(cq);
         return ((Long) q.getSingleResult()).intValue();
     }
+
+    /**
+     * Paginación keyset: devuelve hasta limit entidades posteriores al cursor,
+     * ordenadas por (sort, id). El coste no depende de la profundidad de la
+     * página y el orden es estable entre llamadas.
+     *
+     * @param cursor cursor opaco de la página anterior, o null para la primera
+     * @param limit número máximo de entidades
+     * @param sort atributo de orden (uno de sortableAttributes()), o null para id
+     * @throws IllegalArgumentException si el cursor o el atributo no son válidos
+     */
+    public Page<T> findAfter(String cursor, int limit, String sort) {
+        return findAfter(cursor, limit, sort, null);
+    }
+
+    /**
+     * findAfter solo sobre las filas que cumplen filter, p. ej. los comentarios
+     * de un topic. Para que no recorra la tabla entera, el atributo del filtro
+     * debe tener índice junto con (sort, id).
+     *
+     * @param filter condición sobre la raíz de la consulta, o null para todas las filas
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Page<T> findAfter(String cursor, int limit, String sort,
+            BiFunction<CriteriaBuilder, Root<T>, Predicate> filter) {
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        if (sort == null) {
+            sort = after != null ? after.sort : "id";
+        }
+        if (!sortableAttributes().contains(sort) || (after != null && !after.sort.equals(sort))) {
+            throw new IllegalArgumentException("Invalid sort attribute: " + sort);
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+
+        EntityManager em = reader();
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(entityClass);
+        Root<T> rt = cq.from(entityClass);
+        Path<Long> id = rt.get("id");
+        Path<Comparable> key = rt.get(sort);
+        List<Predicate> where = new ArrayList<>(2);
+        if (filter != null) {
+            where.add(filter.apply(cb, rt));
+        }
+        if (after != null) {
+            if ("id".equals(sort)) {
+                where.add(cb.greaterThan(id, after.id));
+            } else {
+                after.checkKeyType(key.getJavaType());
+                Comparable lastKey = after.key;
+                where.add(cb.or(
+                        cb.greaterThan(key, lastKey),
+                        cb.and(cb.equal(key, lastKey), cb.greaterThan(id, after.id))));
+            }
+        }
+        cq.select(rt).where(where.toArray(new Predicate[0])).orderBy(cb.asc(key), cb.asc(id));
+
+        TypedQuery<T> q = em.createQuery(cq);
+        q.setMaxResults(limit + 1);
+        List<T> items = q.getResultList();
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        items = items.subList(0, limit);
+        T last = items.get(limit - 1);
+        Long lastId = (Long) em.getEntityManagerFactory()
+                .getPersistenceUnitUtil().getIdentifier(last);
+        Comparable<?> lastKey = "id".equals(sort) ? lastId : (Comparable<?>) readAttribute(last, sort);
+        return new Page<>(items, new KeysetCursor(sort, lastKey, lastId).encode());
+    }
+
+    /**
+     * Atributos por los que se puede ordenar en findAfter. Deben ser NOT NULL
+     * y conviene que tengan índice junto con el id.
+     */
+    protected Set<String> sortableAttributes() {
+        return Collections.singleton("id");
+    }
+
+    /**
+     * Respuesta 200 con la página y, si hay más, un Link rel="next" con el cursor
+     */
+    protected Response pageResponse(Page<T> page, GenericEntity<List<T>> entity, UriInfo uriInfo) {
+        Response.ResponseBuilder rb = Response.ok(entity);
+        if (page.getNextCursor() != null) {
+            rb.link(uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build(), "next");
+        }
+        return rb.build();
+    }
+
+    /**
+     * Respuesta 200 en JSON que se escribe en streaming desde un cursor de base
+     * de datos (ver EntityStreamer), sin materializar la lista. La consulta
+     * va a la réplica si allí iba la petición, aunque se escriba después.
+     */
+    protected Response streamResponse(EntityStreamer streamer,
+            Function<EntityManager, TypedQuery<T>> queryFactory, BiConsumer<JsonGenerator, T> writer) {
+        boolean replica = ReadRouting.onReplica();
+        StreamingOutput body = out -> streamer.writeJsonArray(out, queryFactory, writer, replica);
+        return Response.ok(body, MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * ETag fuerte de una entidad con @Version
+     */
+    protected static EntityTag entityTag(Object id, Long version) {
+        return new EntityTag(id + "." + version);
+    }
+
+    /**
+     * ETag fuerte de una lista a partir de sus pares (id, version) en orden.
+     * Cambia si se crea, edita, borra o reordena cualquier elemento, y se
+     * puede calcular con una proyección sin cargar las entidades.
+     */
+    protected static EntityTag listTag(List<Object[]> idVersions) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer pair = ByteBuffer.allocate(2 * Long.BYTES);
+            for (Object[] row : idVersions) {
+                pair.clear();
+                pair.putLong(((Number) row[0]).longValue());
+                pair.putLong(row[1] != null ? ((Number) row[1]).longValue() : -1L);
+                digest.update(pair.array());
+            }
+            StringBuilder hex = new StringBuilder("L");
+            byte[] hash = digest.digest();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return new EntityTag(hex.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * ETag de otra representación (vista, campos) del mismo estado
+     *
+     * @param variant identificador de la representación, o null para la completa
+     */
+    protected static EntityTag variantTag(EntityTag tag, String variant) {
+        if (variant == null) {
+            return tag;
+        }
+        return new EntityTag(tag.getValue() + "-" + Integer.toHexString(variant.hashCode()));
+    }
+
+    private Object readAttribute(T entity, String attribute) {
+        Member member = getEntityManager().getMetamodel().entity(entityClass)
+                .getAttribute(attribute).getJavaMember();
+        try {
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                field.setAccessible(true);
+                return field.get(entity);
+            }
+            return ((Method) member).invoke(entity);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
     
 }
@@ -0,0 +1,68 @@
+package service;
+
+import authn.Secured;
+import jakarta.ejb.Stateless;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import metrics.SlowQueryLog;
+import metrics.SqlAccounting;
+
+/**
+ * Servicio REST de administración
+ *
+ * 1. GET /admin/slow-queries → últimas sentencias SQL por encima del umbral
+ *    homework1.sql.slowMillis, de la más reciente a la más antigua
+ * 2. DELETE /admin/slow-queries → vacía el registro
+ */
+@Stateless
+@Path("admin")
+public class AdminREST {
+
+    @GET
+    @Secured
+    @Path("slow-queries")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response slowQueries() {
+        SlowQueryLog log = SqlAccounting.slowQueries();
+        JsonArrayBuilder queries = Json.createArrayBuilder();
+        for (SlowQueryLog.Entry entry : log.recent()) {
+            JsonObjectBuilder query = Json.createObjectBuilder()
+                    .add("timestamp", entry.getTimestamp())
+                    .add("millis", entry.getNanos() / 1e6)
+                    .add("rows", entry.getRows());
+            if (entry.getEndpoint() != null) {
+                query.add("endpoint", entry.getEndpoint());
+            } else {
+                query.addNull("endpoint");
+            }
+            if (entry.getSql() != null) {
+                query.add("sql", entry.getSql());
+            } else {
+                query.addNull("sql");
+            }
+            queries.add(query);
+        }
+        JsonObject body = Json.createObjectBuilder()
+                .add("thresholdMillis", SqlAccounting.getSlowThresholdMillis())
+                .add("total", log.getTotal())
+                .add("queries", queries)
+                .build();
+        return Response.ok(body).build();
+    }
+
+    @DELETE
+    @Secured
+    @Path("slow-queries")
+    public Response clearSlowQueries() {
+        SqlAccounting.slowQueries().clear();
+        return Response.noContent().build();
+    }
+}
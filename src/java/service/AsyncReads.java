@@ -0,0 +1,164 @@
+package service;
+
+import cluster.ReadRouting;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.Response;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import metrics.EndpointMetrics;
+import metrics.MetricsFilter;
+
+/**
+ * Limita las lecturas concurrentes de los métodos @Suspended sin que las que
+ * esperan ocupen un hilo HTTP.
+ *
+ * Como mucho homework1.reads.concurrency lecturas (24 por defecto) consultan
+ * la base de datos a la vez: por debajo de las 32 conexiones de homework1_cp,
+ * para que las escrituras y las tareas de fondo sigan teniendo conexión. Con
+ * permiso libre, la lectura se hace en el propio hilo de la petición; si no,
+ * la petición queda suspendida en una cola de homework1.reads.queue (4096)
+ * sin hilo asociado, y cada permiso que se libera pasa a la primera de la
+ * cola, que se lee en un hilo del pool. Con la cola llena, o tras 30 s de
+ * espera, se responde 503 en lugar de acumularlas.
+ *
+ * Java 8 no tiene hilos virtuales; el bloqueo en JDBC sigue necesitando un
+ * hilo, así que lo que se acota es cuántos hay bloqueados a la vez.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AsyncReads {
+    private static final int CONCURRENCY = Integer.getInteger("homework1.reads.concurrency", 24);
+    private static final int QUEUE_SIZE = Integer.getInteger("homework1.reads.queue", 4096);
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private final Semaphore permits = new Semaphore(CONCURRENCY);
+    private final BlockingQueue<Pending> waiting = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        // nunca hay más tareas que permisos, así que la cola del pool no crece
+        executor = Executors.newFixedThreadPool(CONCURRENCY, threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hace la lectura, ahora o cuando haya permiso, y reanuda response con su resultado
+     */
+    public void submit(AsyncResponse response, Supplier<Response> read) {
+        response.setTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        response.setTimeoutHandler(timedOut -> timedOut.resume(busy()));
+        if (permits.tryAcquire()) {
+            try {
+                run(response, read);
+            } finally {
+                release();
+            }
+            return;
+        }
+        if (!waiting.offer(new Pending(response, read, MetricsFilter.current(), ReadRouting.onReplica()))) {
+            response.resume(busy());
+            return;
+        }
+        // el permiso puede haberse liberado entre tryAcquire y offer, con la cola aún vacía
+        if (permits.tryAcquire()) {
+            release();
+        }
+    }
+
+    /**
+     * Pasa el permiso a la primera lectura en cola o, si no hay ninguna, lo devuelve
+     */
+    private void release() {
+        while (true) {
+            Pending next = waiting.poll();
+            if (next != null) {
+                executor.execute(() -> {
+                    try {
+                        MetricsFilter.attach(next.endpoint);
+                        ReadRouting.attach(next.replica);
+                        run(next.response, next.read);
+                    } finally {
+                        ReadRouting.attach(false);
+                        release();
+                    }
+                });
+                return;
+            }
+            permits.release();
+            // otra petición puede haberse encolado tras el poll sin conseguir el permiso
+            if (waiting.isEmpty() || !permits.tryAcquire()) {
+                return;
+            }
+        }
+    }
+
+    private static void run(AsyncResponse response, Supplier<Response> read) {
+        if (!response.isSuspended()) {
+            // ya se respondió 503 mientras esperaba en la cola
+            return;
+        }
+        Response result;
+        try {
+            result = read.get();
+        } catch (RuntimeException e) {
+            // la misma excepción que habría salido del método síncrono
+            response.resume(e);
+            return;
+        }
+        response.resume(result);
+    }
+
+    private static Response busy() {
+        return ErrorResponse.of(Response.Status.SERVICE_UNAVAILABLE, "Too many concurrent reads, try again later")
+                .header("Retry-After", 1)
+                .build();
+    }
+
+    /**
+     * Lecturas en cola, esperando permiso
+     */
+    public int getQueued() {
+        return waiting.size();
+    }
+
+    /**
+     * Lecturas en curso
+     */
+    public int getActive() {
+        return CONCURRENCY - permits.availablePermits();
+    }
+
+    private static final class Pending {
+        final AsyncResponse response;
+        final Supplier<Response> read;
+        final EndpointMetrics endpoint;
+        final boolean replica;
+
+        Pending(AsyncResponse response, Supplier<Response> read, EndpointMetrics endpoint, boolean replica) {
+            this.response = response;
+            this.read = read;
+            this.endpoint = endpoint;
+            this.replica = replica;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package service;
+
+import authn.AuthenticatedUser;
+import authn.Secured;
+import authn.TokenService;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+
+/**
+ * Servicio REST para obtener tokens Bearer
+ *
+ * 1. POST /auth/token → con Basic auth, devuelve un token firmado de corta duración
+ * 2. DELETE /auth/token → revoca el token Bearer con el que se llama
+ *
+ * Con el token, RESTRequestFilter autentica sin consultar Credentials.
+ */
+@Stateless
+@Path("auth")
+public class AuthREST {
+
+    @EJB
+    private TokenService tokens;
+
+    @POST
+    @Secured
+    @Path("token")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response issue(@Context SecurityContext securityContext) {
+        if (!SecurityContext.BASIC_AUTH.equals(securityContext.getAuthenticationScheme())) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "Basic authentication required to issue a token")
+                    .build();
+        }
+        JsonObject token = Json.createObjectBuilder()
+                .add("access_token", tokens.issue(securityContext.getUserPrincipal().getName()))
+                .add("token_type", AuthenticatedUser.BEARER_AUTH)
+                .add("expires_in", TokenService.TTL_MILLIS / 1000)
+                .build();
+        return Response.ok(token).build();
+    }
+
+    @DELETE
+    @Secured
+    @Path("token")
+    public Response revoke(@HeaderParam(HttpHeaders.AUTHORIZATION) String authHeader,
+            @Context SecurityContext securityContext) {
+        if (!AuthenticatedUser.BEARER_AUTH.equals(securityContext.getAuthenticationScheme())) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "Bearer token required")
+                    .build();
+        }
+        if (!tokens.revoke(authHeader.substring(AuthenticatedUser.BEARER_AUTH.length()).trim())) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "Invalid token")
+                    .build();
+        }
+        return Response.noContent().build();
+    }
+}
@@ -0,0 +1,244 @@
+package service;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonException;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonParser;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Carga masiva de entidades para los endpoints POST .../batch.
+ *
+ * Acepta un array JSON o NDJSON (un objeto por línea). Los elementos mal
+ * formados o no válidos se marcan uno a uno en lugar de rechazar toda la
+ * petición. La validación se reparte entre los hilos del executor y la
+ * persistencia va en transacciones de CHUNK_SIZE elementos; si un bloque
+ * falla al confirmar se reintenta elemento a elemento para saber cuál es.
+ */
+final class BatchImport<T> {
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final int MAX_ITEMS = 10000;
+    static final int CHUNK_SIZE = 500;
+
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    private final List<Item<T>> items;
+
+    private BatchImport(List<Item<T>> items) {
+        this.items = items;
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cuerpo no es un array/NDJSON o tiene demasiados elementos
+     */
+    static <T> BatchImport<T> read(Class<T> type, InputStream body, MediaType mediaType) throws IOException {
+        List<Item<T>> items = new ArrayList<>();
+        if (mediaType != null && APPLICATION_NDJSON.equals(mediaType.getType() + "/" + mediaType.getSubtype())) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    items.add(parse(type, items.size(), line));
+                    checkSize(items);
+                }
+            }
+        } else {
+            try (JsonParser parser = Json.createParser(body)) {
+                if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                    throw new IllegalArgumentException("Expected a JSON array");
+                }
+                while (parser.hasNext() && parser.next() != JsonParser.Event.END_ARRAY) {
+                    items.add(parse(type, items.size(), parser.getValue().toString()));
+                    checkSize(items);
+                }
+            } catch (JsonException e) {
+                throw new IllegalArgumentException("Malformed JSON array");
+            }
+        }
+        return new BatchImport<>(items);
+    }
+
+    private static <T> Item<T> parse(Class<T> type, int index, String json) {
+        Item<T> item = new Item<>(index);
+        try {
+            item.entity = JSONB.fromJson(json, type);
+            if (item.entity == null) {
+                item.fail(400, "Item is null");
+            }
+        } catch (JsonbException e) {
+            item.fail(400, "Malformed item");
+        }
+        return item;
+    }
+
+    private static void checkSize(List<?> items) {
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items per batch");
+        }
+    }
+
+    /**
+     * Entidades leídas correctamente y aún sin error, para comprobaciones previas
+     */
+    List<T> entities() {
+        List<T> entities = new ArrayList<>(items.size());
+        for (Item<T> item : pending()) {
+            entities.add(item.entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Bean Validation más las reglas propias del recurso, en paralelo
+     *
+     * @param rules devuelve el mensaje de error del elemento o null si es válido
+     */
+    void validate(Validator validator, Function<T, String> rules, ExecutorService executor) {
+        List<Item<T>> pending = pending();
+        int slices = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), pending.size() / 64));
+        List<Callable<Void>> tasks = new ArrayList<>(slices);
+        for (int s = 0; s < slices; s++) {
+            List<Item<T>> slice = pending.subList(s * pending.size() / slices, (s + 1) * pending.size() / slices);
+            tasks.add(() -> {
+                for (Item<T> item : slice) {
+                    String error = rules.apply(item.entity);
+                    if (error == null) {
+                        for (ConstraintViolation<T> violation : validator.validate(item.entity)) {
+                            error = violation.getPropertyPath() + ": " + violation.getMessage();
+                            break;
+                        }
+                    }
+                    if (error != null) {
+                        item.fail(400, error);
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> done : executor.invokeAll(tasks)) {
+                done.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch validation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch validation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Persiste los elementos válidos en transacciones de CHUNK_SIZE
+     *
+     * @param create alta de una entidad, se llama dentro de la transacción del bloque
+     * @param idOf id asignado tras confirmar
+     */
+    void persist(BatchRunner runner, Consumer<T> create, Function<T, Long> idOf) {
+        List<Item<T>> pending = pending();
+        for (int from = 0; from < pending.size(); from += CHUNK_SIZE) {
+            List<Item<T>> chunk = pending.subList(from, Math.min(from + CHUNK_SIZE, pending.size()));
+            try {
+                runner.inNewTransaction(() -> chunk.forEach(item -> create.accept(item.entity)));
+                for (Item<T> item : chunk) {
+                    item.created(idOf.apply(item.entity));
+                }
+            } catch (RuntimeException chunkFailed) {
+                for (Item<T> item : chunk) {
+                    try {
+                        runner.inNewTransaction(() -> create.accept(item.entity));
+                        item.created(idOf.apply(item.entity));
+                    } catch (RuntimeException e) {
+                        item.fail(409, "Could not be stored: " + rootMessage(e));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 200 con el resultado de cada elemento en el orden de entrada
+     */
+    Response response() {
+        int created = 0;
+        JsonArrayBuilder results = Json.createArrayBuilder();
+        for (Item<T> item : items) {
+            JsonObjectBuilder result = Json.createObjectBuilder()
+                    .add("index", item.index)
+                    .add("status", item.status);
+            if (item.id != null) {
+                result.add("id", item.id);
+                created++;
+            }
+            if (item.error != null) {
+                result.add("error", item.error);
+            }
+            results.add(result);
+        }
+        return Response.ok(Json.createObjectBuilder()
+                .add("total", items.size())
+                .add("created", created)
+                .add("failed", items.size() - created)
+                .add("results", results)
+                .build(), MediaType.APPLICATION_JSON).build();
+    }
+
+    private List<Item<T>> pending() {
+        List<Item<T>> pending = new ArrayList<>(items.size());
+        for (Item<T> item : items) {
+            if (item.status == 0) {
+                pending.add(item);
+            }
+        }
+        return pending;
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    private static final class Item<T> {
+        final int index;
+        T entity;
+        // 0 mientras esté pendiente
+        int status;
+        Long id;
+        String error;
+
+        Item(int index) {
+            this.index = index;
+        }
+
+        void fail(int status, String error) {
+            this.error = error;
+            this.status = status;
+        }
+
+        void created(Long id) {
+            this.id = id;
+            this.status = 201;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package service;
+
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+
+/**
+ * Ejecuta trabajo en una transacción propia. Las cargas masivas lo usan
+ * para confirmar por bloques: si un bloque falla, solo se deshace ese.
+ */
+@Stateless
+public class BatchRunner {
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void inNewTransaction(Runnable work) {
+        work.run();
+    }
+}
@@ -0,0 +1,52 @@
+package service;
+
+import jakarta.json.stream.JsonGenerator;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import model.entities.Comment;
+import model.entities.Customer;
+import model.entities.Model;
+import model.entities.Topic;
+
+/**
+ * Tipos de entidad que entran en la exportación/importación NDJSON.
+ *
+ * El orden de ALL es el de exportación por defecto y respeta las
+ * referencias: customers apunta a models y comments a topics, así que al
+ * importar los ids nuevos de los primeros ya se conocen.
+ */
+final class CatalogEntity<T> {
+    static final Map<String, CatalogEntity<?>> ALL;
+
+    static {
+        Map<String, CatalogEntity<?>> all = new LinkedHashMap<>();
+        add(all, new CatalogEntity<>("models", Model.class, "SELECT e FROM Model e", EntityJson::write, Model::getId));
+        add(all, new CatalogEntity<>("customers", Customer.class, "SELECT e FROM Customer e", EntityJson::write, Customer::getId));
+        add(all, new CatalogEntity<>("topics", Topic.class, "SELECT e FROM Topic e", EntityJson::write, Topic::getId));
+        add(all, new CatalogEntity<>("comments", Comment.class, "SELECT e FROM Comment e", EntityJson::write, Comment::getId));
+        ALL = Collections.unmodifiableMap(all);
+    }
+
+    private static void add(Map<String, CatalogEntity<?>> all, CatalogEntity<?> entity) {
+        all.put(entity.name, entity);
+    }
+
+    final String name;
+    final Class<T> type;
+    // ordenado por id y a partir de :after, para poder reanudar
+    final String jpqlAfter;
+    final BiConsumer<JsonGenerator, T> writer;
+    final Function<T, Long> idOf;
+
+    private CatalogEntity(String name, Class<T> type, String select, BiConsumer<JsonGenerator, T> writer,
+            Function<T, Long> idOf) {
+        this.name = name;
+        this.type = type;
+        this.jpqlAfter = select + " WHERE e.id > :after ORDER BY e.id";
+        this.writer = writer;
+        this.idOf = idOf;
+    }
+}
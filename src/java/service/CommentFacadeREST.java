@@ -1,21 +1,44 @@
 package service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.MediaType;
 import model.entities.Comment;
+import model.entities.Topic;
 import authn.Secured;
+import cbor.CborProvider;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
 
 @Stateless
 @Path("comment")
@@ -24,20 +47,98 @@ public class CommentFacadeREST extends AbstractFacade<Comment> {
     @PersistenceContext(unitName = "Homework1PU")
     private EntityManager em;
 
+    @Context
+    private UriInfo uriInfo;
+
+    @EJB
+    private EntityStreamer streamer;
+
+    @EJB
+    private BatchRunner runner;
+
+    @EJB
+    private EntityCounters counters;
+
+    @EJB
+    private AsyncReads reads;
+
+    @Resource
+    private SessionContext context;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Inject
+    private Validator validator;
+
     public CommentFacadeREST() {
         super(Comment.class);
     }
 
+    /**
+     * Vista EJB de este facade, para que las lecturas de AsyncReads tengan transacción
+     */
+    private CommentFacadeREST self() {
+        return context.getBusinessObject(CommentFacadeREST.class);
+    }
+
     @POST
     @Override
-    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
     public void create(Comment entity) {
         super.create(entity);
     }
 
+    /**
+     * POST /comment/batch
+     *
+     * Alta masiva de comentarios, igual que POST /models/batch. El topic de
+     * cada comentario se referencia por id y tiene que existir.
+     */
+    @POST
+    @Path("batch")
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    @Consumes({MediaType.APPLICATION_JSON, BatchImport.APPLICATION_NDJSON})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createBatch(InputStream body, @HeaderParam("Content-Type") MediaType contentType)
+            throws IOException {
+        BatchImport<Comment> batch;
+        try {
+            batch = BatchImport.read(Comment.class, body, contentType);
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
+        Set<Long> topicIds = new HashSet<>();
+        for (Comment comment : batch.entities()) {
+            if (comment.getTopic() != null && comment.getTopic().getId() != null) {
+                topicIds.add(comment.getTopic().getId());
+            }
+        }
+        Set<Long> existingTopics = topicIds.isEmpty() ? Collections.<Long>emptySet()
+                : new HashSet<>(em.createQuery("SELECT t.id FROM Topic t WHERE t.id IN :ids", Long.class)
+                        .setParameter("ids", topicIds)
+                        .getResultList());
+
+        batch.validate(validator, comment -> {
+            if (comment.getTopic() != null && !existingTopics.contains(comment.getTopic().getId())) {
+                return "Topic not found";
+            }
+            return null;
+        }, executor);
+        batch.persist(runner, comment -> {
+            comment.setId(null);
+            if (comment.getTopic() != null) {
+                comment.setTopic(em.getReference(Topic.class, comment.getTopic().getId()));
+            }
+            super.create(comment);
+        }, Comment::getId);
+        return batch.response();
+    }
+
     @PUT
     @Path("{id}")
-    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+    @Consumes({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
     public void edit(@PathParam("id") Long id, Comment entity) {
         super.edit(entity);
     }
@@ -51,30 +152,99 @@ public class CommentFacadeREST extends AbstractFacade<Comment> {
     @GET
     @Secured
     @Path("{id}")
-    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
-    public Response find(@PathParam("id") Long id) {
-        return Response.ok().entity(super.find(id)).build();
+    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    public void find(@PathParam("id") Long id, @Suspended AsyncResponse response) {
+        CommentFacadeREST self = self();
+        reads.submit(response, () -> Response.ok().entity(self.find(id)).build());
     }
 
     @GET
-    @Override
-    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
-    public List<Comment> findAll() {
-        return super.findAll();
+    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    public void findAll(@Suspended AsyncResponse response) {
+        CommentFacadeREST self = self();
+        reads.submit(response, () -> Response.ok(new GenericEntity<List<Comment>>(self.findAll()) {}).build());
+    }
+
+    /**
+     * GET /comment/stream
+     * Igual que findAll pero escrito en streaming, con memoria constante
+     */
+    @GET
+    @Path("stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response streamAll() {
+        return streamResponse(streamer,
+                entityManager -> entityManager.createQuery("SELECT c FROM Comment c ORDER BY c.id", Comment.class),
+                EntityJson::write);
+    }
+
+    /**
+     * GET /comment/page?cursor=&limit=
+     * Paginación keyset por id; la siguiente página va en la cabecera Link rel="next"
+     */
+    @GET
+    @Path("page")
+    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    public void findPage(@QueryParam("cursor") String cursor,
+            @QueryParam("limit") @DefaultValue("20") int limit,
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse response) {
+        CommentFacadeREST self = self();
+        reads.submit(response, () -> self.loadPage(cursor, limit, uriInfo));
+    }
+
+    /**
+     * GET /comment/page, con permiso de AsyncReads
+     */
+    public Response loadPage(String cursor, int limit, UriInfo uriInfo) {
+        try {
+            Page<Comment> page = super.findAfter(cursor, Math.min(limit, MAX_PAGE_SIZE), null);
+            return pageResponse(page, new GenericEntity<List<Comment>>(page.getItems()) {}, uriInfo);
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * GET /topic/{id}/comments, paginado como GET /comment/page pero solo con
+     * los comentarios del topic (índice comment_topic_id)
+     */
+    public Response loadTopicPage(Long topicId, String cursor, int limit, UriInfo uriInfo) {
+        try {
+            Page<Comment> page = super.findAfter(cursor, Math.min(limit, MAX_PAGE_SIZE), null,
+                    (cb, comment) -> cb.equal(comment.get("topic").get("id"), topicId));
+            return pageResponse(page, new GenericEntity<List<Comment>>(page.getItems()) {}, uriInfo);
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
     }
 
+    /**
+     * @deprecated paginación por offset, usar GET /comment/page
+     */
+    @Deprecated
     @GET
     @Path("{from}/{to}")
-    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
     public List<Comment> findRange(@PathParam("from") Integer from, @PathParam("to") Integer to) {
         return super.findRange(new int[]{from, to});
     }
 
+    /**
+     * GET /comment/count?topic=&exact=
+     * Sale de los contadores en memoria; exact=true fuerza el COUNT(*)
+     */
     @GET
     @Path("count")
     @Produces(MediaType.TEXT_PLAIN)
-    public String countREST() {
-        return String.valueOf(super.count());
+    public String countREST(@QueryParam("topic") Long topic,
+            @QueryParam("exact") @DefaultValue("false") boolean exact) {
+        if (topic != null) {
+            return String.valueOf(exact ? counters.countCommentsInDatabase(topic) : counters.countComments(topic));
+        }
+        return String.valueOf(exact ? super.countExact() : super.count());
     }
 
     @Override
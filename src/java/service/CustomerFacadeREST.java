@@ -1,46 +1,50 @@
 package service;
 
 import authn.Secured;
+import cbor.CborProvider;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonObjectBuilder;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import model.entities.Customer;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Servicio REST para gestionar clientes/usuarios
- * 
- * TODO PERSONA B: Implementar los siguientes endpoints:
- * 
- * 1. GET /customer → Lista todos los clientes (SIN passwords)
- * 
- * 2. GET /customer/{id} → Detalles del cliente
- *    - Construir JSON manualmente con Jakarta JSON-P
- *    - Añadir link HATEOAS si tiene lastViewedModel:
- *      "links": { "model": "/models/{id}" }
- * 
- * 3. PUT /customer/{id} → Actualiza cliente (OPCIONAL, requiere @Secured)
- * 
- * IMPORTANTE: Los clientes NO tienen campo password.
- * Las contraseñas están en la tabla Credentials (authn/Credentials.java)
- * 
- * HINTS:
- * - Usar NamedQuery "Customer.findAll" para listar
- * - Para JSON manual: Json.createObjectBuilder().add("campo", valor).build()
- * - Mirar ModelFacadeREST.java como referencia
+ *
+ * 1. GET /customer → lista de clientes; también /customer/stream y /customer/page
+ * 2. GET /customer/{id} → detalle en JSON-P, con el link HATEOAS
+ *    "links": { "model": "/models/{id}" } si tiene lastViewedModel
+ * 3. PUT /customer/{id} → modificación de displayName, email y
+ *    lastViewedModel (@Secured)
+ *
+ * Customer no tiene contraseña: las credenciales están en Credentials
+ * (authn/Credentials.java), así que los clientes se devuelven tal cual.
  */
 @Stateless
 @Path("customer")
 public class CustomerFacadeREST extends AbstractFacade<Customer> {
+    private static final Set<String> SORTABLE = new HashSet<>(Arrays.asList("id", "username"));
 
     @PersistenceContext(unitName = "Homework1PU")
     private EntityManager em;
@@ -48,81 +52,160 @@ public class CustomerFacadeREST extends AbstractFacade<Customer> {
     @Context
     private UriInfo uriInfo;
 
+    @Context
+    private Request request;
+
+    @EJB
+    private EntityStreamer streamer;
+
+    @EJB
+    private AsyncReads reads;
+
+    @EJB
+    private ModelViews views;
+
+    @Resource
+    private SessionContext context;
+
     public CustomerFacadeREST() {
         super(Customer.class);
     }
 
+    /**
+     * Vista EJB de este facade, para que las lecturas de AsyncReads tengan transacción
+     */
+    private CustomerFacadeREST self() {
+        return context.getBusinessObject(CustomerFacadeREST.class);
+    }
+
     /**
      * GET /customer
      * 
-     * TODO PERSONA B: Implementar listado de clientes
-     * 
-     * Pasos:
-     * 1. Ejecutar NamedQuery "Customer.findAll" para obtener lista
-     * 2. Devolver Response.ok(customers).build()
-     * 
-     * Nota: Como Customer no tiene campo password, se puede devolver directamente
+     * Lista todos los clientes con la NamedQuery "Customer.findAll".
+     * Como Customer no tiene campo password, se puede devolver directamente.
+     * (findAllREST para no chocar con AbstractFacade.findAll)
+     *
+     * El ETag se calcula solo con (id, version); con If-None-Match vigente
+     * devuelve 304 sin cargar los clientes.
      */
     @GET
-    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    public Response findAll() {
-        // TODO PERSONA B: Implementar listado
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO: Implementar findAll\"}")
-                .build();
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    public void findAllREST(@Context Request request, @Suspended AsyncResponse response) {
+        CustomerFacadeREST self = self();
+        reads.submit(response, () -> self.loadAll(request));
+    }
+
+    /**
+     * GET /customer, con permiso de AsyncReads
+     */
+    public Response loadAll(Request request) {
+        EntityManager reader = reader();
+        EntityTag tag = listTag(reader.createQuery(
+                "SELECT c.id, c.version FROM Customer c ORDER BY c.username", Object[].class)
+                .getResultList());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        List<Customer> customers = reader.createNamedQuery("Customer.findAll", Customer.class)
+                .getResultList();
+        return Response.ok(new GenericEntity<List<Customer>>(customers) {}).tag(tag).build();
+    }
+
+    /**
+     * GET /customer/stream
+     * Igual que GET /customer pero escrito en streaming, con memoria constante
+     */
+    @GET
+    @Path("stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response streamAll() {
+        return streamResponse(streamer,
+                entityManager -> entityManager.createNamedQuery("Customer.findAll", Customer.class),
+                EntityJson::write);
+    }
+
+    /**
+     * GET /customer/page?cursor=&limit=&sort=
+     *
+     * Paginación keyset ordenada por id o username.
+     * La siguiente página va en la cabecera Link rel="next".
+     */
+    @GET
+    @Path("page")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    public void findPage(@QueryParam("cursor") String cursor,
+            @QueryParam("limit") @DefaultValue("20") int limit,
+            @QueryParam("sort") String sort,
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse response) {
+        CustomerFacadeREST self = self();
+        reads.submit(response, () -> self.loadPage(cursor, limit, sort, uriInfo));
+    }
+
+    /**
+     * GET /customer/page, con permiso de AsyncReads
+     */
+    public Response loadPage(String cursor, int limit, String sort, UriInfo uriInfo) {
+        try {
+            Page<Customer> page = super.findAfter(cursor, Math.min(limit, MAX_PAGE_SIZE), sort);
+            return pageResponse(page, new GenericEntity<List<Customer>>(page.getItems()) {}, uriInfo);
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
     }
 
     /**
      * GET /customer/{id}
      * 
-     * TODO PERSONA B: Implementar obtención con HATEOAS
-     * 
-     * Pasos:
-     * 1. Buscar customer con super.find(id)
-     * 2. Si customer == null → devolver 404 Not Found
-     * 3. Construir JSON manualmente:
-     *    JsonObjectBuilder builder = Json.createObjectBuilder()
-     *        .add("id", customer.getId())
-     *        .add("username", customer.getUsername());
-     * 4. Añadir campos opcionales si existen (displayName, email)
-     * 5. Si customer.getLastViewedModelId() != null:
-     *    JsonObject links = Json.createObjectBuilder()
-     *        .add("model", "/models/" + customer.getLastViewedModelId())
-     *        .build();
-     *    builder.add("links", links);
-     * 6. JsonObject response = builder.build();
-     * 7. Devolver Response.ok(response).build()
+     * Construye el JSON a mano (ver toJson): id, username, displayName y
+     * email si los tiene, y el link a su último modelo visto. 404 si no existe.
+     *
+     * Responde con ETag "id.version" y 304 si coincide con If-None-Match.
+     * Una vista de modelo aún sin escribir (ModelViews) ya sale en el link
+     * y en el ETag.
      * 
      * @param id ID del cliente
-     * @return Response con JSON del cliente + HATEOAS
      */
     @GET
     @Path("{id}")
     @Produces(MediaType.APPLICATION_JSON)
-    public Response find(@PathParam("id") Long id) {
-        // TODO PERSONA B: Implementar búsqueda con HATEOAS
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO: Implementar find con HATEOAS\"}")
-                .build();
+    public void find(@PathParam("id") Long id, @Context Request request, @Suspended AsyncResponse response) {
+        CustomerFacadeREST self = self();
+        reads.submit(response, () -> self.load(id, request));
+    }
+
+    /**
+     * GET /customer/{id}, con permiso de AsyncReads
+     */
+    public Response load(Long id, Request request) {
+        Customer customer = super.find(id);
+        if (customer == null) {
+            return ErrorResponse.of(Response.Status.NOT_FOUND, "Customer not found")
+                    .build();
+        }
+        EntityTag tag = entityTag(customer.getId(), customer.getVersion());
+        Long lastViewed = views.pending(customer.getUsername());
+        if (lastViewed != null && !lastViewed.equals(customer.getLastViewedModelId())) {
+            tag = variantTag(tag, "viewed=" + lastViewed);
+        } else {
+            lastViewed = customer.getLastViewedModelId();
+        }
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(toJson(customer, lastViewed)).tag(tag).build();
     }
 
     /**
      * PUT /customer/{id}
-     * OPCIONAL
-     * 
-     * TODO PERSONA B (OPCIONAL): Implementar actualización
-     * 
-     * Pasos:
-     * 1. Buscar customer existente con super.find(id)
-     * 2. Si no existe → 404 Not Found
-     * 3. Actualizar SOLO campos permitidos (NO actualizar username):
-     *    - Si customer.getDisplayName() != null → existing.setDisplayName(...)
-     *    - Si customer.getEmail() != null → existing.setEmail(...)
-     *    - Si customer.getLastViewedModel() != null → existing.setLastViewedModel(...)
-     * 4. Persistir con super.edit(existing)
-     * 5. Devolver Response.ok(existing).build()
+     *
+     * Modifica solo displayName, email y lastViewedModel, los que vengan no
+     * nulos; el username no cambia. 404 si no existe.
+     *
+     * If-Match o un campo version desfasado → 412 Precondition Failed.
      * 
      * @param id ID del cliente
      * @param customer Datos a actualizar
@@ -131,16 +214,74 @@ public class CustomerFacadeREST extends AbstractFacade<Customer> {
     @PUT
     @Path("{id}")
     @Secured
-    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
     public Response edit(@PathParam("id") Long id, Customer customer) {
-        // TODO PERSONA B (OPCIONAL): Implementar actualización
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO OPCIONAL: Implementar edit\"}")
+        Customer existing = super.find(id);
+        if (existing == null) {
+            return ErrorResponse.of(Response.Status.NOT_FOUND, "Customer not found")
+                    .build();
+        }
+        Response.ResponseBuilder failed = request.evaluatePreconditions(
+                entityTag(existing.getId(), existing.getVersion()));
+        if (failed != null) {
+            return failed.build();
+        }
+        if (customer.getVersion() != null && !customer.getVersion().equals(existing.getVersion())) {
+            return preconditionFailed();
+        }
+        if (customer.getDisplayName() != null) {
+            existing.setDisplayName(customer.getDisplayName());
+        }
+        if (customer.getEmail() != null) {
+            existing.setEmail(customer.getEmail());
+        }
+        if (customer.getLastViewedModel() != null) {
+            existing.setLastViewedModel(customer.getLastViewedModel());
+        }
+        try {
+            Customer updated = super.edit(existing);
+            em.flush();
+            return Response.ok(updated)
+                    .tag(entityTag(updated.getId(), updated.getVersion()))
+                    .build();
+        } catch (OptimisticLockException e) {
+            return preconditionFailed();
+        }
+    }
+
+    private static Response preconditionFailed() {
+        return ErrorResponse.of(Response.Status.PRECONDITION_FAILED, "Customer was modified by another request")
                 .build();
     }
 
+    /**
+     * JSON del cliente con el link HATEOAS a su último modelo visto
+     */
+    static JsonObject toJson(Customer customer, Long lastViewedModelId) {
+        JsonObjectBuilder builder = Json.createObjectBuilder()
+                .add("id", customer.getId())
+                .add("username", customer.getUsername());
+        if (customer.getDisplayName() != null) {
+            builder.add("displayName", customer.getDisplayName());
+        }
+        if (customer.getEmail() != null) {
+            builder.add("email", customer.getEmail());
+        }
+        if (lastViewedModelId != null) {
+            JsonObject links = Json.createObjectBuilder()
+                    .add("model", "/models/" + lastViewedModelId)
+                    .build();
+            builder.add("links", links);
+        }
+        return builder.build();
+    }
+
+    @Override
+    protected Set<String> sortableAttributes() {
+        return SORTABLE;
+    }
+
     @Override
     protected EntityManager getEntityManager() {
         return em;
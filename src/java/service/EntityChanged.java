@@ -0,0 +1,103 @@
+package service;
+
+/**
+ * Evento CDI que AbstractFacade lanza en cada create/edit/remove.
+ *
+ * Los observadores que mantienen estado en memoria (índices, cachés)
+ * deberían usar {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)}
+ * para enterarse solo de los cambios confirmados.
+ *
+ * Los cambios hechos por otro nodo del clúster llegan también como
+ * EntityChanged, con {@link #isRemote()} a true (ver cluster.ChangeLogPoller).
+ * Quien lleve cuentas debe usar {@link #getLoggedKind()}, no getKind().
+ */
+public class EntityChanged {
+
+    public enum Kind {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Class<?> entityType;
+    private final Object id;
+    private final Kind kind;
+    private final Object entity;
+    private final boolean remote;
+    private final Kind loggedKind;
+    private final Long parentId;
+
+    public EntityChanged(Class<?> entityType, Object id, Kind kind, Object entity) {
+        this(entityType, id, kind, entity, false, kind, null);
+    }
+
+    /**
+     * Cambio de otro nodo, leído de CHANGE_LOG
+     *
+     * @param kind DELETED si la entidad ya no existe, aunque se registrara otra cosa
+     * @param loggedKind el registrado en CHANGE_LOG
+     * @param parentId el registrado en CHANGE_LOG (ver getParentId)
+     */
+    public EntityChanged(Class<?> entityType, Object id, Kind kind, Object entity, Kind loggedKind,
+            Long parentId) {
+        this(entityType, id, kind, entity, true, loggedKind, parentId);
+    }
+
+    private EntityChanged(Class<?> entityType, Object id, Kind kind, Object entity, boolean remote,
+            Kind loggedKind, Long parentId) {
+        this.entityType = entityType;
+        this.id = id;
+        this.kind = kind;
+        this.entity = entity;
+        this.remote = remote;
+        this.loggedKind = loggedKind;
+        this.parentId = parentId;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Estado de la entidad tras el cambio (antes de borrarla si es DELETED)
+     */
+    public Object getEntity() {
+        return entity;
+    }
+
+    /**
+     * true si el cambio lo hizo otro nodo y ya está confirmado en la base de datos
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    /**
+     * El cambio tal como se hizo. Solo difiere de getKind() en los remotos
+     * cuya entidad ya no existe al leerla: llegan como DELETED, pero el
+     * borrado de verdad llega después con su propia entrada, y contar los
+     * dos restaría dos veces.
+     */
+    public Kind getLoggedKind() {
+        return loggedKind;
+    }
+
+    /**
+     * En los remotos, el id del padre que se guardó en CHANGE_LOG (el topic
+     * de un comentario, ver EntityCounters.parentOf), porque un borrado
+     * remoto no trae la entidad. En los locales null: sale de getEntity().
+     */
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public boolean is(Class<?> type) {
+        return entityType.equals(type);
+    }
+}
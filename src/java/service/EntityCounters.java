@@ -0,0 +1,143 @@
+package service;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import model.entities.Comment;
+
+/**
+ * Contadores en memoria del número de filas de cada entidad y de
+ * comentarios por topic, para no hacer COUNT(*) en cada petición.
+ *
+ * Un tipo se cuenta en la base de datos la primera vez que se pide y desde
+ * entonces se mantiene con los EntityChanged confirmados (locales y de
+ * otros nodos), según el cambio registrado (getLoggedKind). El topic de un
+ * comentario sale de la entidad en los cambios locales y de CHANGE_LOG en
+ * los remotos. Cada 5 minutos se reconcilian con COUNT(*): corrige lo que
+ * no pasa por AbstractFacade y los cambios de topic de un comentario, que
+ * el evento no permite seguir.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class EntityCounters {
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    private final ConcurrentMap<Class<?>, AtomicLong> totals = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicLong> commentsByTopic = new ConcurrentHashMap<>();
+    private volatile boolean topicsLoaded;
+
+    public long count(Class<?> type) {
+        AtomicLong total = totals.get(type);
+        if (total == null) {
+            total = totals.computeIfAbsent(type, t -> new AtomicLong(countInDatabase(t)));
+        }
+        return total.get();
+    }
+
+    public long countComments(Long topicId) {
+        if (!topicsLoaded) {
+            reconcileTopics();
+        }
+        AtomicLong count = commentsByTopic.get(topicId);
+        return count != null ? count.get() : 0L;
+    }
+
+    public long countInDatabase(Class<?> type) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        cq.select(cb.count(cq.from(type)));
+        return em.createQuery(cq).getSingleResult();
+    }
+
+    public long countCommentsInDatabase(Long topicId) {
+        return em.createQuery("SELECT COUNT(c) FROM Comment c WHERE c.topic.id = :topic", Long.class)
+                .setParameter("topic", topicId)
+                .getSingleResult();
+    }
+
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChanged change) {
+        long delta = change.getLoggedKind() == EntityChanged.Kind.CREATED ? 1
+                : change.getLoggedKind() == EntityChanged.Kind.DELETED ? -1 : 0;
+        if (delta == 0) {
+            return;
+        }
+        AtomicLong total = totals.get(change.getEntityType());
+        if (total != null) {
+            total.addAndGet(delta);
+        }
+        if (topicsLoaded && change.is(Comment.class)) {
+            Long topicId = change.isRemote() ? change.getParentId() : parentOf(change.getEntity());
+            if (topicId != null) {
+                commentsByTopic.computeIfAbsent(topicId, id -> new AtomicLong()).addAndGet(delta);
+            }
+        }
+    }
+
+    /**
+     * Id por el que se cuenta una entidad además del total: el topic de un
+     * comentario; null para el resto. Se guarda en CHANGE_LOG con el cambio.
+     */
+    public static Long parentOf(Object entity) {
+        if (entity instanceof Comment) {
+            Comment comment = (Comment) entity;
+            return comment.getTopic() != null ? comment.getTopic().getId() : null;
+        }
+        return null;
+    }
+
+    /**
+     * Cuenta ya los tipos indicados y los comentarios por topic, para que
+     * no lo paguen las primeras peticiones (ver authn.DataInitializer)
+     */
+    public void warmUp(Class<?>... types) {
+        for (Class<?> type : types) {
+            count(type);
+        }
+        if (!topicsLoaded) {
+            reconcileTopics();
+        }
+    }
+
+    @Schedule(minute = "*/5", hour = "*", persistent = false)
+    public void reconcile() {
+        for (Map.Entry<Class<?>, AtomicLong> total : totals.entrySet()) {
+            long exact = countInDatabase(total.getKey());
+            long drift = total.getValue().getAndSet(exact) - exact;
+            if (drift != 0) {
+                System.out.println("  EntityCounters: " + total.getKey().getSimpleName()
+                        + " corregido en " + (-drift));
+            }
+        }
+        if (topicsLoaded) {
+            reconcileTopics();
+        }
+    }
+
+    private synchronized void reconcileTopics() {
+        Map<Long, Long> exact = new HashMap<>();
+        for (Object[] row : em.createQuery(
+                "SELECT c.topic.id, COUNT(c) FROM Comment c GROUP BY c.topic.id", Object[].class)
+                .getResultList()) {
+            exact.put((Long) row[0], (Long) row[1]);
+        }
+        commentsByTopic.keySet().retainAll(exact.keySet());
+        for (Map.Entry<Long, Long> count : exact.entrySet()) {
+            commentsByTopic.computeIfAbsent(count.getKey(), id -> new AtomicLong()).set(count.getValue());
+        }
+        topicsLoaded = true;
+    }
+}
@@ -0,0 +1,108 @@
+package service;
+
+import jakarta.json.stream.JsonGenerator;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import model.entities.Comment;
+import model.entities.Customer;
+import model.entities.Model;
+import model.entities.Topic;
+
+/**
+ * Serialización JSON-P de las entidades directamente sobre un JsonGenerator,
+ * sin construir el árbol ni pasar por JSON-B. La usan las respuestas en
+ * streaming, donde el cuerpo se escribe fila a fila.
+ *
+ * Los nombres de propiedad coinciden con los que genera JSON-B.
+ */
+public final class EntityJson {
+
+    private EntityJson() {
+    }
+
+    public static void write(JsonGenerator g, Model m) {
+        g.writeStartObject();
+        writeNumber(g, "id", m.getId());
+        writeNumber(g, "version", m.getVersion());
+        writeString(g, "name", m.getName());
+        writeString(g, "provider", m.getProvider());
+        writeString(g, "summary", m.getSummary());
+        writeString(g, "description", m.getDescription());
+        writeStrings(g, "capabilities", m.getCapabilities());
+        writeString(g, "license", m.getLicense());
+        if (m.getMaxContextTokens() != null) {
+            g.write("maxContextTokens", m.getMaxContextTokens());
+        }
+        writeStrings(g, "inputTypes", m.getInputTypes());
+        writeStrings(g, "outputTypes", m.getOutputTypes());
+        g.write("isPrivate", m.isPrivate());
+        writeString(g, "logoUrl", m.getLogoUrl());
+        writeString(g, "lastVersion", m.getLastVersion());
+        writeDate(g, "trainingDate", m.getTrainingDate());
+        writeDate(g, "lastUpdateDate", m.getLastUpdateDate());
+        writeStrings(g, "versions", m.getVersions());
+        g.writeEnd();
+    }
+
+    public static void write(JsonGenerator g, Customer c) {
+        g.writeStartObject();
+        writeNumber(g, "id", c.getId());
+        writeNumber(g, "version", c.getVersion());
+        writeString(g, "username", c.getUsername());
+        writeString(g, "displayName", c.getDisplayName());
+        writeString(g, "email", c.getEmail());
+        writeNumber(g, "lastViewedModelId", c.getLastViewedModelId());
+        g.writeEnd();
+    }
+
+    public static void write(JsonGenerator g, Comment c) {
+        g.writeStartObject();
+        writeNumber(g, "id", c.getId());
+        writeString(g, "message", c.getMessage());
+        if (c.getTopic() != null) {
+            g.writeStartObject("topic");
+            writeNumber(g, "id", c.getTopic().getId());
+            writeString(g, "name", c.getTopic().getName());
+            g.writeEnd();
+        }
+        g.writeEnd();
+    }
+
+    public static void write(JsonGenerator g, Topic t) {
+        g.writeStartObject();
+        writeNumber(g, "id", t.getId());
+        writeString(g, "name", t.getName());
+        g.writeEnd();
+    }
+
+    private static void writeString(JsonGenerator g, String name, String value) {
+        if (value != null) {
+            g.write(name, value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator g, String name, Long value) {
+        if (value != null) {
+            g.write(name, value);
+        }
+    }
+
+    private static void writeStrings(JsonGenerator g, String name, List<String> values) {
+        if (values == null) {
+            return;
+        }
+        g.writeStartArray(name);
+        for (String value : values) {
+            g.write(value);
+        }
+        g.writeEnd();
+    }
+
+    private static void writeDate(JsonGenerator g, String name, Date value) {
+        if (value != null) {
+            // ISO-8601 en UTC; getTime() también vale para java.sql.Date
+            g.write(name, Instant.ofEpochMilli(value.getTime()).toString());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package service;
+
+import jakarta.ejb.Stateless;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.queries.CursoredStream;
+
+/**
+ * Escribe el resultado de una consulta JPQL como array JSON fila a fila.
+ *
+ * La consulta se abre como cursor de EclipseLink (su getResultStream()
+ * carga antes toda la lista) con un fetch size fijo, y cada CLEAR_INTERVAL
+ * filas se vacían el contexto de persistencia y las filas ya leídas del
+ * cursor, así la memoria no crece con el número de filas.
+ *
+ * Es un EJB para que la escritura, que ocurre después de que el recurso
+ * haya devuelto la respuesta, tenga su propia transacción y conexión; por
+ * eso la réplica (ver cluster.ReadRouting) se elige con un parámetro y no
+ * con la decisión del hilo.
+ */
+@Stateless
+public class EntityStreamer {
+    static final int FETCH_SIZE = 500;
+    private static final int CLEAR_INTERVAL = 500;
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @PersistenceContext(unitName = "Homework1ReadPU")
+    private EntityManager replica;
+
+    /**
+     * @param queryFactory crea la consulta con el EntityManager de este bean
+     * @param writer serializa una entidad (ver EntityJson)
+     * @param replica si la consulta va a la réplica
+     */
+    public <T> void writeJsonArray(OutputStream out, Function<EntityManager, TypedQuery<T>> queryFactory,
+            BiConsumer<JsonGenerator, T> writer, boolean replica) {
+        try (JsonGenerator g = Json.createGenerator(out)) {
+            g.writeStartArray();
+            forEach(queryFactory, row -> writer.accept(g, row), replica);
+            g.writeEnd();
+        }
+    }
+
+    /**
+     * Recorre el resultado de la consulta con el cursor; las entidades que
+     * recibe action se desvinculan poco después y no deben guardarse.
+     *
+     * @return filas recorridas
+     */
+    public <T> long forEach(Function<EntityManager, TypedQuery<T>> queryFactory, Consumer<T> action) {
+        return forEach(queryFactory, action, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> long forEach(Function<EntityManager, TypedQuery<T>> queryFactory, Consumer<T> action,
+            boolean replica) {
+        EntityManager em = replica ? this.replica : this.em;
+        TypedQuery<T> query = queryFactory.apply(em);
+        query.setHint(QueryHints.READ_ONLY, HintValues.TRUE);
+        query.setHint(QueryHints.JDBC_FETCH_SIZE, FETCH_SIZE);
+        query.setHint(QueryHints.CURSOR, HintValues.TRUE);
+        query.setHint(QueryHints.CURSOR_PAGE_SIZE, FETCH_SIZE);
+
+        CursoredStream cursor = (CursoredStream) query.getSingleResult();
+        try {
+            long rows = 0;
+            while (cursor.hasNext()) {
+                action.accept((T) cursor.next());
+                if (++rows % CLEAR_INTERVAL == 0) {
+                    cursor.releasePrevious();
+                    em.clear();
+                }
+            }
+            return rows;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package service;
+
+import jakarta.json.Json;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Respuestas de error con cuerpo {"error": mensaje}. El cuerpo se construye
+ * con JSON-P, así que el mensaje sale escapado aunque traiga comillas, y el
+ * tipo es siempre application/json, también en métodos que producen otro.
+ *
+ * El mensaje tiene que ser para el cliente: las excepciones inesperadas no
+ * se devuelven tal cual, se registran y se responde con un texto genérico.
+ */
+public final class ErrorResponse {
+
+    private ErrorResponse() {
+    }
+
+    /**
+     * @return el builder, para añadir cabeceras antes de build()
+     */
+    public static Response.ResponseBuilder of(Response.Status status, String message) {
+        return Response.status(status)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Json.createObjectBuilder()
+                        .add("error", message != null ? message : status.getReasonPhrase())
+                        .build()
+                        .toString());
+    }
+}
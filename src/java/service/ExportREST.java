@@ -0,0 +1,223 @@
+package service;
+
+import authn.Secured;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GET /export?entities=models,customers,topics,comments&gzip=&resume=
+ *
+ * Exporta el catálogo como NDJSON leyendo cada tabla con un cursor
+ * (EntityStreamer.forEach), sin cargarla en memoria. Cada línea es
+ * {"type": "models", "data": {...}} con el mismo JSON que las respuestas
+ * en streaming; cada tipo va ordenado por id.
+ *
+ * Cada CHECKPOINT_INTERVAL filas y al terminar cada tipo se escribe una
+ * línea {"checkpoint": token, "rows": n, "rowsPerSecond": r}. Si la
+ * descarga se corta, se descarta lo recibido después del último checkpoint
+ * y se pide de nuevo con ?resume=token. La última línea es
+ * {"done": true, "rows": n, "millis": t, "rowsPerSecond": r}.
+ *
+ * Con gzip=true el cuerpo va comprimido (Content-Encoding: gzip).
+ */
+@Stateless
+@Path("export")
+public class ExportREST {
+    static final String DEFAULT_ENTITIES = "models,customers,topics,comments";
+    private static final int CHECKPOINT_INTERVAL = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonGeneratorFactory GENERATORS = Json.createGeneratorFactory(Collections.emptyMap());
+
+    @EJB
+    private EntityStreamer streamer;
+
+    @GET
+    @Secured
+    @Produces(BatchImport.APPLICATION_NDJSON)
+    public Response export(@QueryParam("entities") @DefaultValue(DEFAULT_ENTITIES) String entities,
+            @QueryParam("gzip") @DefaultValue("false") boolean gzip,
+            @QueryParam("resume") String resume) {
+        final List<CatalogEntity<?>> selected;
+        final int startIndex;
+        final long startAfter;
+        try {
+            if (resume != null) {
+                String[] checkpoint = decodeCheckpoint(resume);
+                entities = checkpoint[0];
+                startIndex = Integer.parseInt(checkpoint[1]);
+                startAfter = Long.parseLong(checkpoint[2]);
+            } else {
+                startIndex = 0;
+                startAfter = 0L;
+            }
+            selected = parseEntities(entities);
+            if (startIndex < 0 || startIndex > selected.size()) {
+                throw new IllegalArgumentException("Invalid resume token");
+            }
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
+
+        final String csv = entities;
+        final EntityStreamer rows = streamer;
+        StreamingOutput body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+            Progress progress = new Progress(writer, csv);
+            try {
+                for (int i = startIndex; i < selected.size(); i++) {
+                    exportEntity(rows, selected.get(i), i, i == startIndex ? startAfter : 0L, progress);
+                    progress.checkpoint(i + 1, 0L);
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            progress.done();
+            writer.flush();
+            if (gzip) {
+                ((GZIPOutputStream) target).finish();
+            }
+        };
+        Response.ResponseBuilder response = Response.ok(body, BatchImport.APPLICATION_NDJSON);
+        if (gzip) {
+            response.header("Content-Encoding", "gzip");
+        }
+        return response.build();
+    }
+
+    private static <T> void exportEntity(EntityStreamer streamer, CatalogEntity<T> entity, int index,
+            long after, Progress progress) {
+        streamer.forEach(
+                em -> em.createQuery(entity.jpqlAfter, entity.type).setParameter("after", after),
+                row -> progress.row(entity, row, index));
+    }
+
+    static List<CatalogEntity<?>> parseEntities(String csv) {
+        List<CatalogEntity<?>> entities = new ArrayList<>();
+        for (String name : csv.split(",")) {
+            CatalogEntity<?> entity = CatalogEntity.ALL.get(name.trim());
+            if (entity == null) {
+                throw new IllegalArgumentException("Unknown entity: " + name.trim());
+            }
+            if (entities.contains(entity)) {
+                throw new IllegalArgumentException("Duplicated entity: " + name.trim());
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    // token = base64url("entidades|índice del tipo|último id escrito")
+    private static String encodeCheckpoint(String csv, int index, long after) {
+        String raw = csv + "|" + index + "|" + after;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCheckpoint(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid resume token");
+            }
+            Integer.parseInt(parts[1]);
+            Long.parseLong(parts[2]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            // también NumberFormatException
+            throw new IllegalArgumentException("Invalid resume token");
+        }
+    }
+
+    /**
+     * Escritura de líneas y contadores de una exportación
+     */
+    private static final class Progress {
+        private final Writer writer;
+        // el generador de cada línea no debe cerrar el writer de la respuesta
+        private final Writer lineWriter;
+        private final String csv;
+        private final long started = System.currentTimeMillis();
+        private long rows;
+        private long sinceCheckpoint;
+
+        Progress(Writer writer, String csv) {
+            this.writer = writer;
+            this.lineWriter = new FilterWriter(writer) {
+                @Override
+                public void close() {
+                }
+            };
+            this.csv = csv;
+        }
+
+        <T> void row(CatalogEntity<T> entity, T row, int index) {
+            try {
+                JsonGenerator g = GENERATORS.createGenerator(lineWriter);
+                g.writeStartObject();
+                g.write("type", entity.name);
+                g.writeKey("data");
+                entity.writer.accept(g, row);
+                g.writeEnd();
+                g.close();
+                writer.write('\n');
+                rows++;
+                if (++sinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                    checkpoint(index, entity.idOf.apply(row));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void checkpoint(int index, long after) throws IOException {
+            sinceCheckpoint = 0;
+            writer.write(Json.createObjectBuilder()
+                    .add("checkpoint", encodeCheckpoint(csv, index, after))
+                    .add("rows", rows)
+                    .add("rowsPerSecond", rowsPerSecond())
+                    .build().toString());
+            writer.write('\n');
+        }
+
+        void done() throws IOException {
+            long millis = System.currentTimeMillis() - started;
+            writer.write(Json.createObjectBuilder()
+                    .add("done", true)
+                    .add("rows", rows)
+                    .add("millis", millis)
+                    .add("rowsPerSecond", rowsPerSecond())
+                    .build().toString());
+            writer.write('\n');
+            System.out.println("  Export: " + rows + " filas de " + csv + " en " + millis + " ms ("
+                    + rowsPerSecond() + " filas/s)");
+        }
+
+        private long rowsPerSecond() {
+            return rows * 1000 / Math.max(1, System.currentTimeMillis() - started);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package service;
+
+import admission.Exempt;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.Map;
+
+/**
+ * Servicio REST para el balanceador de carga
+ *
+ * 1. GET /health/ready → 200 cuando han acabado las tareas de arranque
+ *    (esquema, datos iniciales, índice de búsqueda y cachés); mientras
+ *    tanto 503 con Retry-After, para que no envíe tráfico a un nodo frío.
+ *    El cuerpo lleva el estado de cada tarea.
+ */
+@Stateless
+@Path("health")
+public class HealthREST {
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    @EJB
+    private Readiness readiness;
+
+    @GET
+    @Exempt
+    @Path("ready")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response ready() {
+        boolean ready = readiness.isReady();
+        JsonObjectBuilder checks = Json.createObjectBuilder();
+        for (Map.Entry<String, Boolean> check : readiness.checks().entrySet()) {
+            checks.add(check.getKey(), check.getValue() ? "ready" : "starting");
+        }
+        JsonObjectBuilder body = Json.createObjectBuilder()
+                .add("status", ready ? "ready" : "starting")
+                .add("checks", checks);
+        if (!ready) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", RETRY_AFTER_SECONDS)
+                    .entity(body.build())
+                    .build();
+        }
+        return Response.ok(body.build()).build();
+    }
+}
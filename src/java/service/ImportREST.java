@@ -0,0 +1,251 @@
+package service;
+
+import authn.Secured;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonException;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonReader;
+import jakarta.json.JsonValue;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import model.entities.Comment;
+import model.entities.Customer;
+import model.entities.Model;
+import model.entities.Topic;
+
+/**
+ * POST /import
+ *
+ * Carga un NDJSON generado por GET /export (con Content-Encoding: gzip si
+ * viene comprimido). Se lee línea a línea y se guarda en transacciones de
+ * BatchImport.CHUNK_SIZE filas del mismo tipo, así que la memoria no
+ * depende del tamaño del fichero. Las líneas de checkpoint y la final se
+ * ignoran.
+ *
+ * Las filas se dan de alta con ids nuevos. Las referencias (lastViewedModel
+ * de customers, topic de comments) se traducen con los ids asignados a los
+ * tipos importados antes en el mismo fichero; si no se encuentran quedan
+ * a null. Solo se guardan en memoria esas tablas de ids.
+ */
+@Stateless
+@Path("import")
+public class ImportREST {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @EJB
+    private BatchRunner runner;
+
+    @Inject
+    private Event<EntityChanged> changes;
+
+    @POST
+    @Secured
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    @Consumes(BatchImport.APPLICATION_NDJSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importCatalog(InputStream body, @HeaderParam("Content-Encoding") String encoding)
+            throws IOException {
+        InputStream in = "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(body) : body;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Import state = new Import();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JsonObject object;
+            try (JsonReader json = Json.createReader(new StringReader(line))) {
+                object = json.readObject();
+            } catch (JsonException e) {
+                state.error(lineNumber, "Malformed JSON");
+                continue;
+            }
+            if (!object.containsKey("type")) {
+                continue;
+            }
+            CatalogEntity<?> entity = CatalogEntity.ALL.get(object.getString("type", ""));
+            JsonValue data = object.get("data");
+            if (entity == null || data == null || data.getValueType() != JsonValue.ValueType.OBJECT) {
+                state.error(lineNumber, "Unknown type or missing data");
+                continue;
+            }
+            if (state.entity != entity || state.chunk.size() >= BatchImport.CHUNK_SIZE) {
+                flush(state);
+                state.entity = entity;
+            }
+            state.chunk.add(new Line(lineNumber, data.asJsonObject()));
+        }
+        flush(state);
+        return Response.ok(state.summary(), MediaType.APPLICATION_JSON).build();
+    }
+
+    private void flush(Import state) {
+        if (state.entity != null && !state.chunk.isEmpty()) {
+            persistChunk(state, state.entity, state.chunk);
+        }
+        state.chunk = new ArrayList<>();
+    }
+
+    private <T> void persistChunk(Import state, CatalogEntity<T> entity, List<Line> lines) {
+        List<Line> parsed = new ArrayList<>(lines.size());
+        List<T> rows = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            try {
+                rows.add(JSONB.fromJson(line.data.toString(), entity.type));
+                parsed.add(line);
+            } catch (JsonbException e) {
+                state.error(line.number, "Malformed " + entity.name + " row");
+            }
+        }
+        try {
+            runner.inNewTransaction(() -> {
+                for (int i = 0; i < rows.size(); i++) {
+                    insert(state, entity, parsed.get(i), rows.get(i));
+                }
+            });
+            for (int i = 0; i < rows.size(); i++) {
+                state.imported(entity, parsed.get(i), entity.idOf.apply(rows.get(i)));
+            }
+        } catch (RuntimeException chunkFailed) {
+            // se reintenta fila a fila para quedarse solo sin las que fallan
+            for (int i = 0; i < rows.size(); i++) {
+                Line line = parsed.get(i);
+                T row = rows.get(i);
+                try {
+                    runner.inNewTransaction(() -> insert(state, entity, line, row));
+                    state.imported(entity, line, entity.idOf.apply(row));
+                } catch (RuntimeException e) {
+                    state.error(line.number, "Could not be stored");
+                }
+            }
+        }
+    }
+
+    private <T> void insert(Import state, CatalogEntity<T> entity, Line line, T row) {
+        if (row instanceof Model) {
+            ((Model) row).setId(null);
+            ((Model) row).setVersion(null);
+        } else if (row instanceof Customer) {
+            Customer customer = (Customer) row;
+            customer.setId(null);
+            customer.setVersion(null);
+            Long modelId = state.translate("models", line.data.get("lastViewedModelId"));
+            customer.setLastViewedModel(modelId != null ? em.getReference(Model.class, modelId) : null);
+        } else if (row instanceof Topic) {
+            ((Topic) row).setId(null);
+        } else if (row instanceof Comment) {
+            Comment comment = (Comment) row;
+            comment.setId(null);
+            JsonValue topic = line.data.get("topic");
+            Long topicId = topic != null && topic.getValueType() == JsonValue.ValueType.OBJECT
+                    ? state.translate("topics", topic.asJsonObject().get("id")) : null;
+            comment.setTopic(topicId != null ? em.getReference(Topic.class, topicId) : null);
+        }
+        em.persist(row);
+        changes.fire(new EntityChanged(entity.type, entity.idOf.apply(row), EntityChanged.Kind.CREATED, row));
+    }
+
+    private static final class Line {
+        final int number;
+        final JsonObject data;
+
+        Line(int number, JsonObject data) {
+            this.number = number;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Estado de una importación: bloque en curso, ids traducidos y contadores
+     */
+    private static final class Import {
+        private final long started = System.currentTimeMillis();
+        // tipo -> id en el fichero -> id nuevo
+        private final Map<String, Map<Long, Long>> ids = new HashMap<>();
+        private final Map<String, Long> counts = new LinkedHashMap<>();
+        private final JsonArrayBuilder errors = Json.createArrayBuilder();
+        private CatalogEntity<?> entity;
+        private List<Line> chunk = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        void imported(CatalogEntity<?> entity, Line line, Long newId) {
+            JsonValue oldId = line.data.get("id");
+            if (oldId instanceof JsonNumber) {
+                ids.computeIfAbsent(entity.name, name -> new HashMap<>())
+                        .put(((JsonNumber) oldId).longValue(), newId);
+            }
+            counts.merge(entity.name, 1L, Long::sum);
+            imported++;
+        }
+
+        Long translate(String entityName, JsonValue oldId) {
+            Map<Long, Long> translated = ids.get(entityName);
+            if (translated == null || !(oldId instanceof JsonNumber)) {
+                return null;
+            }
+            return translated.get(((JsonNumber) oldId).longValue());
+        }
+
+        void error(int line, String message) {
+            if (failed++ < MAX_REPORTED_ERRORS) {
+                errors.add(Json.createObjectBuilder().add("line", line).add("error", message));
+            }
+        }
+
+        JsonObject summary() {
+            long millis = System.currentTimeMillis() - started;
+            JsonObjectBuilder byType = Json.createObjectBuilder();
+            for (Map.Entry<String, Long> count : counts.entrySet()) {
+                byType.add(count.getKey(), count.getValue());
+            }
+            System.out.println("  Import: " + imported + " filas, " + failed + " errores en " + millis + " ms");
+            return Json.createObjectBuilder()
+                    .add("imported", imported)
+                    .add("failed", failed)
+                    .add("byType", byType)
+                    .add("millis", millis)
+                    .add("rowsPerSecond", imported * 1000 / Math.max(1, millis))
+                    .add("errors", errors)
+                    .build();
+        }
+    }
+}
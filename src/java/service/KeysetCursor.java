@@ -0,0 +1,106 @@
+package service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Cursor opaco para paginación keyset: guarda el atributo de orden,
+ * el último valor de ese atributo y el último id devuelto.
+ *
+ * Formato (antes de base64url): "sort|tipo|id|valor", donde tipo es
+ * s (String), l (Long), i (Integer) o d (Date, en milisegundos). El valor
+ * va el último porque un String puede contener '|': decode() parte solo
+ * por los tres primeros.
+ */
+final class KeysetCursor {
+    final String sort;
+    final Comparable<?> key;
+    final Long id;
+
+    KeysetCursor(String sort, Comparable<?> key, Long id) {
+        this.sort = sort;
+        this.key = key;
+        this.id = id;
+    }
+
+    String encode() {
+        String type;
+        String value;
+        if (key instanceof Long) {
+            type = "l";
+            value = key.toString();
+        } else if (key instanceof Integer) {
+            type = "i";
+            value = key.toString();
+        } else if (key instanceof Date) {
+            type = "d";
+            value = String.valueOf(((Date) key).getTime());
+        } else {
+            type = "s";
+            value = String.valueOf(key);
+        }
+        String raw = sort + "|" + type + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    static KeysetCursor decode(String cursor) {
+        String[] parts;
+        Comparable<?> key;
+        Long id;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // el valor va al final para que pueda contener '|'
+            parts = raw.split("\\|", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            switch (parts[1]) {
+                case "l":
+                    key = Long.valueOf(parts[3]);
+                    break;
+                case "i":
+                    key = Integer.valueOf(parts[3]);
+                    break;
+                case "d":
+                    key = new Date(Long.parseLong(parts[3]));
+                    break;
+                case "s":
+                    key = parts[3];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Malformed cursor");
+            }
+            id = Long.valueOf(parts[2]);
+        } catch (IllegalArgumentException e) {
+            // también NumberFormatException y base64 inválido, sin su mensaje
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return new KeysetCursor(parts[0], key, id);
+    }
+
+    /**
+     * Comprueba que el valor es del tipo Java del atributo de orden; si no,
+     * la consulta fallaría al enlazar el parámetro
+     *
+     * @throws IllegalArgumentException si no lo es
+     */
+    void checkKeyType(Class<?> type) {
+        if (!boxed(type).isInstance(key)) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        }
+        return type;
+    }
+}
@@ -0,0 +1,75 @@
+package service;
+
+import admission.AdmissionControl;
+import admission.Exempt;
+import authn.CredentialsCache;
+import cluster.ReadRouting;
+import cluster.ReplicaCopier;
+import compression.CompressedCache;
+import jakarta.ejb.EJB;
+import jakarta.ejb.Stateless;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import metrics.PrometheusText;
+import metrics.RequestMetrics;
+
+/**
+ * Servicio REST con las métricas en formato de texto de Prometheus
+ *
+ * 1. GET /metrics → por método de recurso: peticiones por código de estado,
+ *    histograma y percentiles de latencia, tamaños de petición y respuesta
+ *    y resultado de la autenticación; además, la caché de credenciales, la
+ *    compresión gzip, el control de admisión, las lecturas agrupadas y el
+ *    reparto de lecturas entre la réplica y la principal.
+ */
+@Stateless
+@Path("metrics")
+public class MetricsREST {
+
+    @EJB
+    private RequestMetrics metrics;
+
+    @EJB
+    private CredentialsCache credentials;
+
+    @EJB
+    private CompressedCache compression;
+
+    @EJB
+    private AdmissionControl admission;
+
+    @EJB
+    private SingleFlight flights;
+
+    @EJB
+    private ReadRouting routing;
+
+    @EJB
+    private ReplicaCopier copier;
+
+    @GET
+    @Exempt
+    @Produces(PrometheusText.CONTENT_TYPE)
+    public String scrape() {
+        PrometheusText out = new PrometheusText();
+        metrics.writeTo(out);
+
+        String cache = "homework1_credentials_cache";
+        out.family(cache + "_lookups_total", "counter", "Consultas a la caché de credenciales Basic");
+        out.sample(cache + "_lookups_total", PrometheusText.labels("result", "hit"), credentials.getHits());
+        out.sample(cache + "_lookups_total", PrometheusText.labels("result", "miss"), credentials.getMisses());
+        out.sample(cache + "_lookups_total", PrometheusText.labels("result", "rejected"), credentials.getRejectedHits());
+        out.family(cache + "_evictions_total", "counter", "Entradas expulsadas de la caché de credenciales");
+        out.sample(cache + "_evictions_total", "", credentials.getEvictions());
+        out.family(cache + "_entries", "gauge", "Entradas en la caché de credenciales");
+        out.sample(cache + "_entries", "", credentials.size());
+
+        compression.writeTo(out);
+        admission.writeTo(out);
+        flights.writeTo(out);
+        routing.writeTo(out);
+        copier.writeTo(out);
+        return out.toString();
+    }
+}
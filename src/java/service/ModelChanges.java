@@ -0,0 +1,40 @@
+package service;
+
+import java.util.List;
+import model.entities.Model;
+
+/**
+ * Respuesta de GET /models/changes: los modelos creados o modificados desde
+ * el token (en su estado actual), los ids borrados y el token para la
+ * siguiente petición. Con more a true quedan cambios y se puede volver a
+ * pedir enseguida.
+ */
+public class ModelChanges {
+    private final List<Model> models;
+    private final List<Long> deleted;
+    private final String next;
+    private final boolean more;
+
+    public ModelChanges(List<Model> models, List<Long> deleted, String next, boolean more) {
+        this.models = models;
+        this.deleted = deleted;
+        this.next = next;
+        this.more = more;
+    }
+
+    public List<Model> getModels() {
+        return models;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+}
@@ -1,48 +1,75 @@
 package service;
 
+import authn.Identified;
 import authn.Secured;
+import cbor.CborProvider;
+import cluster.ChangeFeed;
+import cluster.ChangeLogEntry;
+import compression.Precompressed;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+import jakarta.json.JsonArray;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericEntity;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.core.UriInfo;
 import model.entities.Model;
+import search.ModelIndex;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Servicio REST para gestionar modelos LLM
- * 
- * TODO PERSONA A: Implementar los siguientes endpoints:
- * 
- * 1. GET /models → Lista todos los modelos (con filtros opcionales)
- *    - Query params: capability (0-2 veces), provider
- *    - Debe usar queries JPQL/NamedQueries (NO filtrar en Java)
- * 
- * 2. GET /models/{id} → Devuelve detalles completos
- *    - Si model.isPrivate() == true y no hay auth → devolver 401
- * 
- * 3. POST /models → Crea modelo (requiere @Secured)
- *    - Validar campos obligatorios
- *    - Devolver 201 Created con Location header
- * 
- * 4. PUT /models/{id} → Actualiza modelo (OPCIONAL, requiere @Secured)
- * 
- * 5. DELETE /models/{id} → Elimina modelo (OPCIONAL, requiere @Secured)
- * 
- * HINTS:
- * - Mirar CommentFacadeREST.java como ejemplo
- * - Para construir JPQL dinámico, usar StringBuilder
- * - Para múltiples capabilities usar: ":capability0 MEMBER OF m.capabilities"
+ *
+ * 1. GET /models → lista con filtros opcionales capability (hasta dos,
+ *    MEMBER OF en la consulta) y provider; también /models/stream,
+ *    /models/page, /models/search y /models/changes
+ * 2. GET /models/{id} → detalle; un modelo privado pide cabecera Authorization
+ * 3. POST /models → alta (@Secured), 201 con Location; POST /models/batch
+ *    para muchas a la vez
+ * 4. PUT /models/{id} → modificación con control optimista (@Secured)
+ * 5. DELETE /models/{id} → baja (@Secured)
+ *
+ * Las lecturas son @Suspended y se hacen con permiso de AsyncReads, a
+ * través de la vista EJB (self()) para que tengan transacción.
  */
 @Stateless
 @Path("models")
 public class ModelFacadeREST extends AbstractFacade<Model> {
+    private static final Set<String> SORTABLE = new HashSet<>(Arrays.asList("id", "name", "provider"));
+    private static final String VIEW_SUMMARY = "summary";
+    private static final String VIEW_FULL = "full";
+    private static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
 
     @PersistenceContext(unitName = "Homework1PU")
     private EntityManager em;
@@ -50,149 +77,566 @@ public class ModelFacadeREST extends AbstractFacade<Model> {
     @Context
     private UriInfo uriInfo;
 
+    @Context
+    private Request request;
+
+    @EJB
+    private EntityStreamer streamer;
+
+    @EJB
+    private ModelIndex index;
+
+    @EJB
+    private BatchRunner runner;
+
+    @EJB
+    private AsyncReads reads;
+
+    @EJB
+    private ModelViews views;
+
+    @Resource
+    private SessionContext context;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Inject
+    private Validator validator;
+
     public ModelFacadeREST() {
         super(Model.class);
     }
 
+    /**
+     * Vista EJB de este facade, para que las lecturas de AsyncReads tengan transacción
+     */
+    private ModelFacadeREST self() {
+        return context.getBusinessObject(ModelFacadeREST.class);
+    }
+
     /**
      * GET /models
-     * 
-     * TODO PERSONA A: Implementar listado con filtros
-     * 
-     * Casos a manejar:
-     * 1. Sin filtros → usar NamedQuery "Model.findAll"
-     * 2. Solo provider → usar NamedQuery "Model.findByProvider"
-     * 3. Con capabilities (1 o 2) → construir JPQL dinámico:
-     *    "SELECT m FROM Model m WHERE :capability0 MEMBER OF m.capabilities [AND :capability1 MEMBER OF m.capabilities] [AND LOWER(m.provider) = LOWER(:provider)] ORDER BY m.name"
-     * 4. Validar que no haya más de 2 capabilities → devolver 400 Bad Request
+     *
+     * Lista los modelos por nombre. Con capability (una o dos) solo los que
+     * tienen todas, y con provider solo los de ese proveedor, sin distinguir
+     * mayúsculas (ver findAllQuery). Más de dos capabilities es 400.
+     *
+     * Responde con un ETag de la lista calculado de los pares (id, version);
+     * si coincide con If-None-Match devuelve 304 sin cargar los modelos.
+     *
+     * Representaciones:
+     * - por defecto, el modelo completo (listas cargadas con el grafo "Model.full")
+     * - view=summary → ModelSummary, proyección sin listas
+     * - fields=a,b,... → solo esos campos, en JSON (ver ModelFields)
+     *
+     * Además de JSON y XML, con Accept: application/cbor las dos primeras se
+     * envían en CBOR (ver cbor.CborProvider).
+     *
+     * Las peticiones concurrentes con los mismos filtros y el mismo ETag
+     * comparten una sola carga de la lista (ver SingleFlight).
+     *
+     * Con Accept-Encoding: gzip, la lista comprimida se guarda por URI, tipo
+     * y ETag, y mientras el catálogo no cambia se sirve sin volver a
+     * serializarla ni comprimirla (ver CompressedCache).
      * 
      * @param capabilities Lista de capabilities (puede estar vacía)
      * @param provider Proveedor opcional
-     * @return Response con lista de modelos o error
      */
     @GET
-    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    public Response findAll(
+    @Precompressed
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    public void findAll(
             @QueryParam("capability") List<String> capabilities,
-            @QueryParam("provider") String provider) {
-        
-        // TODO PERSONA A: Implementar la lógica de filtrado
-        // 1. Verificar si capabilities es null o vacía y provider es null → usar Model.findAll
-        // 2. Si solo hay provider (sin capabilities) → usar Model.findByProvider
-        // 3. Si hay capabilities:
-        //    - Validar que capabilities.size() <= 2
-        //    - Construir query JPQL dinámica
-        //    - Añadir condiciones para cada capability
-        //    - Añadir condición de provider si existe
-        // 4. Ejecutar query y devolver Response.ok(models)
-        // 5. Capturar excepciones y devolver Response.status(500) con mensaje de error
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO: Implementar findAll\"}")
-                .build();
+            @QueryParam("provider") String provider,
+            @QueryParam("fields") String fields,
+            @QueryParam("view") String view,
+            @Context Request request,
+            @Suspended AsyncResponse response) {
+        ModelFacadeREST self = self();
+        reads.submit(response, () -> self.loadAll(capabilities, provider, fields, view, request));
     }
 
     /**
-     * GET /models/{id}
+     * GET /models, con permiso de AsyncReads
+     */
+    public Response loadAll(List<String> capabilities, String provider, String fields, String view,
+            Request request) {
+        if (capabilities != null && capabilities.size() > 2) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "Maximum 2 capabilities allowed")
+                    .build();
+        }
+        ModelFields sparse;
+        try {
+            sparse = ModelFields.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
+        boolean summary = VIEW_SUMMARY.equals(view);
+        if ((view != null && !summary && !VIEW_FULL.equals(view)) || (sparse != null && view != null)) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "Use view=summary|full or fields, not both")
+                    .build();
+        }
+        EntityManager reader = reader();
+        // el ETag sale de una proyección (id, version): si el cliente ya tiene
+        // esta versión de la lista no se cargan ni serializan los modelos
+        EntityTag tag = variantTag(listTag(versionsQuery(reader, capabilities, provider).getResultList()),
+                sparse != null ? sparse.variant() : summary ? VIEW_SUMMARY : null);
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        // misma lista con el mismo ETag: las peticiones concurrentes comparten la carga
+        if (sparse != null) {
+            JsonArray json = loadShared(() -> sparse.toJson(reader,
+                    filteredQuery(reader, sparse.select(), Tuple.class, capabilities, provider).getResultList()),
+                    "list", capabilities, provider, sparse.variant(), tag);
+            return Response.ok(json, MediaType.APPLICATION_JSON).tag(tag).build();
+        }
+        if (summary) {
+            GenericEntity<List<ModelSummary>> summaries = loadShared(
+                    () -> new GenericEntity<List<ModelSummary>>(filteredQuery(reader, ModelSummary.SELECT,
+                            ModelSummary.class, capabilities, provider).getResultList()) {},
+                    "list", capabilities, provider, VIEW_SUMMARY, tag);
+            return Response.ok(summaries).tag(tag).build();
+        }
+        GenericEntity<List<Model>> models = loadShared(
+                () -> new GenericEntity<List<Model>>(findAllQuery(reader, capabilities, provider)
+                        .setHint(LOAD_GRAPH, reader.getEntityGraph("Model.full"))
+                        .getResultList()) {},
+                "list", capabilities, provider, VIEW_FULL, tag);
+        return Response.ok(models).tag(tag).build();
+    }
+
+    /**
+     * GET /models/stream
      * 
-     * TODO PERSONA A: Implementar obtención de modelo por ID
+     * Mismos filtros que GET /models, pero el JSON se escribe en streaming
+     * desde un cursor, con memoria constante sea cual sea el catálogo.
+     */
+    @GET
+    @Path("stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response streamAll(
+            @QueryParam("capability") List<String> capabilities,
+            @QueryParam("provider") String provider) {
+        if (capabilities != null && capabilities.size() > 2) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "Maximum 2 capabilities allowed")
+                    .build();
+        }
+        return streamResponse(streamer,
+                entityManager -> findAllQuery(entityManager, capabilities, provider),
+                EntityJson::write);
+    }
+
+    /**
+     * Consulta de GET /models: NamedQueries sin filtros o solo con provider,
+     * JPQL dinámico con MEMBER OF cuando hay capabilities.
+     */
+    static TypedQuery<Model> findAllQuery(EntityManager em, List<String> capabilities, String provider) {
+        if (capabilities == null || capabilities.isEmpty()) {
+            if (provider == null) {
+                return em.createNamedQuery("Model.findAll", Model.class);
+            }
+            return em.createNamedQuery("Model.findByProvider", Model.class)
+                    .setParameter("provider", provider);
+        }
+        return filteredQuery(em, "SELECT m", Model.class, capabilities, provider);
+    }
+
+    /**
+     * Mismos filtros que findAllQuery, proyectando solo (id, version) para el ETag
+     */
+    static TypedQuery<Object[]> versionsQuery(EntityManager em, List<String> capabilities, String provider) {
+        return filteredQuery(em, "SELECT m.id, m.version", Object[].class, capabilities, provider);
+    }
+
+    static <R> TypedQuery<R> filteredQuery(EntityManager em, String select, Class<R> resultType,
+            List<String> capabilities, String provider) {
+        StringBuilder jpql = new StringBuilder(select).append(" FROM Model m");
+        String glue = " WHERE ";
+        int capabilityCount = capabilities != null ? capabilities.size() : 0;
+        for (int i = 0; i < capabilityCount; i++) {
+            jpql.append(glue).append(":capability").append(i).append(" MEMBER OF m.capabilities");
+            glue = " AND ";
+        }
+        if (provider != null) {
+            jpql.append(glue).append("LOWER(m.provider) = LOWER(:provider)");
+        }
+        jpql.append(" ORDER BY m.name, m.id");
+
+        TypedQuery<R> query = em.createQuery(jpql.toString(), resultType);
+        for (int i = 0; i < capabilityCount; i++) {
+            query.setParameter("capability" + i, capabilities.get(i));
+        }
+        if (provider != null) {
+            query.setParameter("provider", provider);
+        }
+        return query;
+    }
+
+    /**
+     * GET /models/search?q=&limit=
      * 
-     * Pasos:
-     * 1. Buscar model con super.find(id)
-     * 2. Si model == null → devolver 404 Not Found
-     * 3. Si model.isPrivate() == true Y authHeader es null/vacío → devolver 401 Unauthorized
-     * 4. Si todo OK → devolver 200 con el modelo
+     * Búsqueda de texto con ranking BM25 sobre name, summary, description y
+     * capabilities, servida desde el índice en memoria (ModelIndex).
+     * Como en GET /models, los modelos privados también aparecen: solo su
+     * detalle (GET /models/{id}) pide autenticación.
+     */
+    @GET
+    @Path("search")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    public void search(@QueryParam("q") String q,
+            @QueryParam("limit") @DefaultValue("20") int limit,
+            @Suspended AsyncResponse response) {
+        ModelFacadeREST self = self();
+        reads.submit(response, () -> self.loadSearch(q, limit));
+    }
+
+    /**
+     * GET /models/search, con permiso de AsyncReads
+     */
+    public Response loadSearch(String q, int limit) {
+        if (q == null || q.trim().isEmpty()) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "Query parameter q is required")
+                    .build();
+        }
+        List<ModelIndex.Hit> hits = index.search(q, Math.min(limit, MAX_PAGE_SIZE));
+        if (hits.isEmpty()) {
+            return Response.ok(new GenericEntity<List<Model>>(new ArrayList<Model>()) {}).build();
+        }
+
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (ModelIndex.Hit hit : hits) {
+            ids.add(hit.getModelId());
+        }
+        Map<Long, Model> byId = new HashMap<>();
+        for (Model model : reader().createQuery("SELECT m FROM Model m WHERE m.id IN :ids", Model.class)
+                .setParameter("ids", ids)
+                .getResultList()) {
+            byId.put(model.getId(), model);
+        }
+        List<Model> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (byId.containsKey(id)) {
+                ranked.add(byId.get(id));
+            }
+        }
+        return Response.ok(new GenericEntity<List<Model>>(ranked) {}).build();
+    }
+
+    /**
+     * GET /models/page?cursor=&limit=&sort=
+     *
+     * Paginación keyset ordenada por id, name o provider.
+     * La siguiente página va en la cabecera Link rel="next".
+     */
+    @GET
+    @Path("page")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    public void findPage(@QueryParam("cursor") String cursor,
+            @QueryParam("limit") @DefaultValue("20") int limit,
+            @QueryParam("sort") String sort,
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse response) {
+        ModelFacadeREST self = self();
+        reads.submit(response, () -> self.loadPage(cursor, limit, sort, uriInfo));
+    }
+
+    /**
+     * GET /models/page, con permiso de AsyncReads
+     */
+    public Response loadPage(String cursor, int limit, String sort, UriInfo uriInfo) {
+        try {
+            Page<Model> page = super.findAfter(cursor, Math.min(limit, MAX_PAGE_SIZE), sort);
+            return pageResponse(page, new GenericEntity<List<Model>>(page.getItems()) {}, uriInfo);
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * GET /models/changes?since=&limit=
+     *
+     * Sincronización por deltas: los modelos creados, modificados o borrados
+     * desde el token since, y el token para la siguiente petición (ver
+     * ModelChanges). Sin since solo devuelve el token actual: se pide antes
+     * de la carga completa con GET /models.
+     *
+     * La secuencia de cambios es la de CHANGE_LOG (ver cluster.ChangeFeed).
+     * Un token caducado es 410 Gone y hay que volver a cargar la lista.
+     * Los modelos privados se envían igual que en GET /models, para que la
+     * copia del cliente coincida con la lista completa.
+     */
+    @GET
+    @Path("changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void changes(@QueryParam("since") String since,
+            @QueryParam("limit") @DefaultValue("100") int limit,
+            @Suspended AsyncResponse response) {
+        ModelFacadeREST self = self();
+        reads.submit(response, () -> self.loadChanges(since, limit));
+    }
+
+    /**
+     * GET /models/changes, con permiso de AsyncReads
+     */
+    public Response loadChanges(String since, int limit) {
+        if (limit <= 0) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, "limit must be positive")
+                    .build();
+        }
+        EntityManager reader = reader();
+        ChangeFeed feed;
+        try {
+            feed = ChangeFeed.read(reader, reader.getMetamodel().entity(Model.class).getName(), since,
+                    Math.min(limit, MAX_PAGE_SIZE));
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        } catch (IllegalStateException e) {
+            return ErrorResponse.of(Response.Status.GONE, e.getMessage())
+                    .build();
+        }
+
+        // cada modelo una vez, en el orden de su último cambio
+        Set<Long> ids = new LinkedHashSet<>();
+        for (ChangeLogEntry entry : feed.getEntries()) {
+            ids.remove(entry.getEntityId());
+            ids.add(entry.getEntityId());
+        }
+        Map<Long, Model> byId = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Model model : reader.createQuery("SELECT m FROM Model m WHERE m.id IN :ids", Model.class)
+                    .setParameter("ids", ids)
+                    .setHint(LOAD_GRAPH, reader.getEntityGraph("Model.full"))
+                    .getResultList()) {
+                byId.put(model.getId(), model);
+            }
+        }
+        List<Model> models = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long id : ids) {
+            Model model = byId.get(id);
+            if (model != null) {
+                models.add(model);
+            } else {
+                deleted.add(id);
+            }
+        }
+        return Response.ok(new ModelChanges(models, deleted, feed.getNext(), feed.isMore())).build();
+    }
+
+    /**
+     * GET /models/{id}
+     *
+     * Devuelve el modelo con todas sus colecciones, o 404 si no existe. Un
+     * modelo privado sin cabecera Authorization es 401.
+     *
+     * Responde con ETag "id.version"; si coincide con If-None-Match
+     * devuelve 304 sin cuerpo.
+     *
+     * Las peticiones concurrentes al mismo id comparten una sola lectura
+     * (ver SingleFlight).
+     *
+     * Con credenciales válidas, la vista se anota como lastViewedModel del
+     * cliente del mismo username, con escritura diferida (ver ModelViews).
      * 
      * @param id ID del modelo
      * @param authHeader Header de autorización (puede ser null)
-     * @return Response con modelo o error
      */
     @GET
+    @Identified
     @Path("{id}")
-    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    public Response find(@PathParam("id") Long id, @HeaderParam("Authorization") String authHeader) {
-        // TODO PERSONA A: Implementar búsqueda por ID
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO: Implementar find\"}")
-                .build();
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    public void find(@PathParam("id") Long id, @HeaderParam("Authorization") String authHeader,
+            @Context Request request, @Context SecurityContext security, @Suspended AsyncResponse response) {
+        ModelFacadeREST self = self();
+        String viewer = security.getUserPrincipal() != null ? security.getUserPrincipal().getName() : null;
+        reads.submit(response, () -> self.load(id, authHeader, viewer, request));
+    }
+
+    /**
+     * GET /models/{id}, con permiso de AsyncReads
+     */
+    public Response load(Long id, String authHeader, String viewer, Request request) {
+        // con el grafo completo: la misma instancia puede serializarse en varias peticiones
+        Model model = super.findShared(id,
+                Collections.singletonMap(LOAD_GRAPH, reader().getEntityGraph("Model.full")));
+        if (model == null) {
+            return ErrorResponse.of(Response.Status.NOT_FOUND, "Model not found")
+                    .build();
+        }
+        if (model.isPrivate() && (authHeader == null || authHeader.isEmpty())) {
+            return ErrorResponse.of(Response.Status.UNAUTHORIZED, "Authentication required")
+                    .build();
+        }
+        if (viewer != null) {
+            views.record(viewer, model.getId());
+        }
+        EntityTag tag = entityTag(model.getId(), model.getVersion());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.build();
+        }
+        return Response.ok(model).tag(tag).build();
     }
 
     /**
      * POST /models
-     * 
-     * TODO PERSONA A: Implementar creación de modelo
-     * 
-     * Pasos:
-     * 1. Validar que model.getName() no sea null ni vacío → 400 Bad Request
-     * 2. Validar que model.getProvider() no sea null ni vacío → 400 Bad Request
-     * 3. Validar que maxContextTokens (si existe) sea > 0 → 400 Bad Request
-     * 4. Persistir con super.create(model)
-     * 5. Construir URI del nuevo recurso: uriInfo.getAbsolutePathBuilder().path(model.getId().toString()).build()
-     * 6. Devolver Response.created(location).entity(model).build()
-     * 
+     *
+     * Da de alta el modelo y devuelve 201 con el modelo creado y su URI en
+     * Location. Sin name o provider, o con maxContextTokens que no sea
+     * positivo, es 400.
+     *
      * @param model Modelo a crear (desde JSON)
      * @return Response 201 Created o error
      */
     @POST
     @Secured
-    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    public Response create(Model model) {
-        // TODO PERSONA A: Implementar creación con validaciones
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO: Implementar create\"}")
+    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    public Response createREST(Model model) {
+        Response invalid = validate(model);
+        if (invalid != null) {
+            return invalid;
+        }
+        super.create(model);
+        URI location = uriInfo.getAbsolutePathBuilder()
+                .path(model.getId().toString())
+                .build();
+        return Response.created(location)
+                .entity(model)
                 .build();
     }
 
+    /**
+     * POST /models/batch
+     *
+     * Alta masiva: array JSON o NDJSON (application/x-ndjson) con hasta
+     * BatchImport.MAX_ITEMS modelos. Devuelve 200 con el resultado de cada
+     * elemento (201 + id, o 400/409 + error); 400 si el cuerpo no se puede leer.
+     * Sin transacción propia: cada bloque confirma por separado.
+     */
+    @POST
+    @Path("batch")
+    @Secured
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    @Consumes({MediaType.APPLICATION_JSON, BatchImport.APPLICATION_NDJSON})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createBatch(InputStream body, @HeaderParam("Content-Type") MediaType contentType)
+            throws IOException {
+        BatchImport<Model> batch;
+        try {
+            batch = BatchImport.read(Model.class, body, contentType);
+        } catch (IllegalArgumentException e) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, e.getMessage())
+                    .build();
+        }
+        batch.validate(validator, ModelFacadeREST::validationError, executor);
+        batch.persist(runner, model -> {
+            model.setId(null);
+            model.setVersion(null);
+            super.create(model);
+        }, Model::getId);
+        return batch.response();
+    }
+
     /**
      * PUT /models/{id}
-     * OPCIONAL
-     * 
-     * TODO PERSONA A (OPCIONAL): Implementar actualización
-     * 
-     * Pasos:
-     * 1. Buscar modelo existente con super.find(id)
-     * 2. Si no existe → 404 Not Found
-     * 3. Asignar id al modelo recibido: model.setId(id)
-     * 4. Actualizar con super.edit(model)
-     * 5. Devolver 200 OK con modelo actualizado
+     *
+     * Sustituye el modelo con id por el del cuerpo (el id del cuerpo no
+     * cuenta) y devuelve 200 con el resultado y su nuevo ETag. 404 si no
+     * existe y 400 con las mismas validaciones que POST.
+     *
+     * Con If-Match (o un campo version en el cuerpo) que no corresponda a la
+     * versión actual devuelve 412 en lugar de pisar el cambio de otro cliente.
      */
     @PUT
     @Path("{id}")
     @Secured
-    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
-    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    @Consumes({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, CborProvider.APPLICATION_CBOR})
     public Response edit(@PathParam("id") Long id, Model model) {
-        // TODO PERSONA A (OPCIONAL): Implementar actualización
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO OPCIONAL: Implementar edit\"}")
-                .build();
+        Model existing = super.find(id);
+        if (existing == null) {
+            return ErrorResponse.of(Response.Status.NOT_FOUND, "Model not found")
+                    .build();
+        }
+        Response.ResponseBuilder failed = request.evaluatePreconditions(
+                entityTag(existing.getId(), existing.getVersion()));
+        if (failed != null) {
+            return failed.build();
+        }
+        Response invalid = validate(model);
+        if (invalid != null) {
+            return invalid;
+        }
+        model.setId(id);
+        if (model.getVersion() == null) {
+            model.setVersion(existing.getVersion());
+        }
+        try {
+            Model updated = super.edit(model);
+            em.flush();
+            return Response.ok(updated)
+                    .tag(entityTag(updated.getId(), updated.getVersion()))
+                    .build();
+        } catch (OptimisticLockException e) {
+            return ErrorResponse.of(Response.Status.PRECONDITION_FAILED, "Model was modified by another request")
+                    .build();
+        }
     }
 
     /**
      * DELETE /models/{id}
-     * OPCIONAL
-     * 
-     * TODO PERSONA A (OPCIONAL): Implementar eliminación
-     * 
-     * Pasos:
-     * 1. Buscar modelo con super.find(id)
-     * 2. Si no existe → 404 Not Found
-     * 3. Eliminar con super.remove(model)
-     * 4. Devolver 204 No Content
+     *
+     * Borra el modelo y devuelve 204, o 404 si no existe.
      */
     @DELETE
     @Path("{id}")
     @Secured
     public Response remove(@PathParam("id") Long id) {
-        // TODO PERSONA A (OPCIONAL): Implementar eliminación
-        
-        return Response.status(Response.Status.NOT_IMPLEMENTED)
-                .entity("{\"error\": \"TODO OPCIONAL: Implementar remove\"}")
-                .build();
+        Model model = super.find(id);
+        if (model == null) {
+            return ErrorResponse.of(Response.Status.NOT_FOUND, "Model not found")
+                    .build();
+        }
+        super.remove(model);
+        return Response.noContent().build();
+    }
+
+    /**
+     * Validaciones comunes de POST y PUT
+     * @return respuesta 400 si el modelo no es válido, null si lo es
+     */
+    private static Response validate(Model model) {
+        String error = validationError(model);
+        if (error != null) {
+            return ErrorResponse.of(Response.Status.BAD_REQUEST, error)
+                    .build();
+        }
+        return null;
+    }
+
+    private static String validationError(Model model) {
+        if (model.getName() == null || model.getName().trim().isEmpty()) {
+            return "Model name is required";
+        }
+        if (model.getProvider() == null || model.getProvider().trim().isEmpty()) {
+            return "Model provider is required";
+        }
+        if (model.getMaxContextTokens() != null && model.getMaxContextTokens() <= 0) {
+            return "maxContextTokens must be positive";
+        }
+        return null;
+    }
+
+    @Override
+    protected Set<String> sortableAttributes() {
+        return SORTABLE;
     }
 
     @Override
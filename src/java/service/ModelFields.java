@@ -0,0 +1,132 @@
+package service;
+
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse fieldset de Model (GET /models?fields=name,provider,capabilities).
+ *
+ * Los atributos simples se leen con una proyección de solo esas columnas;
+ * cada lista pedida se carga con una consulta IN por bloques de ids. Las
+ * listas no pedidas no se tocan. El id va siempre.
+ */
+final class ModelFields {
+    private static final Set<String> BASIC = new HashSet<>(Arrays.asList(
+            "id", "version", "name", "provider", "summary", "description", "license",
+            "maxContextTokens", "isPrivate", "logoUrl", "lastVersion", "trainingDate", "lastUpdateDate"));
+    private static final Set<String> COLLECTIONS = new HashSet<>(Arrays.asList(
+            "capabilities", "inputTypes", "outputTypes", "versions"));
+    private static final int IN_CHUNK = 500;
+
+    private final List<String> basic = new ArrayList<>();
+    private final List<String> collections = new ArrayList<>();
+
+    private ModelFields() {
+        basic.add("id");
+    }
+
+    /**
+     * @return null si no se ha pedido ningún campo
+     * @throws IllegalArgumentException si algún campo no existe
+     */
+    static ModelFields parse(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        ModelFields parsed = new ModelFields();
+        for (String field : fields.split(",")) {
+            field = field.trim();
+            if (BASIC.contains(field)) {
+                if (!parsed.basic.contains(field)) {
+                    parsed.basic.add(field);
+                }
+            } else if (COLLECTIONS.contains(field)) {
+                if (!parsed.collections.contains(field)) {
+                    parsed.collections.add(field);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Cláusula SELECT sobre el alias m
+     */
+    String select() {
+        return "SELECT m." + String.join(", m.", basic);
+    }
+
+    /**
+     * Identifica la representación, para distinguir su ETag
+     */
+    String variant() {
+        return String.join(",", basic) + ";" + String.join(",", collections);
+    }
+
+    JsonArray toJson(EntityManager em, List<Tuple> rows) {
+        Map<Long, JsonObjectBuilder> objects = new LinkedHashMap<>();
+        for (Tuple row : rows) {
+            JsonObjectBuilder object = Json.createObjectBuilder();
+            for (int i = 0; i < basic.size(); i++) {
+                add(object, basic.get(i), row.get(i));
+            }
+            objects.put((Long) row.get(0), object);
+        }
+        List<Long> ids = new ArrayList<>(objects.keySet());
+        for (String collection : collections) {
+            Map<Long, JsonArrayBuilder> values = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Object[]> pairs = em.createQuery("SELECT m.id, v FROM Model m JOIN m." + collection
+                        + " v WHERE m.id IN :ids", Object[].class)
+                        .setParameter("ids", ids.subList(from, Math.min(from + IN_CHUNK, ids.size())))
+                        .getResultList();
+                for (Object[] pair : pairs) {
+                    values.computeIfAbsent((Long) pair[0], id -> Json.createArrayBuilder()).add((String) pair[1]);
+                }
+            }
+            for (Map.Entry<Long, JsonObjectBuilder> object : objects.entrySet()) {
+                JsonArrayBuilder list = values.get(object.getKey());
+                object.getValue().add(collection, list != null ? list : Json.createArrayBuilder());
+            }
+        }
+        JsonArrayBuilder array = Json.createArrayBuilder();
+        for (JsonObjectBuilder object : objects.values()) {
+            array.add(object);
+        }
+        return array.build();
+    }
+
+    // mismo formato que EntityJson: nulos omitidos, fechas ISO-8601 en UTC
+    private static void add(JsonObjectBuilder object, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String) {
+            object.add(name, (String) value);
+        } else if (value instanceof Boolean) {
+            object.add(name, (Boolean) value);
+        } else if (value instanceof Number) {
+            object.add(name, ((Number) value).longValue());
+        } else if (value instanceof Date) {
+            object.add(name, Instant.ofEpochMilli(((Date) value).getTime()).toString());
+        } else {
+            object.add(name, value.toString());
+        }
+    }
+}
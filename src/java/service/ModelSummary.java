@@ -0,0 +1,75 @@
+package service;
+
+import jakarta.json.bind.annotation.JsonbProperty;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Vista compacta de Model (GET /models?view=summary).
+ *
+ * Se construye directamente en la consulta con
+ * SELECT NEW service.ModelSummary(...), así que no se cargan la entidad
+ * ni sus listas.
+ */
+@XmlRootElement
+public class ModelSummary {
+    static final String SELECT = "SELECT NEW service.ModelSummary(m.id, m.name, m.provider, m.summary, m.isPrivate)";
+
+    private Long id;
+    private String name;
+    private String provider;
+    private String summary;
+    private boolean isPrivate;
+
+    public ModelSummary() {
+    }
+
+    public ModelSummary(Long id, String name, String provider, String summary, boolean isPrivate) {
+        this.id = id;
+        this.name = name;
+        this.provider = provider;
+        this.summary = summary;
+        this.isPrivate = isPrivate;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    @JsonbProperty("isPrivate")
+    public boolean isPrivate() {
+        return isPrivate;
+    }
+
+    @JsonbProperty("isPrivate")
+    public void setPrivate(boolean isPrivate) {
+        this.isPrivate = isPrivate;
+    }
+}
@@ -0,0 +1,182 @@
+package service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.EJBException;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.Timeout;
+import jakarta.ejb.TimerConfig;
+import jakarta.ejb.TimerService;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import model.entities.Customer;
+import model.entities.Model;
+
+/**
+ * Customer.lastViewedModel con escritura diferida.
+ *
+ * GET /models/{id} solo anota la vista en memoria, por usuario, y se queda
+ * con la última: leer un modelo no abre una transacción de escritura. Cada
+ * homework1.views.flushMillis (1000 por defecto) las vistas pendientes se
+ * escriben en una transacción, y el batch-writing de EclipseLink las manda
+ * en lotes de UPDATE; también se escriben al parar la aplicación.
+ *
+ * Una vista sale de la memoria solo cuando su transacción ha confirmado, y
+ * si entretanto llega otra del mismo usuario se queda la nueva. Así
+ * GET /customer/{id} puede consultar pending() y nunca enseña un link más
+ * viejo que la base de datos.
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ModelViews {
+    private static final long FLUSH_MILLIS = Long.getLong("homework1.views.flushMillis", 1000L);
+    private static final int BATCH_SIZE = 500;
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @Resource
+    private TimerService timerService;
+
+    @Resource
+    private SessionContext context;
+
+    @Inject
+    private Event<EntityChanged> changes;
+
+    // username -> id del último modelo visto, aún sin escribir
+    private final ConcurrentMap<String, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        timerService.createIntervalTimer(FLUSH_MILLIS, FLUSH_MILLIS, new TimerConfig(null, false));
+    }
+
+    /**
+     * Anota que username ha visto el modelo; sustituye a la vista pendiente anterior
+     */
+    public void record(String username, Long modelId) {
+        pending.put(username, modelId);
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * @return el último modelo visto por username aún sin escribir, o null
+     */
+    public Long pending(String username) {
+        return pending.get(username);
+    }
+
+    @Timeout
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Long> batch = new HashMap<>(pending);
+        try {
+            written.addAndGet(context.getBusinessObject(ModelViews.class).write(batch));
+        } catch (EJBException e) {
+            // p. ej. un PUT concurrente al mismo cliente: el lote sigue pendiente y se reintenta
+            System.err.println("  ModelViews: no se pudieron escribir " + batch.size() + " vistas: " + e.getMessage());
+            return;
+        }
+        // solo las que no han cambiado mientras se escribían
+        batch.forEach(pending::remove);
+    }
+
+    @PreDestroy
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void shutdown() {
+        if (!pending.isEmpty()) {
+            System.out.println("  ModelViews: escribiendo " + pending.size() + " vistas pendientes");
+            write(new HashMap<>(pending));
+        }
+    }
+
+    /**
+     * Pone lastViewedModel a los clientes de batch, en una transacción nueva
+     * (o en la de shutdown, que lo llama sin pasar por el contenedor)
+     *
+     * @return clientes actualizados
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int write(Map<String, Long> batch) {
+        // un modelo borrado entretanto rompería la FK de todo el lote
+        Set<Long> models = new HashSet<>();
+        int updated = 0;
+        List<Long> modelIds = new ArrayList<>(new HashSet<>(batch.values()));
+        for (List<Long> chunk : chunks(modelIds)) {
+            models.addAll(em.createQuery("SELECT m.id FROM Model m WHERE m.id IN :ids", Long.class)
+                    .setParameter("ids", chunk)
+                    .getResultList());
+        }
+        for (List<String> chunk : chunks(new ArrayList<>(batch.keySet()))) {
+            List<Customer> customers = em.createQuery(
+                    "SELECT c FROM Customer c WHERE c.username IN :usernames", Customer.class)
+                    .setParameter("usernames", chunk)
+                    .getResultList();
+            for (Customer customer : customers) {
+                Long modelId = batch.get(customer.getUsername());
+                if (!models.contains(modelId) || modelId.equals(customer.getLastViewedModelId())) {
+                    continue;
+                }
+                customer.setLastViewedModel(em.getReference(Model.class, modelId));
+                changes.fire(new EntityChanged(Customer.class, customer.getId(),
+                        EntityChanged.Kind.UPDATED, customer));
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += BATCH_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + BATCH_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Vistas pendientes de escribir
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Vistas anotadas desde el arranque, incluidas las que se sustituyeron antes de escribirse
+     */
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    /**
+     * Clientes actualizados desde el arranque
+     */
+    public long getWritten() {
+        return written.get();
+    }
+}
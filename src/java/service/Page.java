@@ -0,0 +1,25 @@
+package service;
+
+import java.util.List;
+
+/**
+ * Resultado de AbstractFacade.findAfter: una página de entidades y el
+ * cursor opaco para pedir la siguiente (null si es la última).
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
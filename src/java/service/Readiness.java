@@ -0,0 +1,43 @@
+package service;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Estado de las tareas de arranque que tienen que acabar antes de recibir
+ * tráfico: esquema, datos iniciales, índice y cachés calientes.
+ *
+ * Cada una se da de alta con starting al empezar y se marca con ready al
+ * acabar; el nodo está listo cuando hay alguna y todas han acabado. Lo
+ * consulta GET /health/ready (ver HealthREST).
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class Readiness {
+
+    private final ConcurrentMap<String, Boolean> checks = new ConcurrentHashMap<>();
+
+    public void starting(String check) {
+        checks.putIfAbsent(check, Boolean.FALSE);
+    }
+
+    public void ready(String check) {
+        checks.put(check, Boolean.TRUE);
+    }
+
+    public boolean isReady() {
+        return !checks.isEmpty() && !checks.containsValue(Boolean.FALSE);
+    }
+
+    /**
+     * Copia ordenada por nombre: tarea -> si ha acabado
+     */
+    public Map<String, Boolean> checks() {
+        return new TreeMap<>(checks);
+    }
+}
@@ -0,0 +1,101 @@
+package service;
+
+import jakarta.ejb.ConcurrencyManagement;
+import jakarta.ejb.ConcurrencyManagementType;
+import jakarta.ejb.Singleton;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import metrics.PrometheusText;
+
+/**
+ * Agrupa las lecturas concurrentes iguales en una sola consulta.
+ *
+ * La primera llamada con una clave hace la carga en su hilo y transacción;
+ * las que llegan mientras tanto con la misma clave esperan su resultado en
+ * lugar de ir a la base de datos. Así, cuando un modelo muy pedido cambia,
+ * las peticiones que fallan a la vez no se reparten las conexiones del pool
+ * para leer lo mismo.
+ *
+ * Si la carga compartida falla o tarda más de homework1.singleflight.timeoutMillis
+ * (2000 por defecto), cada una hace la suya. El resultado lo leen varias
+ * peticiones a la vez: no se puede modificar, y las relaciones LAZY tienen
+ * que venir ya cargadas.
+ *
+ * Las claves son listas (ver key): tipo de entidad, id y si se lee de la
+ * réplica, o la firma de los filtros de una consulta.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class SingleFlight {
+    private static final long TIMEOUT_MILLIS = Long.getLong("homework1.singleflight.timeoutMillis", 2000);
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public static List<Object> key(Object... parts) {
+        return Arrays.asList(parts);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V load(List<Object> key, Supplier<V> loader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> flight = flights.putIfAbsent(key, mine);
+        if (flight == null) {
+            loads.increment();
+            try {
+                V value = loader.get();
+                mine.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(key, mine);
+            }
+        }
+        try {
+            V value = (V) flight.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            shared.increment();
+            return value;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // se carga por su cuenta
+        }
+        fallbacks.increment();
+        return loader.get();
+    }
+
+    /**
+     * Una carga que empezó antes de confirmarse un cambio puede devolver la
+     * entidad anterior: las peticiones que llegan después ya no se unen a ella.
+     * Las consultas de listas llevan el ETag en la clave y no lo necesitan.
+     */
+    public void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) EntityChanged change) {
+        // de la principal y de la réplica
+        flights.remove(key(change.getEntityType(), change.getId(), false));
+        flights.remove(key(change.getEntityType(), change.getId(), true));
+    }
+
+    public void writeTo(PrometheusText out) {
+        String loadsTotal = "homework1_singleflight_loads_total";
+        out.family(loadsTotal, "counter", "Lecturas agrupadas: cargas hechas, resultados compartidos y esperas abandonadas");
+        out.sample(loadsTotal, PrometheusText.labels("result", "loaded"), loads.sum());
+        out.sample(loadsTotal, PrometheusText.labels("result", "shared"), shared.sum());
+        out.sample(loadsTotal, PrometheusText.labels("result", "fallback"), fallbacks.sum());
+        out.family("homework1_singleflight_inflight", "gauge", "Cargas agrupadas en curso");
+        out.sample("homework1_singleflight_inflight", "", flights.size());
+    }
+}
@@ -0,0 +1,115 @@
+package service;
+
+import cbor.CborProvider;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.json.Json;
+import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import model.entities.Topic;
+
+/**
+ * Servicio REST de los topics y sus comentarios
+ *
+ * 1. GET /topic → topics con su número de comentarios; los recuentos salen
+ *    de EntityCounters, que los mantiene con cada alta y baja, sin GROUP BY
+ *    por petición
+ * 2. GET /topic/{id}/comments?cursor=&limit= → comentarios del topic con
+ *    paginación keyset por id; la siguiente página va en Link rel="next"
+ */
+@Stateless
+@Path("topic")
+public class TopicFacadeREST extends AbstractFacade<Topic> {
+
+    @PersistenceContext(unitName = "Homework1PU")
+    private EntityManager em;
+
+    @EJB
+    private EntityCounters counters;
+
+    @EJB
+    private CommentFacadeREST comments;
+
+    @EJB
+    private AsyncReads reads;
+
+    @Resource
+    private SessionContext context;
+
+    public TopicFacadeREST() {
+        super(Topic.class);
+    }
+
+    /**
+     * Vista EJB de este facade, para que las lecturas de AsyncReads tengan transacción
+     */
+    private TopicFacadeREST self() {
+        return context.getBusinessObject(TopicFacadeREST.class);
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public void findAllREST(@Suspended AsyncResponse response) {
+        TopicFacadeREST self = self();
+        reads.submit(response, self::loadAll);
+    }
+
+    /**
+     * GET /topic, con permiso de AsyncReads
+     */
+    public Response loadAll() {
+        JsonArrayBuilder topics = Json.createArrayBuilder();
+        for (Topic topic : reader().createQuery("SELECT t FROM Topic t ORDER BY t.id", Topic.class).getResultList()) {
+            JsonObjectBuilder builder = Json.createObjectBuilder().add("id", topic.getId());
+            if (topic.getName() != null) {
+                builder.add("name", topic.getName());
+            }
+            topics.add(builder.add("commentCount", counters.countComments(topic.getId())));
+        }
+        return Response.ok(topics.build()).build();
+    }
+
+    @GET
+    @Path("{id}/comments")
+    @Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON, CborProvider.APPLICATION_CBOR})
+    public void findComments(@PathParam("id") Long id,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("limit") @DefaultValue("20") int limit,
+            @Context UriInfo uriInfo,
+            @Suspended AsyncResponse response) {
+        TopicFacadeREST self = self();
+        reads.submit(response, () -> self.loadComments(id, cursor, limit, uriInfo));
+    }
+
+    /**
+     * GET /topic/{id}/comments, con permiso de AsyncReads
+     */
+    public Response loadComments(Long id, String cursor, int limit, UriInfo uriInfo) {
+        if (super.find(id) == null) {
+            return ErrorResponse.of(Response.Status.NOT_FOUND, "Topic not found")
+                    .build();
+        }
+        return comments.loadTopicPage(id, cursor, limit, uriInfo);
+    }
+
+    @Override
+    protected EntityManager getEntityManager() {
+        return em;
+    }
+}